@@ -0,0 +1,104 @@
+package io.unlaunch;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Options of {@link UnlaunchClient#evaluateBulk(String, java.util.Iterator, java.util.function.BiConsumer,
+ * BulkEvaluationOptions)}. Start from {@link #defaults()}:
+ *
+ * <pre>
+ *     BulkEvaluationOptions options = BulkEvaluationOptions.defaults()
+ *         .withPool(new ForkJoinPool(8))
+ *         .withoutImpressions();
+ * </pre>
+ *
+ * <p>This class is immutable and hence thread-safe.</p>
+ *
+ * @author umermansoor
+ */
+public final class BulkEvaluationOptions {
+
+    private static final int DEFAULT_BATCH_SIZE = 1024;
+    private static final BulkEvaluationOptions DEFAULTS = new BulkEvaluationOptions(null, true, DEFAULT_BATCH_SIZE);
+
+    // Null for the common pool, which is read when the options are used rather than when they are created
+    private final ForkJoinPool pool;
+    private final boolean recordImpressions;
+    private final int batchSize;
+
+    private BulkEvaluationOptions(ForkJoinPool pool, boolean recordImpressions, int batchSize) {
+        this.pool = pool;
+        this.recordImpressions = recordImpressions;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns the default options: evaluate on {@link ForkJoinPool#commonPool()}, record an impression for every user
+     * and hand out contexts to the pool in batches of 1024.
+     *
+     * @return default options
+     */
+    public static BulkEvaluationOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Returns options that evaluate on the given pool, e.g. to not compete with other users of the common pool.
+     *
+     * @param pool pool to evaluate on
+     * @return new options
+     * @throws IllegalArgumentException if pool is null
+     */
+    public BulkEvaluationOptions withPool(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool must not be null");
+        }
+        return new BulkEvaluationOptions(pool, recordImpressions, batchSize);
+    }
+
+    /**
+     * Returns options that don't record an impression for every user. The number of users that got each variation is
+     * still returned in the {@link BulkEvaluationResult}, and counted for the metrics once the evaluation is done.
+     *
+     * @return new options
+     */
+    public BulkEvaluationOptions withoutImpressions() {
+        return new BulkEvaluationOptions(pool, false, batchSize);
+    }
+
+    /**
+     * Returns options that hand out the given number of contexts to the pool at a time. Larger batches have less
+     * overhead, smaller batches spread a short iterator over more threads.
+     *
+     * @param batchSize number of contexts per task
+     * @return new options
+     * @throws IllegalArgumentException if batchSize is less than 1
+     */
+    public BulkEvaluationOptions withBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1: " + batchSize);
+        }
+        return new BulkEvaluationOptions(pool, recordImpressions, batchSize);
+    }
+
+    ForkJoinPool getPool() {
+        return pool == null ? ForkJoinPool.commonPool() : pool;
+    }
+
+    boolean isRecordImpressions() {
+        return recordImpressions;
+    }
+
+    int getBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkEvaluationOptions{" +
+                "pool=" + (pool == null ? "common" : pool) +
+                ", recordImpressions=" + recordImpressions +
+                ", batchSize=" + batchSize +
+                '}';
+    }
+}
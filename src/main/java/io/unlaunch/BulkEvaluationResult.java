@@ -0,0 +1,53 @@
+package io.unlaunch;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Summary of a bulk evaluation, see {@link UnlaunchClient#evaluateBulk(String, java.util.Iterator,
+ * java.util.function.BiConsumer, BulkEvaluationOptions)}.
+ *
+ * @author umermansoor
+ */
+public class BulkEvaluationResult {
+    private final String flagKey;
+    private final long evaluatedCount;
+    private final Map<String, Long> variationCounts;
+
+    BulkEvaluationResult(String flagKey, long evaluatedCount, Map<String, Long> variationCounts) {
+        this.flagKey = flagKey;
+        this.evaluatedCount = evaluatedCount;
+        this.variationCounts = Collections.unmodifiableMap(variationCounts);
+    }
+
+    public String getFlagKey() {
+        return flagKey;
+    }
+
+    /**
+     * Returns the number of contexts the flag was evaluated for.
+     *
+     * @return number of evaluations
+     */
+    public long getEvaluatedCount() {
+        return evaluatedCount;
+    }
+
+    /**
+     * Returns the number of contexts that got each variation, including "control" if the flag couldn't be evaluated.
+     *
+     * @return immutable map of variation key to count
+     */
+    public Map<String, Long> getVariationCounts() {
+        return variationCounts;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkEvaluationResult{" +
+                "flagKey='" + flagKey + '\'' +
+                ", evaluatedCount=" + evaluatedCount +
+                ", variationCounts=" + variationCounts +
+                '}';
+    }
+}
@@ -0,0 +1,99 @@
+package io.unlaunch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Evaluates one flag for the contexts of an iterator on a {@link ForkJoinPool}.
+ *
+ * <p>The iterator is read on the calling thread, which hands out batches of contexts to the pool. At most a few
+ * batches per thread of the pool are read ahead of the evaluation, so the contexts and their results are never all in
+ * memory at once, however many the iterator returns. Each batch counts its variations locally, and the counts are
+ * added up when the batch is done.</p>
+ *
+ * @author umermansoor
+ */
+final class BulkEvaluator {
+
+    // Batches per thread of the pool that may be waiting or running at once
+    private static final int BATCHES_PER_THREAD = 2;
+
+    private BulkEvaluator() {
+    }
+
+    /**
+     * @param evaluation evaluates the flag for a context, called concurrently by the threads of the pool
+     * @throws IllegalArgumentException if the iterator returns a null context
+     */
+    static BulkEvaluationResult evaluate(String flagKey, Iterator<EvaluationContext> contexts,
+                                         BiConsumer<EvaluationContext, UnlaunchFeature> consumer,
+                                         BulkEvaluationOptions options,
+                                         Function<EvaluationContext, UnlaunchFeature> evaluation) {
+        ForkJoinPool pool = options.getPool();
+        int batchSize = options.getBatchSize();
+        int maxBatches = Math.max(1, pool.getParallelism() * BATCHES_PER_THREAD);
+
+        ArrayDeque<ForkJoinTask<Map<String, long[]>>> batches = new ArrayDeque<>();
+        Map<String, long[]> counts = new HashMap<>();
+        try {
+            while (contexts.hasNext()) {
+                List<EvaluationContext> batch = new ArrayList<>(batchSize);
+                while (batch.size() < batchSize && contexts.hasNext()) {
+                    EvaluationContext context = contexts.next();
+                    if (context == null) {
+                        throw new IllegalArgumentException("contexts must not contain null");
+                    }
+                    batch.add(context);
+                }
+
+                if (batches.size() == maxBatches) {
+                    addCounts(counts, batches.poll().join());
+                }
+                batches.add(pool.submit(() -> evaluateBatch(batch, consumer, evaluation)));
+            }
+
+            while (!batches.isEmpty()) {
+                addCounts(counts, batches.poll().join());
+            }
+        } finally {
+            // Only left if reading the iterator or a batch failed
+            for (ForkJoinTask<?> batch : batches) {
+                batch.cancel(false);
+            }
+        }
+
+        Map<String, Long> variationCounts = new HashMap<>();
+        long evaluatedCount = 0;
+        for (Map.Entry<String, long[]> count : counts.entrySet()) {
+            variationCounts.put(count.getKey(), count.getValue()[0]);
+            evaluatedCount += count.getValue()[0];
+        }
+        return new BulkEvaluationResult(flagKey, evaluatedCount, variationCounts);
+    }
+
+    private static Map<String, long[]> evaluateBatch(List<EvaluationContext> batch,
+                                                     BiConsumer<EvaluationContext, UnlaunchFeature> consumer,
+                                                     Function<EvaluationContext, UnlaunchFeature> evaluation) {
+        Map<String, long[]> counts = new HashMap<>();
+        for (EvaluationContext context : batch) {
+            UnlaunchFeature feature = evaluation.apply(context);
+            counts.computeIfAbsent(feature.getVariation(), variation -> new long[1])[0]++;
+            consumer.accept(context, feature);
+        }
+        return counts;
+    }
+
+    private static void addCounts(Map<String, long[]> counts, Map<String, long[]> batchCounts) {
+        for (Map.Entry<String, long[]> count : batchCounts.entrySet()) {
+            counts.computeIfAbsent(count.getKey(), variation -> new long[1])[0] += count.getValue()[0];
+        }
+    }
+}
@@ -1,15 +1,31 @@
 package io.unlaunch;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+import io.unlaunch.engine.EvaluationPlan;
 import io.unlaunch.engine.FeatureFlag;
+import io.unlaunch.engine.PlanEvaluator;
 import io.unlaunch.engine.UnlaunchUser;
+import io.unlaunch.event.Event;
 import io.unlaunch.event.Impression;
 import io.unlaunch.engine.Evaluator;
 import io.unlaunch.event.EventHandler;
@@ -32,10 +48,17 @@ final class DefaultUnlaunchClient implements UnlaunchClient {
     private final EventHandler flagInvocationMetricHandler;
     private final EventHandler impressionsEventHandler;
     private final Evaluator evaluator = new Evaluator();
+    private final PlanEvaluator planEvaluator = new PlanEvaluator();
     private final BooleanSupplier runCodeOnShutdown;
     private final AtomicBoolean shutdownInitiated = new AtomicBoolean(false);
     private final CountDownLatch initialDownloadDoneLatch;
     private final AtomicBoolean downloadSuccessful;
+    // Null if results aren't cached
+    private final EvaluationCache evaluationCache;
+    // Innermost scope opened on each thread
+    private final ThreadLocal<Scope> currentScope = new ThreadLocal<>();
+    // Held weakly, so abandoned handles are collected
+    private final Set<FlagHandle> flagHandles = Collections.newSetFromMap(new WeakHashMap<>());
 
     private static final Logger logger = LoggerFactory.getLogger(DefaultUnlaunchClient.class);
 
@@ -46,7 +69,8 @@ final class DefaultUnlaunchClient implements UnlaunchClient {
             EventHandler impressionsEventHandler,
             CountDownLatch initialDownloadDoneLatch,
             AtomicBoolean downloadSuccessful,
-            BooleanSupplier runCodeOnShutdown) {
+            BooleanSupplier runCodeOnShutdown,
+            EvaluationCache evaluationCache) {
         this.flagInvocationMetricHandler = variationsCountEventHandler;
         this.impressionsEventHandler = impressionsEventHandler;
         this.dataStore =  dataStore;
@@ -54,6 +78,9 @@ final class DefaultUnlaunchClient implements UnlaunchClient {
         this.downloadSuccessful = downloadSuccessful;
         this.runCodeOnShutdown = runCodeOnShutdown;
         this.defaultEventHandler = eventHandler;
+        this.evaluationCache = evaluationCache;
+
+        dataStore.addFlagsUpdatedListener(this::refreshFlagHandles);
 
         // Add shutdown hook to automatically close
         Runtime.getRuntime().addShutdownHook( new Thread(this::shutdown));
@@ -67,20 +94,107 @@ final class DefaultUnlaunchClient implements UnlaunchClient {
             CountDownLatch initialDownloadDoneLatch,
             AtomicBoolean downloadSuccessful,
             BooleanSupplier runCodeOnShutdown) {
+        return create(dataStore, eventHandler, flagInvocationMetricHandler, impressionsEventHandler,
+                initialDownloadDoneLatch, downloadSuccessful, runCodeOnShutdown, 0);
+    }
+
+    /**
+     * Same as {@link #create(UnlaunchDataStore, EventHandler, EventHandler, EventHandler, CountDownLatch,
+     * AtomicBoolean, BooleanSupplier)} but caches evaluation results.
+     *
+     * @param evaluationCacheSize maximum number of cached results, 0 to not cache results
+     */
+    public static DefaultUnlaunchClient create(
+            UnlaunchDataStore dataStore,
+            EventHandler eventHandler,
+            EventHandler flagInvocationMetricHandler,
+            EventHandler impressionsEventHandler,
+            CountDownLatch initialDownloadDoneLatch,
+            AtomicBoolean downloadSuccessful,
+            BooleanSupplier runCodeOnShutdown,
+            int evaluationCacheSize) {
         return new DefaultUnlaunchClient(dataStore, eventHandler, flagInvocationMetricHandler,
-                impressionsEventHandler, initialDownloadDoneLatch, downloadSuccessful, runCodeOnShutdown);
+                impressionsEventHandler, initialDownloadDoneLatch, downloadSuccessful, runCodeOnShutdown,
+                evaluationCacheSize > 0 ? new EvaluationCache(evaluationCacheSize) : null);
     }
 
     private UnlaunchFeature evaluate(String flagKey, String identity, UnlaunchAttribute ... attributes) {
-        if (flagKey == null || flagKey.isEmpty()) {
-            throw new IllegalArgumentException("Argument flagKey must not be null or empty: " + flagKey);
+        return evaluate(flagKey, identity, attributes, currentScope());
+    }
+
+    private UnlaunchFeature evaluate(String flagKey, String identity, UnlaunchAttribute[] attributes, Scope scope) {
+        validateFlagKey(flagKey);
+        EvaluationContext.validateIdentity(identity);
+
+        if (scope != null || evaluationCache == null) {
+            EvaluationCache.UserKey userKey = scope == null ? null : EvaluationCache.UserKey.of(identity, attributes);
+            return evaluate(flagKey, userKey, () -> createUser(identity, attributes), scope);
+        }
+
+        UnlaunchFeature unavailable = checkAvailable(flagKey);
+        if (unavailable != null) {
+            return unavailable;
+        }
+
+        // The cache is looked up with the identity and attributes as they were passed, so a hit doesn't allocate a key
+        long version = dataStore.getVersion();
+        if (version >= 0) {
+            EvaluationCache.Entry entry = evaluationCache.get(flagKey, identity, attributes, version);
+            if (entry != null) {
+                return cached(flagKey, identity, entry);
+            }
         }
 
-        if (identity != null && !identity.matches("\\S+")) {
-            throw new IllegalArgumentException("identity must be a string and cannot contain any whitespace " +
-                    "characters: " + identity);
+        return evaluateFlag(flagKey, createUser(identity, attributes), null,
+                version >= 0 ? EvaluationCache.UserKey.of(identity, attributes) : null, version);
+    }
+
+    private UnlaunchFeature evaluate(String flagKey, EvaluationContext context, Scope scope) {
+        validateFlagKey(flagKey);
+        validateContext(context);
+
+        return evaluate(flagKey, context.getCacheKey(), context::getUser, scope);
+    }
+
+    /**
+     * Evaluates the flag for the user, which is only created if the result isn't cached or remembered by the scope.
+     *
+     * @param userKey key of the user in the evaluation cache and the scope, or null to use neither, e.g. if the
+     *                user's attributes can't be keyed
+     * @param scope   scope to evaluate the flag in, or null
+     */
+    private UnlaunchFeature evaluate(String flagKey, EvaluationCache.UserKey userKey,
+                                     Supplier<UnlaunchUser> userSupplier, Scope scope) {
+        UnlaunchFeature unavailable = checkAvailable(flagKey);
+        if (unavailable != null) {
+            return unavailable;
         }
 
+        if (scope != null && userKey != null) {
+            // The scope's flags may be older than the cache's, so the cache isn't used
+            return scope.evaluate(flagKey, userKey, userSupplier);
+        }
+
+        // Read before the flag, so a result is never cached for a newer version than it was computed from
+        long version = evaluationCache != null && userKey != null ? dataStore.getVersion() : -1;
+        // Stores that don't track versions can't invalidate results
+        boolean cached = version >= 0;
+        if (cached) {
+            EvaluationCache.Entry entry = evaluationCache.get(flagKey, userKey, version);
+            if (entry != null) {
+                return cached(flagKey, userKey.getIdentity(), entry);
+            }
+        }
+
+        return evaluateFlag(flagKey, userSupplier.get(), scope, cached ? userKey : null, version);
+    }
+
+    /**
+     * Returns the 'control' feature if the client can't evaluate flags, because it is shutting down or not ready.
+     *
+     * @return control feature, or null if flags can be evaluated
+     */
+    private UnlaunchFeature checkAvailable(String flagKey) {
         if (shutdownInitiated.get()) {
             logger.debug("Asked to evaluate flag {} but shutdown already initiated on the client", flagKey);
             return UnlaunchConstants.getControlFeatureByName(flagKey);
@@ -92,19 +206,55 @@ final class DefaultUnlaunchClient implements UnlaunchClient {
             return UnlaunchConstants.getControlFeatureByName(flagKey);
         }
 
-        UnlaunchUser user;
-        if (attributes == null) {
-            user = UnlaunchUser.create(identity);
-        } else {
-            user = UnlaunchUser.createWithAttributes(identity, attributes);
+        return null;
+    }
+
+    /**
+     * Records the impression of a result served from the evaluation cache and returns it.
+     */
+    private UnlaunchFeature cached(String flagKey, String identity, EvaluationCache.Entry entry) {
+        UnlaunchFeature result = entry.getFeature();
+        track(new Impression(flagKey, identity, result.getVariation(), entry.isFlagEnabled(),
+                result.getEvaluationReason()));
+        return result;
+    }
+
+    /**
+     * Evaluates the flag for the user and records the impression.
+     *
+     * @param scope    scope whose flags to use, or null to use the data store's current flags
+     * @param cacheKey key of the user to cache the result under, or null to not cache it
+     * @param version  version of the data store's flags, read before this method was called
+     */
+    private UnlaunchFeature evaluateFlag(String flagKey, UnlaunchUser user, Scope scope,
+                                         EvaluationCache.UserKey cacheKey, long version) {
+        Evaluation evaluation = evaluateFlagUntracked(flagKey, user, scope, cacheKey, version);
+        if (evaluation.impression != null) {
+            track(evaluation.impression);
         }
+        return evaluation.result;
+    }
 
+    /**
+     * Same as {@link #evaluateFlag} but returns the impression instead of recording it.
+     */
+    private Evaluation evaluateFlagUntracked(String flagKey, UnlaunchUser user, Scope scope,
+                                             EvaluationCache.UserKey cacheKey, long version) {
+        EvaluationPlan plan;
         FeatureFlag flag;
         try {
-            flag = dataStore.getFlag(flagKey);
+            Map<String, EvaluationPlan> plans = scope == null ? null : scope.getPlans();
+            if (plans != null) {
+                plan = plans.get(flagKey);
+                flag = plan == null ? null : plan.getFlag();
+            } else {
+                // Use the pre-compiled plan when the data store has one; fall back to interpreting the flag otherwise
+                plan = dataStore.getEvaluationPlan(flagKey);
+                flag = plan != null ? plan.getFlag() : dataStore.getFlag(flagKey);
+            }
         } catch (Exception e) {
-            return UnlaunchFeature.create(flagKey, UnlaunchConstants.FLAG_DEFAULT_RETURN_TYPE, null,
-                    "there was an error fetching flag: " + e.getMessage() );
+            return new Evaluation(UnlaunchFeature.create(flagKey, UnlaunchConstants.FLAG_DEFAULT_RETURN_TYPE, null,
+                    "there was an error fetching flag: " + e.getMessage() ), null);
         }
 
         if (flag == null) {
@@ -117,17 +267,180 @@ final class DefaultUnlaunchClient implements UnlaunchClient {
 
             logger.warn("Feature '{}' not found in the data store. Returning 'control' variation. Flags in local " +
                             "store [{}]", flagKey, result);
-            return UnlaunchFeature.create(flagKey, UnlaunchConstants.FLAG_DEFAULT_RETURN_TYPE, null,
-                    "flag was not found in the in-memory cache");
+            return new Evaluation(UnlaunchFeature.create(flagKey, UnlaunchConstants.FLAG_DEFAULT_RETURN_TYPE, null,
+                    "flag was not found in the in-memory cache"), null);
         }
 
-        UnlaunchFeature result  = evaluator.evaluate(flag, user);
+        UnlaunchFeature result = plan != null ? planEvaluator.evaluate(plan, user) : evaluator.evaluate(flag, user);
+
+        if (cacheKey != null) {
+            evaluationCache.put(flagKey, cacheKey, version, result, flag.isEnabled());
+        }
 
         Impression impression = new Impression(flag.getKey(), user.getId(), result.getVariation(),
                     flag.isEnabled(), result.getEvaluationReason());
-        track(impression);
 
-        return  result;
+        return new Evaluation(result, impression);
+    }
+
+    private Map<String, UnlaunchFeature> evaluateAll(Collection<String> flagKeys, String identity,
+                                                     UnlaunchAttribute ... attributes) {
+        validateFlagKeys(flagKeys);
+        EvaluationContext.validateIdentity(identity);
+
+        Scope scope = currentScope();
+        EvaluationCache.UserKey userKey = scope == null ? null : EvaluationCache.UserKey.of(identity, attributes);
+        return evaluateAll(flagKeys, userKey, () -> createUser(identity, attributes), scope);
+    }
+
+    private Map<String, UnlaunchFeature> evaluateAll(Collection<String> flagKeys, EvaluationContext context) {
+        validateFlagKeys(flagKeys);
+        validateContext(context);
+
+        return evaluateAll(flagKeys, context.getCacheKey(), context::getUser, currentScope());
+    }
+
+    /**
+     * Evaluates the flags for the user, which is only created if the flags are evaluated.
+     *
+     * @param userKey key of the user in the scope, or null to not use the results the scope remembers
+     * @param scope   scope whose flags to use, or null to use the data store's current flags
+     */
+    private Map<String, UnlaunchFeature> evaluateAll(Collection<String> flagKeys, EvaluationCache.UserKey userKey,
+                                                     Supplier<UnlaunchUser> userSupplier, Scope scope) {
+        if (shutdownInitiated.get()) {
+            logger.debug("Asked to evaluate flags but shutdown already initiated on the client");
+            return controlFeatures(flagKeys);
+        }
+
+        if (!isReady()) {
+            logger.warn("The SDK is not ready. Returning the SDK default 'control' as variation which may not give " +
+                    "the right result");
+            return controlFeatures(flagKeys);
+        }
+
+        Map<String, EvaluationPlan> allPlans;
+        try {
+            allPlans = scope != null ? scope.getPlans() : dataStore.getAllEvaluationPlans();
+        } catch (Exception e) {
+            logger.error("there was an error fetching flags: {}", e.getMessage());
+            return controlFeatures(flagKeys);
+        }
+
+        Map<String, UnlaunchFeature> results;
+        if (scope != null && userKey != null) {
+            // Each flag goes through the scope, so flags it already evaluated for the user are neither evaluated nor
+            // recorded again
+            UnlaunchUser[] user = new UnlaunchUser[1];
+            Supplier<UnlaunchUser> createdOnce = () -> user[0] != null ? user[0] : (user[0] = userSupplier.get());
+            results = new HashMap<>();
+            for (String flagKey : flagKeys != null ? flagKeys : allFlagKeys(allPlans)) {
+                results.put(flagKey, scope.evaluate(flagKey, userKey, createdOnce));
+            }
+            return Collections.unmodifiableMap(results);
+        }
+
+        if (allPlans == null) {
+            // The data store doesn't compile flags, evaluate them one by one
+            UnlaunchUser user = userSupplier.get();
+            results = new HashMap<>();
+            for (String flagKey : flagKeys != null ? flagKeys : allFlagKeys(null)) {
+                results.put(flagKey, evaluate(flagKey, null, () -> user, null));
+            }
+            return Collections.unmodifiableMap(results);
+        }
+
+        Collection<EvaluationPlan> plans;
+        if (flagKeys == null) {
+            plans = allPlans.values();
+        } else {
+            plans = new ArrayList<>(flagKeys.size());
+            for (String flagKey : flagKeys) {
+                EvaluationPlan plan = allPlans.get(flagKey);
+                if (plan != null) {
+                    plans.add(plan);
+                }
+            }
+        }
+
+        UnlaunchUser user = userSupplier.get();
+        results = planEvaluator.evaluateAll(plans, user);
+
+        for (Map.Entry<String, UnlaunchFeature> result : results.entrySet()) {
+            track(new Impression(result.getKey(), user.getId(), result.getValue().getVariation(),
+                    allPlans.get(result.getKey()).getFlag().isEnabled(), result.getValue().getEvaluationReason()));
+        }
+
+        if (flagKeys != null) {
+            for (String flagKey : flagKeys) {
+                if (!results.containsKey(flagKey)) {
+                    logger.warn("Feature '{}' not found in the data store. Returning 'control' variation.", flagKey);
+                    results.put(flagKey, UnlaunchFeature.create(flagKey, UnlaunchConstants.FLAG_DEFAULT_RETURN_TYPE,
+                            null, "flag was not found in the in-memory cache"));
+                }
+            }
+        }
+
+        return Collections.unmodifiableMap(results);
+    }
+
+    /**
+     * Returns the keys of all the flags.
+     *
+     * @param allPlans plans of all the flags, or null to read the keys from the data store
+     */
+    private Collection<String> allFlagKeys(Map<String, EvaluationPlan> allPlans) {
+        if (allPlans != null) {
+            return allPlans.keySet();
+        }
+
+        List<String> keys = new ArrayList<>();
+        for (FeatureFlag flag : dataStore.getAllFlags()) {
+            keys.add(flag.getKey());
+        }
+        return keys;
+    }
+
+    private Map<String, UnlaunchFeature> controlFeatures(Collection<String> flagKeys) {
+        if (flagKeys == null) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, UnlaunchFeature> features = new HashMap<>();
+        for (String flagKey : flagKeys) {
+            features.put(flagKey, UnlaunchConstants.getControlFeatureByName(flagKey));
+        }
+        return Collections.unmodifiableMap(features);
+    }
+
+    private static void validateFlagKey(String flagKey) {
+        if (flagKey == null || flagKey.isEmpty()) {
+            throw new IllegalArgumentException("Argument flagKey must not be null or empty: " + flagKey);
+        }
+    }
+
+    private static void validateFlagKeys(Collection<String> flagKeys) {
+        if (flagKeys != null) {
+            for (String flagKey : flagKeys) {
+                if (flagKey == null || flagKey.isEmpty()) {
+                    throw new IllegalArgumentException("flagKeys must not contain null or empty keys: " + flagKeys);
+                }
+            }
+        }
+    }
+
+    private static void validateContext(EvaluationContext context) {
+        if (context == null) {
+            throw new IllegalArgumentException("Argument context must not be null");
+        }
+    }
+
+    private static UnlaunchUser createUser(String identity, UnlaunchAttribute ... attributes) {
+        if (attributes == null) {
+            return UnlaunchUser.create(identity);
+        } else {
+            return UnlaunchUser.createWithAttributes(identity, attributes);
+        }
     }
 
     @Override
@@ -147,6 +460,195 @@ final class DefaultUnlaunchClient implements UnlaunchClient {
         return f;
     }
 
+    @Override
+    public String getVariation(String flagKey, EvaluationContext context) {
+        return evaluate(flagKey, context, currentScope()).getVariation();
+    }
+
+    @Override
+    public UnlaunchFeature getFeature(String flagKey, EvaluationContext context) {
+        return evaluate(flagKey, context, currentScope());
+    }
+
+    @Override
+    public EvaluationScope openScope() {
+        Scope scope = new Scope(currentScope());
+        currentScope.set(scope);
+        return scope;
+    }
+
+    @Override
+    public FlagHandle getFlagHandle(String flagKey, EvaluationContext context) {
+        validateFlagKey(flagKey);
+        validateContext(context);
+
+        // Not evaluated in the current scope, if any, as the handle outlives it
+        FlagHandle handle = new FlagHandle(flagKey, context, () -> evaluate(flagKey, context, null));
+        // Registered before the first evaluation, so flags updated in between are evaluated by the handle again
+        synchronized (flagHandles) {
+            flagHandles.add(handle);
+        }
+        handle.refresh();
+        return handle;
+    }
+
+    @Override
+    public BulkEvaluationResult evaluateBulk(String flagKey, Iterator<EvaluationContext> contexts,
+                                             BiConsumer<EvaluationContext, UnlaunchFeature> consumer,
+                                             BulkEvaluationOptions options) {
+        validateFlagKey(flagKey);
+        if (contexts == null) {
+            throw new IllegalArgumentException("Argument contexts must not be null");
+        }
+        if (consumer == null) {
+            throw new IllegalArgumentException("Argument consumer must not be null");
+        }
+        if (options == null) {
+            throw new IllegalArgumentException("Argument options must not be null");
+        }
+
+        AtomicBoolean flagEvaluated = new AtomicBoolean();
+        BulkEvaluationResult result = BulkEvaluator.evaluate(flagKey, contexts, consumer, options,
+                bulkEvaluation(flagKey, options.isRecordImpressions(), flagEvaluated));
+
+        if (!options.isRecordImpressions() && flagEvaluated.get() && !result.getVariationCounts().isEmpty()) {
+            // Counted once for the whole run, as no impression was recorded for each context
+            Event counts = new Event(UnlaunchConstants.FLAG_INVOCATIONS_COUNT_EVENT_TYPE, flagKey);
+            result.getVariationCounts().forEach(counts::addProperty);
+            if (shutdownInitiated.get()) {
+                logger.error("Cannot track variation counts because client shutdown is already initiated.");
+            } else {
+                flagInvocationMetricHandler.handle(counts);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the evaluation of the flag for a bulk evaluation, which uses the flag as it is now for all contexts.
+     *
+     * @param flagEvaluated set if the flag is evaluated, rather than 'control' returned for all contexts
+     */
+    private Function<EvaluationContext, UnlaunchFeature> bulkEvaluation(String flagKey, boolean recordImpressions,
+                                                                        AtomicBoolean flagEvaluated) {
+        if (shutdownInitiated.get()) {
+            logger.debug("Asked to evaluate flag {} but shutdown already initiated on the client", flagKey);
+            UnlaunchFeature control = UnlaunchConstants.getControlFeatureByName(flagKey);
+            return context -> control;
+        }
+
+        if (!isReady()) {
+            logger.warn("The SDK is not ready. Returning the SDK default 'control' as variation which may not give " +
+                    "the right result");
+            UnlaunchFeature control = UnlaunchConstants.getControlFeatureByName(flagKey);
+            return context -> control;
+        }
+
+        EvaluationPlan plan;
+        FeatureFlag flag;
+        try {
+            plan = dataStore.getEvaluationPlan(flagKey);
+            flag = plan != null ? plan.getFlag() : dataStore.getFlag(flagKey);
+        } catch (Exception e) {
+            UnlaunchFeature error = UnlaunchFeature.create(flagKey, UnlaunchConstants.FLAG_DEFAULT_RETURN_TYPE, null,
+                    "there was an error fetching flag: " + e.getMessage());
+            return context -> error;
+        }
+
+        if (flag == null) {
+            logger.warn("Feature '{}' not found in the data store. Returning 'control' variation.", flagKey);
+            UnlaunchFeature notFound = UnlaunchFeature.create(flagKey, UnlaunchConstants.FLAG_DEFAULT_RETURN_TYPE,
+                    null, "flag was not found in the in-memory cache");
+            return context -> notFound;
+        }
+
+        flagEvaluated.set(true);
+        return context -> {
+            UnlaunchUser user = context.getUser();
+            UnlaunchFeature result = plan != null ? planEvaluator.evaluate(plan, user) : evaluator.evaluate(flag, user);
+            if (recordImpressions) {
+                track(new Impression(flag.getKey(), user.getId(), result.getVariation(), flag.isEnabled(),
+                        result.getEvaluationReason()));
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Evaluates the flag handles again, after new flags are downloaded or the client is shut down.
+     */
+    private void refreshFlagHandles() {
+        List<FlagHandle> handles;
+        synchronized (flagHandles) {
+            if (flagHandles.isEmpty()) {
+                return;
+            }
+            handles = new ArrayList<>(flagHandles);
+        }
+
+        for (FlagHandle handle : handles) {
+            try {
+                handle.refresh();
+            } catch (Exception e) {
+                logger.warn("unable to evaluate flag {} for handle, keeping its last result: {}",
+                        handle.getFlagKey(), e.toString());
+            }
+        }
+    }
+
+    /**
+     * Returns the innermost open scope of the current thread, unbinding scopes that were closed on other threads.
+     */
+    private Scope currentScope() {
+        Scope scope = currentScope.get();
+        if (scope != null && scope.closed) {
+            scope = bindOpenScope(scope);
+        }
+        return scope;
+    }
+
+    private Scope bindOpenScope(Scope scope) {
+        while (scope != null && scope.closed) {
+            scope = scope.previous;
+        }
+
+        if (scope == null) {
+            currentScope.remove();
+        } else {
+            currentScope.set(scope);
+        }
+        return scope;
+    }
+
+    @Override
+    public Map<String, UnlaunchFeature> getAllFeatures(EvaluationContext context) {
+        return evaluateAll(null, context);
+    }
+
+    @Override
+    public Map<String, UnlaunchFeature> getFeatures(Collection<String> flagKeys, EvaluationContext context) {
+        if (flagKeys == null) {
+            throw new IllegalArgumentException("Argument flagKeys must not be null");
+        }
+
+        return evaluateAll(flagKeys, context);
+    }
+
+    @Override
+    public Map<String, UnlaunchFeature> getAllFeatures(String identity, UnlaunchAttribute ... attributes) {
+        return evaluateAll(null, identity, attributes);
+    }
+
+    @Override
+    public Map<String, UnlaunchFeature> getFeatures(Collection<String> flagKeys, String identity,
+                                                    UnlaunchAttribute ... attributes) {
+        if (flagKeys == null) {
+            throw new IllegalArgumentException("Argument flagKeys must not be null");
+        }
+
+        return evaluateAll(flagKeys, identity, attributes);
+    }
+
     @Override
     public void awaitUntilReady(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException{
         boolean closed = initialDownloadDoneLatch.await(timeout, unit);
@@ -180,6 +682,119 @@ final class DefaultUnlaunchClient implements UnlaunchClient {
             logger.debug("client shutdown called");
             shutdownInitiated.set(true);
             runCodeOnShutdown.getAsBoolean();
+            // Handles return "control" after shutdown, like the other methods
+            refreshFlagHandles();
+        }
+    }
+
+    /**
+     * Result of evaluating a flag and the impression to record for it, null if the flag couldn't be evaluated.
+     */
+    private static final class Evaluation {
+        private final UnlaunchFeature result;
+        private final Impression impression;
+
+        private Evaluation(UnlaunchFeature result, Impression impression) {
+            this.result = result;
+            this.impression = impression;
+        }
+    }
+
+    /**
+     * Remembers the results of the evaluations in a scope and pins the flags they are evaluated against.
+     */
+    private final class Scope implements EvaluationScope {
+        private final Scope previous;
+        private final Thread owner = Thread.currentThread();
+        // Pinned on first use, so a scope opened before the client is ready sees the downloaded flags
+        private final AtomicReference<Map<String, EvaluationPlan>> plans = new AtomicReference<>();
+        private final Map<EvaluationCache.UserKey, Map<String, UnlaunchFeature>> results = new ConcurrentHashMap<>();
+        private volatile boolean closed;
+
+        private Scope(Scope previous) {
+            this.previous = previous;
+        }
+
+        /**
+         * Returns the flags of the scope.
+         *
+         * @return plans, or null if the data store doesn't compile flags so they can't be pinned
+         */
+        Map<String, EvaluationPlan> getPlans() {
+            Map<String, EvaluationPlan> pinned = plans.get();
+            if (pinned == null) {
+                pinned = dataStore.getAllEvaluationPlans();
+                if (pinned != null && !plans.compareAndSet(null, pinned)) {
+                    pinned = plans.get();
+                }
+            }
+            return pinned;
+        }
+
+        UnlaunchFeature evaluate(String flagKey, EvaluationCache.UserKey userKey,
+                                 Supplier<UnlaunchUser> userSupplier) {
+            Map<String, UnlaunchFeature> userResults = results.get(userKey);
+            if (userResults == null) {
+                userResults = results.computeIfAbsent(userKey, key -> new ConcurrentHashMap<>());
+            }
+
+            UnlaunchFeature result = userResults.get(flagKey);
+            if (result != null) {
+                return result;
+            }
+
+            // Evaluated outside the map's locks. Threads sharing the scope that race to evaluate the flag all get the
+            // result that was remembered first, and only its impression is recorded.
+            Evaluation evaluation = evaluateFlagUntracked(flagKey, userSupplier.get(), this, null, 0);
+            result = userResults.putIfAbsent(flagKey, evaluation.result);
+            if (result != null) {
+                return result;
+            }
+            if (evaluation.impression != null) {
+                track(evaluation.impression);
+            }
+            return evaluation.result;
+        }
+
+        private Scope checkOpen() {
+            if (closed) {
+                throw new IllegalStateException("The evaluation scope is closed");
+            }
+            return this;
+        }
+
+        @Override
+        public String getVariation(String flagKey, String identity, UnlaunchAttribute... attributes) {
+            return getFeature(flagKey, identity, attributes).getVariation();
+        }
+
+        @Override
+        public String getVariation(String flagKey, EvaluationContext context) {
+            return getFeature(flagKey, context).getVariation();
+        }
+
+        @Override
+        public UnlaunchFeature getFeature(String flagKey, String identity, UnlaunchAttribute... attributes) {
+            return DefaultUnlaunchClient.this.evaluate(flagKey, identity, attributes, checkOpen());
+        }
+
+        @Override
+        public UnlaunchFeature getFeature(String flagKey, EvaluationContext context) {
+            return DefaultUnlaunchClient.this.evaluate(flagKey, context, checkOpen());
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            results.clear();
+            // A scope closed on another thread is unbound by its owner on its next evaluation
+            if (Thread.currentThread() == owner && currentScope.get() == this) {
+                bindOpenScope(previous);
+            }
         }
     }
 
@@ -192,6 +807,14 @@ final class DefaultUnlaunchClient implements UnlaunchClient {
         }
     }
 
+    @Override
+    public EvaluationCacheStats evaluationCacheStats() {
+        if (evaluationCache == null) {
+            return new EvaluationCacheStats(0, 0);
+        }
+        return new EvaluationCacheStats(evaluationCache.getHitCount(), evaluationCache.getMissCount());
+    }
+
     @Override
     public AccountDetails accountDetails() {
         if (!isReady()) {
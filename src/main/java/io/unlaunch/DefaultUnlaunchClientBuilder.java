@@ -42,6 +42,8 @@ final class DefaultUnlaunchClientBuilder implements UnlaunchClientBuilder {
     private long connectionTimeoutMs = 10_000;
     private long readTimeoutMs = 10_000;
     private  String yamlFeaturesFilePath;
+    private int evaluationCacheSize;
+    private boolean generatePredicates;
 
     // These are internal flags to track if values are updated by the user. If so,
     // don't change these by environments e.g. Pre-production vs Production.
@@ -149,6 +151,18 @@ final class DefaultUnlaunchClientBuilder implements UnlaunchClientBuilder {
         throw new UnlaunchRuntimeException("Not yet implemented.");
     }
 
+    @Override
+    public UnlaunchClientBuilder enableEvaluationCache(int maximumSize) {
+        this.evaluationCacheSize = maximumSize;
+        return this;
+    }
+
+    @Override
+    public UnlaunchClientBuilder enableGeneratedPredicates() {
+        this.generatePredicates = true;
+        return this;
+    }
+
     /**
      * Builds and returns an new {@link UnlaunchClient}.
      *
@@ -237,7 +251,8 @@ final class DefaultUnlaunchClientBuilder implements UnlaunchClientBuilder {
                 s3BucketRestClient,
                 initialSyncCompleteLatch,
                 initialSyncSuccessful,
-                pollingIntervalInSeconds);
+                pollingIntervalInSeconds,
+                generatePredicates);
 
         // Try to make sure there are no errors or abandon object construction
         UnlaunchDataStore dataStore = refreshableDataStoreProvider.getNoOpDataStore();
@@ -295,7 +310,8 @@ final class DefaultUnlaunchClientBuilder implements UnlaunchClientBuilder {
                         impressionsEventHandler.close();
                     }
                     return true;
-                });
+                },
+                evaluationCacheSize);
     }
 
     private void logConfigurationOptions() {
@@ -311,10 +327,11 @@ final class DefaultUnlaunchClientBuilder implements UnlaunchClientBuilder {
         logger.info("UnlaunchClient created. Configuration [sdkKey = {}-*, offlineMode = {}, pollingInterval = {} seconds,  " +
                         "connectionTimeout = {} milliseconds, readTimeout = {} milliseconds, " +
                         "metricsFlushInterval = {} seconds, metricsQueueSize = {}, eventsFlushInterval = {}, " +
-                        "eventsQueueSize = {} ]",
+                        "eventsQueueSize = {}, evaluationCacheSize = {}, generatedPredicates = {} ]",
                 partiallyObfuscatedSdkKey, isOffline, pollingIntervalTimeUnit.toSeconds(pollingInterval),
                 connectionTimeoutMs, readTimeoutMs, metricsFlushIntervalTimeUnit.toSeconds(metricsFlushInterval),
-                metricsQueueSize, eventsFlushIntervalTimeUnit.toSeconds(eventsFlushInterval), eventsQueueSize);
+                metricsQueueSize, eventsFlushIntervalTimeUnit.toSeconds(eventsFlushInterval), eventsQueueSize,
+                evaluationCacheSize, generatePredicates);
     }
 
     /**
@@ -385,6 +402,9 @@ final class DefaultUnlaunchClientBuilder implements UnlaunchClientBuilder {
             Preconditions.checkArgument(eventsQueueSize >= MIN_EVENTS_QUEUE_SIZE, "eventsQueue must be at least 500");
             Preconditions.checkArgument(metricsQueueSize >= MIN_METRICS_QUEUE_SIZE, "eventsQueue must be at least 100");
 
+            Preconditions.checkArgument(evaluationCacheSize >= 0 && evaluationCacheSize <= EvaluationCache.MAX_SIZE,
+                    "evaluationCacheSize must be between 0 (disabled) and " + EvaluationCache.MAX_SIZE);
+
         } catch (IllegalArgumentException | NullPointerException e) {
             throw new IllegalStateException(e);
         }
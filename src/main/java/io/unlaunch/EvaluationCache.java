@@ -0,0 +1,298 @@
+package io.unlaunch;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of evaluation results, keyed by flag key and user (identity and attributes), for clients that
+ * evaluate the same flag for the same user repeatedly, e.g. when polling or retrying.
+ *
+ * <p>The cache is a direct mapped table: each key hashes to one entry, and storing a result replaces whatever entry
+ * was there. Lookups and stores are a single read or write of an array element, without locks. Entries are tagged
+ * with the version of the data store's flags they were computed from, see
+ * {@link io.unlaunch.store.UnlaunchDataStore#getVersion()}, so swapping in new flags invalidates all entries at once
+ * and they are replaced as they are looked up.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ *
+ * @author umermansoor
+ */
+final class EvaluationCache {
+
+    /**
+     * Largest number of entries a cache can have.
+     */
+    static final int MAX_SIZE = 1 << 24;
+
+    private final AtomicReferenceArray<Entry> entries;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maximumSize number of entries, rounded up to the next power of two
+     */
+    EvaluationCache(int maximumSize) {
+        if (maximumSize < 1 || maximumSize > MAX_SIZE) {
+            throw new IllegalArgumentException("maximumSize must be between 1 and " + MAX_SIZE + ": " + maximumSize);
+        }
+
+        int capacity = Integer.highestOneBit(maximumSize);
+        if (capacity < maximumSize) {
+            capacity <<= 1;
+        }
+        this.entries = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Returns the cached result of evaluating the flag for the user.
+     *
+     * @param flagKey key of the flag
+     * @param user    user the flag is evaluated for
+     * @param version current version of the data store's flags
+     * @return entry, or null if the result isn't cached or was computed from other flags
+     */
+    Entry get(String flagKey, UserKey user, long version) {
+        int hash = hash(flagKey, user.hash);
+        Entry entry = entries.get(hash & mask);
+        if (entry != null && entry.hash == hash && entry.version == version && entry.flagKey.equals(flagKey)
+                && entry.user.equals(user)) {
+            hits.increment();
+            return entry;
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Returns the cached result of evaluating the flag for the user. The identity and attributes are compared with
+     * the cached ones as they are, so looking up a result doesn't allocate.
+     *
+     * @param flagKey    key of the flag
+     * @param identity   identity of the user
+     * @param attributes attributes of the user, may be null
+     * @param version    current version of the data store's flags
+     * @return entry, or null if the result isn't cached or was computed from other flags
+     */
+    Entry get(String flagKey, String identity, UnlaunchAttribute[] attributes, long version) {
+        int hash = hash(flagKey, UserKey.hash(identity, attributes));
+        Entry entry = entries.get(hash & mask);
+        if (entry != null && entry.hash == hash && entry.version == version && entry.flagKey.equals(flagKey)
+                && entry.user.matches(identity, attributes)) {
+            hits.increment();
+            return entry;
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Caches the result of evaluating the flag for the user.
+     *
+     * @param flagKey     key of the flag
+     * @param user        user the flag was evaluated for, see {@link UserKey#of}
+     * @param version     version of the data store's flags, read before the flag was
+     * @param feature     result
+     * @param flagEnabled whether the flag was enabled, for the impressions of cache hits
+     */
+    void put(String flagKey, UserKey user, long version, UnlaunchFeature feature, boolean flagEnabled) {
+        int hash = hash(flagKey, user.hash);
+        // Final fields, so the entry is safely published without a volatile write
+        entries.lazySet(hash & mask, new Entry(hash, flagKey, user, version, feature, flagEnabled));
+    }
+
+    long getHitCount() {
+        return hits.sum();
+    }
+
+    long getMissCount() {
+        return misses.sum();
+    }
+
+    int getCapacity() {
+        return mask + 1;
+    }
+
+    private static int hash(String flagKey, int userHash) {
+        int h = flagKey.hashCode() * 31 + userHash;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * A cached result.
+     */
+    static final class Entry {
+        private final int hash;
+        private final String flagKey;
+        private final UserKey user;
+        private final long version;
+        private final UnlaunchFeature feature;
+        private final boolean flagEnabled;
+
+        private Entry(int hash, String flagKey, UserKey user, long version, UnlaunchFeature feature,
+                      boolean flagEnabled) {
+            this.hash = hash;
+            this.flagKey = flagKey;
+            this.user = user;
+            this.version = version;
+            this.feature = feature;
+            this.flagEnabled = flagEnabled;
+        }
+
+        UnlaunchFeature getFeature() {
+            return feature;
+        }
+
+        boolean isFlagEnabled() {
+            return flagEnabled;
+        }
+    }
+
+    /**
+     * Identity and attributes of a user, compared by value. Hashing a key is much cheaper than building the user.
+     *
+     * <p>A key holds its own copies of the attribute values, so it never changes once created. Only values of
+     * immutable types, and sets of strings which are copied, can be part of a key. Users with other values, e.g. a
+     * {@link java.util.Date} or a list, can't be keyed and their results aren't cached.</p>
+     */
+    static final class UserKey {
+        private static final Object[] NO_ATTRIBUTES = new Object[0];
+        private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(String.class,
+                Boolean.class, Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+                BigInteger.class, BigDecimal.class, LocalDate.class, LocalDateTime.class));
+
+        private final String identity;
+        // Keys and values of the attributes in the order they were passed, as later values replace earlier ones
+        private final Object[] attributes;
+        private final int hash;
+
+        private UserKey(String identity, Object[] attributes) {
+            this.identity = identity;
+            this.attributes = attributes;
+            int h = Objects.hashCode(identity);
+            for (Object keyOrValue : attributes) {
+                h = 31 * h + Objects.hashCode(keyOrValue);
+            }
+            this.hash = h;
+        }
+
+        /**
+         * Returns the key of a user.
+         *
+         * @return key, or null if a value of the attributes can't be part of a key
+         */
+        static UserKey of(String identity, UnlaunchAttribute... attributes) {
+            return of(identity, attributes, true);
+        }
+
+        /**
+         * Returns the key of a user whose sets of attribute values are already copies that can't change, which are
+         * keyed as they are instead of being copied again.
+         *
+         * @return key, or null if a value of the attributes can't be part of a key
+         */
+        static UserKey ofCopies(String identity, UnlaunchAttribute... attributes) {
+            return of(identity, attributes, false);
+        }
+
+        private static UserKey of(String identity, UnlaunchAttribute[] attributes, boolean copySets) {
+            if (attributes == null || attributes.length == 0) {
+                return new UserKey(identity, NO_ATTRIBUTES);
+            }
+
+            Object[] keysAndValues = new Object[attributes.length * 2];
+            for (int i = 0; i < attributes.length; i++) {
+                Object value = copyOf(attributes[i].getValue(), copySets);
+                if (value == null) {
+                    return null;
+                }
+                keysAndValues[2 * i] = attributes[i].getKey();
+                keysAndValues[2 * i + 1] = value;
+            }
+            return new UserKey(identity, keysAndValues);
+        }
+
+        /**
+         * Returns a value that can't change, or null if the value's type isn't known to be immutable.
+         */
+        private static Object copyOf(Object value, boolean copySets) {
+            if (value != null && IMMUTABLE_TYPES.contains(value.getClass())) {
+                return value;
+            }
+
+            if (value instanceof Set) {
+                Set<?> set = (Set<?>) value;
+                for (Object item : set) {
+                    if (!(item instanceof String)) {
+                        return null;
+                    }
+                }
+                return copySets ? Collections.unmodifiableSet(new HashSet<>(set)) : set;
+            }
+
+            return null;
+        }
+
+        /**
+         * Returns the same hash as the key of the user would have, without creating the key.
+         */
+        static int hash(String identity, UnlaunchAttribute[] attributes) {
+            int h = Objects.hashCode(identity);
+            if (attributes != null) {
+                for (UnlaunchAttribute attribute : attributes) {
+                    h = 31 * h + Objects.hashCode(attribute.getKey());
+                    h = 31 * h + Objects.hashCode(attribute.getValue());
+                }
+            }
+            return h;
+        }
+
+        /**
+         * Returns true if this is the key of the user.
+         */
+        boolean matches(String identity, UnlaunchAttribute[] attributes) {
+            int length = attributes == null ? 0 : attributes.length;
+            if (!Objects.equals(this.identity, identity) || this.attributes.length != length * 2) {
+                return false;
+            }
+
+            for (int i = 0; i < length; i++) {
+                if (!Objects.equals(this.attributes[2 * i], attributes[i].getKey())
+                        || !this.attributes[2 * i + 1].equals(attributes[i].getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        String getIdentity() {
+            return identity;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            UserKey userKey = (UserKey) o;
+            return hash == userKey.hash && Objects.equals(identity, userKey.identity)
+                    && Arrays.equals(attributes, userKey.attributes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
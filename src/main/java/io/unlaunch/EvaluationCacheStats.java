@@ -0,0 +1,54 @@
+package io.unlaunch;
+
+/**
+ * Statistics of the evaluation result cache of an {@link UnlaunchClient}, see
+ * {@link UnlaunchClientBuilder#enableEvaluationCache(int)}.
+ *
+ * @author umermansoor
+ */
+public class EvaluationCacheStats {
+    private final long hitCount;
+    private final long missCount;
+
+    EvaluationCacheStats(long hitCount, long missCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+    }
+
+    /**
+     * Returns the number of evaluations whose result was found in the cache.
+     *
+     * @return hit count
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of evaluations whose result was not found in the cache, either because it wasn't cached, was
+     * evicted or was computed before the flags were last updated.
+     *
+     * @return miss count
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the ratio of evaluations whose result was found in the cache.
+     *
+     * @return hit rate, or 0 if the cache wasn't used
+     */
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0 : (double) hitCount / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "EvaluationCacheStats{" +
+                "hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                '}';
+    }
+}
@@ -0,0 +1,137 @@
+package io.unlaunch;
+
+import io.unlaunch.engine.UnlaunchUser;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * <p>The user (identity and attributes) that feature flags are evaluated for. Build a context once per request and
+ * pass it to the {@link UnlaunchClient} methods that accept one, instead of passing the identity and attributes to
+ * every call:</p>
+ *
+ * <pre>
+ *     EvaluationContext context = EvaluationContext.create(userId,
+ *         UnlaunchAttribute.newString("country", "USA"),
+ *         UnlaunchAttribute.newBoolean("subscriber", true));
+ *
+ *     String loginUi = client.getVariation("new_login_ui", context);
+ *     String bonusPack = client.getVariation("show_bonus_pack", context);
+ * </pre>
+ *
+ * <p>The identity is validated and the attribute values are converted when the context is created, so evaluating a
+ * flag for a context doesn't convert any attributes. An invalid identity or an attribute value of an unsupported type
+ * is reported here rather than by the evaluation. Sets of values are copied, so changing a set after the context is
+ * created doesn't change the context.</p>
+ *
+ * <p>This class is immutable and hence thread-safe. A context can be shared across threads and evaluations.</p>
+ *
+ * @author umermansoor
+ */
+public final class EvaluationContext {
+
+    private static final Pattern IDENTITY_PATTERN = Pattern.compile("\\S+");
+
+    private static final UnlaunchAttribute[] NO_ATTRIBUTES = new UnlaunchAttribute[0];
+
+    // Never exposed, so its attributes can't change after the context is created
+    private final UnlaunchUser user;
+    // The attributes the user was created from, with sets copied
+    private final UnlaunchAttribute[] attributes;
+    // Null if the attributes can't be keyed, in which case results for the context aren't cached
+    private final EvaluationCache.UserKey cacheKey;
+
+    private EvaluationContext(UnlaunchUser user, UnlaunchAttribute[] attributes, EvaluationCache.UserKey cacheKey) {
+        this.user = user;
+        this.attributes = attributes;
+        this.cacheKey = cacheKey;
+    }
+
+    /**
+     * Creates a context.
+     *
+     * @param identity   unique id of your user or a unique identifier such as request or session id, email, etc. It is
+     *                   used to determine bucketing for 'Percentage rollout'.
+     * @param attributes attributes to apply when evaluating target rules. If an attribute key is repeated, the last
+     *                   value is used.
+     * @return context
+     * @throws IllegalArgumentException if the identity is null, empty or contains whitespace, or if a value of an
+     *                                  attribute is of an unsupported type
+     */
+    public static EvaluationContext create(String identity, UnlaunchAttribute... attributes) {
+        if (identity == null) {
+            throw new IllegalArgumentException("identity must not be null");
+        }
+        validateIdentity(identity);
+
+        // The user and its cache key share the copies, so they can't disagree
+        UnlaunchAttribute[] copies = copySets(attributes);
+        EvaluationCache.UserKey cacheKey = EvaluationCache.UserKey.ofCopies(identity, copies);
+        if (copies == null || copies.length == 0) {
+            return new EvaluationContext(UnlaunchUser.create(identity), NO_ATTRIBUTES, cacheKey);
+        } else {
+            return new EvaluationContext(UnlaunchUser.createWithAttributes(identity, copies), copies, cacheKey);
+        }
+    }
+
+    /**
+     * Returns the attributes with every set of values replaced by a copy that can't change.
+     */
+    private static UnlaunchAttribute[] copySets(UnlaunchAttribute[] attributes) {
+        UnlaunchAttribute[] copies = attributes;
+        for (int i = 0; attributes != null && i < attributes.length; i++) {
+            Object value = attributes[i].getValue();
+            if (value instanceof Set) {
+                if (copies == attributes) {
+                    copies = attributes.clone();
+                }
+                copies[i] = new UnlaunchAttribute(attributes[i].getKey(),
+                        Collections.unmodifiableSet(new HashSet<>((Set<?>) value)));
+            }
+        }
+        return copies;
+    }
+
+    static void validateIdentity(String identity) {
+        if (identity != null && !IDENTITY_PATTERN.matcher(identity).matches()) {
+            throw new IllegalArgumentException("identity must be a string and cannot contain any whitespace " +
+                    "characters: " + identity);
+        }
+    }
+
+    /**
+     * Returns the identity of the user.
+     *
+     * @return identity
+     */
+    public String getIdentity() {
+        return user.getId();
+    }
+
+    UnlaunchUser getUser() {
+        return user;
+    }
+
+    /**
+     * Returns the attributes of the user, for clients that evaluate flags by identity and attributes.
+     *
+     * @return attributes, must not be modified
+     */
+    UnlaunchAttribute[] getAttributes() {
+        return attributes;
+    }
+
+    EvaluationCache.UserKey getCacheKey() {
+        return cacheKey;
+    }
+
+    @Override
+    public String toString() {
+        return "EvaluationContext{" +
+                "identity='" + user.getId() + '\'' +
+                ", attributes=" + user.getAllAttributes().keySet() +
+                '}';
+    }
+}
@@ -0,0 +1,63 @@
+package io.unlaunch;
+
+/**
+ * Structured reason of a feature flag evaluation. Returned by {@link UnlaunchFeature#getEvaluationReasonCode()}
+ * along with the human readable {@link UnlaunchFeature#getEvaluationReason()}.
+ *
+ * @author umermansoor
+ */
+public enum EvaluationReasonCode {
+
+    /**
+     * The flag is disabled so the default (off) variation was served.
+     */
+    FLAG_DISABLED("Default Variation served. Because the flag is disabled."),
+
+    /**
+     * A prerequisite flag didn't evaluate to the expected variation so the default (off) variation was served.
+     */
+    PREREQUISITE_FAILED("Default Variation served. Because Pre-requisite failed. "),
+
+    /**
+     * The user is in the allow list of the served variation.
+     */
+    TARGET_USER("Target User rules matched for identity: "),
+
+    /**
+     * A targeting rule matched the user's attributes.
+     */
+    TARGETING_RULE("Targeting Rule matched."),
+
+    /**
+     * No targeting rule matched so the default rule was served.
+     */
+    DEFAULT_RULE("Default Rule served. This is because the flag is Enabled and Target User and Targeting Rules " +
+            "didn't match.");
+
+    private final String message;
+
+    EvaluationReasonCode(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Returns the human readable evaluation reason for this code.
+     *
+     * @param detail evaluation specific detail, such as the user identity or the rule priority. May be null.
+     * @return evaluation reason
+     */
+    String format(String detail) {
+        if (detail == null) {
+            return message;
+        }
+
+        switch (this) {
+            case TARGET_USER:
+                return message + detail;
+            case TARGETING_RULE:
+                return "Targeting Rule (priority #" + detail + ") matched.";
+            default:
+                return message;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package io.unlaunch;
+
+/**
+ * <p>A scope, such as the handling of one HTTP request, within which each feature flag is evaluated at most once per
+ * user. Open a scope with {@link UnlaunchClient#openScope()} and close it when the request is done, preferably with
+ * try-with-resources:</p>
+ *
+ * <pre>
+ *     try (EvaluationScope scope = client.openScope()) {
+ *         // Evaluates the flag
+ *         String variation = client.getVariation("new_login_ui", userId);
+ *         ...
+ *         // Returns the same result without evaluating the flag or recording another impression
+ *         String again = client.getVariation("new_login_ui", userId);
+ *     }
+ * </pre>
+ *
+ * <p>While the scope is open, the client's <code>getVariation</code> and <code>getFeature</code> methods called on
+ * the thread that opened it are evaluated in the scope. The methods of the scope itself can be called from any thread,
+ * e.g. if the request is handled asynchronously.</p>
+ *
+ * <p>Within a scope:</p>
+ * <ul>
+ *     <li>The first evaluation of a flag for a user (identity and attributes) is remembered, and evaluating the flag
+ *     again for the same user returns the same result. An impression is only recorded for the first evaluation. This
+ *     includes the flags evaluated by {@link UnlaunchClient#getAllFeatures(String, UnlaunchAttribute...)} and
+ *     {@link UnlaunchClient#getFeatures(java.util.Collection, String, UnlaunchAttribute...)}.</li>
+ *     <li>All flags are evaluated against the flags the client had when the first flag was evaluated, even if newer
+ *     flags are downloaded in the meantime.</li>
+ * </ul>
+ *
+ * <p>Scopes opened on the same thread nest: closing a scope makes the scope that was open before it current again.
+ * A scope that isn't closed stays bound to its thread, so always close scopes.</p>
+ *
+ * @author umermansoor
+ */
+public interface EvaluationScope extends AutoCloseable {
+
+    /**
+     * Same as {@link UnlaunchClient#getVariation(String, String, UnlaunchAttribute...)}, evaluated in this scope.
+     *
+     * @param flagKey the feature flag you want to evaluate.
+     * @param identity unique id of your user or a unique identifier such as request or session id, email, etc.
+     * @param attributes attributes to apply when evaluating target rules.
+     * @return the evaluated variation or  "control" if there was an error.
+     * @throws IllegalStateException if the scope is closed
+     */
+    String getVariation(String flagKey, String identity, UnlaunchAttribute ... attributes);
+
+    /**
+     * Same as {@link UnlaunchClient#getVariation(String, EvaluationContext)}, evaluated in this scope.
+     *
+     * @param flagKey the feature flag you want to evaluate.
+     * @param context the user to evaluate the feature flag for.
+     * @return the evaluated variation or  "control" if there was an error.
+     * @throws IllegalStateException if the scope is closed
+     */
+    String getVariation(String flagKey, EvaluationContext context);
+
+    /**
+     * Same as {@link UnlaunchClient#getFeature(String, String, UnlaunchAttribute...)}, evaluated in this scope.
+     *
+     * @param flagKey the feature flag you want to evaluate.
+     * @param identity unique id of your user or a unique identifier such as request or session id, email, etc.
+     * @param attributes an array of attributes to evaluate against
+     * @return {@link UnlaunchFeature} object that contains evaluated variation key, configuration and evaluation reason.
+     * @throws IllegalStateException if the scope is closed
+     */
+    UnlaunchFeature getFeature(String flagKey, String identity, UnlaunchAttribute ... attributes);
+
+    /**
+     * Same as {@link UnlaunchClient#getFeature(String, EvaluationContext)}, evaluated in this scope.
+     *
+     * @param flagKey the feature flag you want to evaluate.
+     * @param context the user to evaluate the feature flag for.
+     * @return {@link UnlaunchFeature} object that contains evaluated variation key, configuration and evaluation reason.
+     * @throws IllegalStateException if the scope is closed
+     */
+    UnlaunchFeature getFeature(String flagKey, EvaluationContext context);
+
+    /**
+     * Closes the scope, forgetting its results. Closing a closed scope has no effect.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,86 @@
+package io.unlaunch;
+
+import java.util.function.Supplier;
+
+/**
+ * <p>The live result of evaluating one feature flag for one {@link EvaluationContext}, for process-wide flags such as
+ * kill switches that are checked in tight loops:</p>
+ *
+ * <pre>
+ *     FlagHandle killSwitch = client.getFlagHandle("disable_recommendations",
+ *         EvaluationContext.create("recommendation-service"));
+ *
+ *     while (running) {
+ *         if (!"on".equals(killSwitch.getVariation())) {
+ *             ...
+ *         }
+ *     }
+ * </pre>
+ *
+ * <p>The flag is evaluated when the handle is created and again whenever the client downloads new flags, on the
+ * thread that downloads them. {@link #get()} only reads the last result. An impression is recorded each time the flag
+ * is evaluated, not each time the result is read.</p>
+ *
+ * <p>The client only holds its handles weakly, so a handle that is no longer used is garbage collected and no longer
+ * evaluated. Keep a reference to the handle for as long as you use it.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ *
+ * @author umermansoor
+ */
+public final class FlagHandle {
+
+    private final String flagKey;
+    private final EvaluationContext context;
+    private final Supplier<UnlaunchFeature> evaluation;
+    private volatile UnlaunchFeature value;
+
+    FlagHandle(String flagKey, EvaluationContext context, Supplier<UnlaunchFeature> evaluation) {
+        this.flagKey = flagKey;
+        this.context = context;
+        this.evaluation = evaluation;
+    }
+
+    /**
+     * Returns the result of the last evaluation of the flag.
+     *
+     * @return {@link UnlaunchFeature} object that contains evaluated variation key, configuration and evaluation reason.
+     */
+    public UnlaunchFeature get() {
+        return value;
+    }
+
+    /**
+     * Returns the variation of the last evaluation of the flag, same as <code>get().getVariation()</code>.
+     *
+     * @return the evaluated variation or  "control" if there was an error.
+     */
+    public String getVariation() {
+        return value.getVariation();
+    }
+
+    public String getFlagKey() {
+        return flagKey;
+    }
+
+    public EvaluationContext getContext() {
+        return context;
+    }
+
+    /**
+     * Evaluates the flag again. Synchronized so an evaluation of older flags that finishes late can't replace the
+     * result of newer flags.
+     */
+    synchronized void refresh() {
+        value = evaluation.get();
+    }
+
+    @Override
+    public String toString() {
+        return "FlagHandle{" +
+                "flagKey='" + flagKey + '\'' +
+                ", context=" + context +
+                ", variation=" + value.getVariation() +
+                '}';
+    }
+}
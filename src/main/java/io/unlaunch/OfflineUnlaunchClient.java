@@ -7,11 +7,15 @@ import org.slf4j.LoggerFactory;
 import org.yaml.snakeyaml.Yaml;
 
 import java.io.FileReader;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
 
 /**
  *  Offline Unlaunch client which doesn't connect to the Unlaunch server over network to download feature flags, nor
@@ -37,6 +41,11 @@ public class OfflineUnlaunchClient implements UnlaunchClient {
         loadFromFile();
     }
 
+    @Override
+    public EvaluationCacheStats evaluationCacheStats() {
+        return new EvaluationCacheStats(0, 0);
+    }
+
     @Override
     public AccountDetails accountDetails() {
         return new AccountDetails("client_is_in_offline_mode", "offine_mode", -1);
@@ -62,6 +71,97 @@ public class OfflineUnlaunchClient implements UnlaunchClient {
         return evaluate(flagKey, identity, attributes);
     }
 
+    @Override
+    public String getVariation(String flagKey, EvaluationContext context) {
+        return getFeature(flagKey, context).getVariation();
+    }
+
+    @Override
+    public UnlaunchFeature getFeature(String flagKey, EvaluationContext context) {
+        Preconditions.checkArgument(context != null, "context must not be null");
+        return evaluate(flagKey, context.getIdentity());
+    }
+
+    @Override
+    public Map<String, UnlaunchFeature> getAllFeatures(EvaluationContext context) {
+        Preconditions.checkArgument(context != null, "context must not be null");
+        return getAllFeatures(context.getIdentity());
+    }
+
+    @Override
+    public Map<String, UnlaunchFeature> getFeatures(Collection<String> flagKeys, EvaluationContext context) {
+        Preconditions.checkArgument(context != null, "context must not be null");
+        return getFeatures(flagKeys, context.getIdentity());
+    }
+
+    @Override
+    public FlagHandle getFlagHandle(String flagKey, EvaluationContext context) {
+        Preconditions.checkArgument(context != null, "context must not be null");
+        FlagHandle handle = new FlagHandle(flagKey, context, () -> evaluate(flagKey, context.getIdentity()));
+        handle.refresh();
+        return handle;
+    }
+
+    @Override
+    public BulkEvaluationResult evaluateBulk(String flagKey, Iterator<EvaluationContext> contexts,
+                                             BiConsumer<EvaluationContext, UnlaunchFeature> consumer,
+                                             BulkEvaluationOptions options) {
+        Preconditions.checkArgument(contexts != null, "contexts must not be null");
+        Preconditions.checkArgument(consumer != null, "consumer must not be null");
+        Preconditions.checkArgument(options != null, "options must not be null");
+
+        UnlaunchFeature feature = evaluate(flagKey, null);
+        return BulkEvaluator.evaluate(flagKey, contexts, consumer, options, context -> feature);
+    }
+
+    @Override
+    public EvaluationScope openScope() {
+        // Results are the same for every evaluation, so there is nothing to remember
+        return new EvaluationScope() {
+            @Override
+            public String getVariation(String flagKey, String identity, UnlaunchAttribute... attributes) {
+                return OfflineUnlaunchClient.this.getVariation(flagKey, identity, attributes);
+            }
+
+            @Override
+            public String getVariation(String flagKey, EvaluationContext context) {
+                return OfflineUnlaunchClient.this.getVariation(flagKey, context);
+            }
+
+            @Override
+            public UnlaunchFeature getFeature(String flagKey, String identity, UnlaunchAttribute... attributes) {
+                return OfflineUnlaunchClient.this.getFeature(flagKey, identity, attributes);
+            }
+
+            @Override
+            public UnlaunchFeature getFeature(String flagKey, EvaluationContext context) {
+                return OfflineUnlaunchClient.this.getFeature(flagKey, context);
+            }
+
+            @Override
+            public void close() {
+                // Do nothing
+            }
+        };
+    }
+
+    @Override
+    public Map<String, UnlaunchFeature> getAllFeatures(String identity, UnlaunchAttribute... attributes) {
+        return Collections.unmodifiableMap(new HashMap<>(dataStore));
+    }
+
+    @Override
+    public Map<String, UnlaunchFeature> getFeatures(Collection<String> flagKeys, String identity,
+                                                    UnlaunchAttribute... attributes) {
+        Preconditions.checkArgument(flagKeys != null, "flag keys must not be null");
+
+        Map<String, UnlaunchFeature> features = new HashMap<>();
+        for (String flagKey : flagKeys) {
+            features.put(flagKey, evaluate(flagKey, identity, attributes));
+        }
+        return Collections.unmodifiableMap(features);
+    }
+
     @Override
     public void awaitUntilReady(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
         // Do nothing
@@ -1,7 +1,13 @@
 package io.unlaunch;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
 
 /**
  * <p>Client for accessing Unlaunch. Provides all features for accessing and evaluating features flags setup through
@@ -76,6 +82,16 @@ public interface UnlaunchClient extends Cloneable {
      */
     AccountDetails accountDetails();
 
+    /**
+     * Returns statistics of the evaluation result cache, see {@link UnlaunchClientBuilder#enableEvaluationCache(int)}.
+     * The counts are zero if the cache is disabled, and always zero with the default implementation.
+     *
+     * @return {@link EvaluationCacheStats}
+     */
+    default EvaluationCacheStats evaluationCacheStats() {
+        return new EvaluationCacheStats(0, 0);
+    }
+
     /**
      *  Evaluates and returns the variation (variation key) for this feature. Variations are defined using the Unlaunch
      *  Console at <a href="https://app.unlaunch.io">https://app.unlaunch.io</a>.
@@ -177,6 +193,240 @@ public interface UnlaunchClient extends Cloneable {
      */
     UnlaunchFeature getFeature(String flagKey, String identity, UnlaunchAttribute ... attributes);
 
+    /**
+     *  Evaluates all feature flags for the user and returns a {@link UnlaunchFeature} for each, keyed by flag key.
+     *  This is much cheaper than calling {@link #getFeature(String, String, UnlaunchAttribute...)} for every flag:
+     *  the user is built once, bucketing is shared and prerequisite flags are evaluated only once. Use this when you
+     *  need many flags for the same user, e.g. to render a page.
+     *
+     *  <pre>
+     *      Map&lt;String, UnlaunchFeature&gt; features = client.getAllFeatures(userId,
+     *          UnlaunchAttribute.newString("country", "USA"));
+     *      String variation = features.get("new_login_ui").getVariation();
+     *  </pre>
+     *
+     * <p>This method doesn't throw any exceptions nor does it return <code>null</code> value. If the client isn't
+     * ready, the returned map is empty.</p>
+     *
+     * <p>The default implementation throws {@link UnsupportedOperationException}, as the flags can't be listed
+     * through this interface.</p>
+     *
+     * @param identity unique id of your user or a unique identifier such as request or session id, email, etc.
+     * @param attributes an array of attributes to evaluate against
+     * @return immutable map of flag key to {@link UnlaunchFeature}
+     */
+    default Map<String, UnlaunchFeature> getAllFeatures(String identity, UnlaunchAttribute ... attributes) {
+        throw new UnsupportedOperationException("getAllFeatures is not supported by " + getClass().getName());
+    }
+
+    /**
+     *  Same as {@link #getAllFeatures(String, UnlaunchAttribute...)} but only evaluates the given flags. Flags that
+     *  are not found have the "control" variation, same as {@link #getFeature(String, String)}.
+     *
+     * <p>The default implementation calls {@link #getFeature(String, String, UnlaunchAttribute...)} for each flag.</p>
+     *
+     * @param flagKeys the feature flags you want to evaluate.
+     * @param identity unique id of your user or a unique identifier such as request or session id, email, etc.
+     * @param attributes an array of attributes to evaluate against
+     * @return immutable map of flag key to {@link UnlaunchFeature}, with an entry for every flag key
+     */
+    default Map<String, UnlaunchFeature> getFeatures(Collection<String> flagKeys, String identity,
+                                                     UnlaunchAttribute ... attributes) {
+        if (flagKeys == null) {
+            throw new IllegalArgumentException("Argument flagKeys must not be null");
+        }
+
+        Map<String, UnlaunchFeature> features = new HashMap<>();
+        for (String flagKey : flagKeys) {
+            features.put(flagKey, getFeature(flagKey, identity, attributes));
+        }
+        return Collections.unmodifiableMap(features);
+    }
+
+    /**
+     *  Same as {@link #getVariation(String, String, UnlaunchAttribute...)} but evaluates the feature flag for a
+     *  {@link EvaluationContext}. The context's attributes were converted when it was created, so evaluating many
+     *  flags for the same context is cheaper than passing the attributes to every call.
+     *
+     *  <pre>
+     *      EvaluationContext context = EvaluationContext.create(userId,
+     *          UnlaunchAttribute.newString("country", "USA"));
+     *      String variation = client.getVariation("new_login_ui", context);
+     *  </pre>
+     *
+     * <p>This method doesn't throw any exceptions nor does it return <code>null</code> value</p>
+     *
+     * <p>The default implementation passes the context's identity and attributes to
+     * {@link #getVariation(String, String, UnlaunchAttribute...)}.</p>
+     *
+     * @param flagKey the feature flag you want to evaluate.
+     * @param context the user to evaluate the feature flag for.
+     * @return the evaluated variation or  "control" if there was an error.
+     */
+    default String getVariation(String flagKey, EvaluationContext context) {
+        if (context == null) {
+            throw new IllegalArgumentException("Argument context must not be null");
+        }
+
+        return getVariation(flagKey, context.getIdentity(), context.getAttributes());
+    }
+
+    /**
+     *  Same as {@link #getFeature(String, String, UnlaunchAttribute...)} but evaluates the feature flag for a
+     *  {@link EvaluationContext}. The default implementation passes the context's identity and attributes to
+     *  {@link #getFeature(String, String, UnlaunchAttribute...)}.
+     *
+     * @param flagKey the feature flag you want to evaluate.
+     * @param context the user to evaluate the feature flag for.
+     * @return {@link UnlaunchFeature} object that contains evaluated variation key, configuration and evaluation reason.
+     */
+    default UnlaunchFeature getFeature(String flagKey, EvaluationContext context) {
+        if (context == null) {
+            throw new IllegalArgumentException("Argument context must not be null");
+        }
+
+        return getFeature(flagKey, context.getIdentity(), context.getAttributes());
+    }
+
+    /**
+     *  Same as {@link #getAllFeatures(String, UnlaunchAttribute...)} but evaluates the feature flags for a
+     *  {@link EvaluationContext}. The default implementation passes the context's identity and attributes to
+     *  {@link #getAllFeatures(String, UnlaunchAttribute...)}.
+     *
+     * @param context the user to evaluate the feature flags for.
+     * @return immutable map of flag key to {@link UnlaunchFeature}
+     */
+    default Map<String, UnlaunchFeature> getAllFeatures(EvaluationContext context) {
+        if (context == null) {
+            throw new IllegalArgumentException("Argument context must not be null");
+        }
+
+        return getAllFeatures(context.getIdentity(), context.getAttributes());
+    }
+
+    /**
+     *  Same as {@link #getFeatures(Collection, String, UnlaunchAttribute...)} but evaluates the feature flags for a
+     *  {@link EvaluationContext}. The default implementation passes the context's identity and attributes to
+     *  {@link #getFeatures(Collection, String, UnlaunchAttribute...)}.
+     *
+     * @param flagKeys the feature flags you want to evaluate.
+     * @param context the user to evaluate the feature flags for.
+     * @return immutable map of flag key to {@link UnlaunchFeature}, with an entry for every flag key
+     */
+    default Map<String, UnlaunchFeature> getFeatures(Collection<String> flagKeys, EvaluationContext context) {
+        if (context == null) {
+            throw new IllegalArgumentException("Argument context must not be null");
+        }
+
+        return getFeatures(flagKeys, context.getIdentity(), context.getAttributes());
+    }
+
+    /**
+     * Returns a {@link FlagHandle} that holds the result of evaluating the flag for the context, evaluated again
+     * whenever new flags are downloaded. Reading the handle's result is much cheaper than evaluating the flag, so use
+     * this for flags that are checked very frequently for the same context, such as kill switches.
+     *
+     * <pre>
+     *     FlagHandle killSwitch = client.getFlagHandle("disable_recommendations",
+     *         EvaluationContext.create("recommendation-service"));
+     *     if ("on".equals(killSwitch.getVariation())) {
+     *         ...
+     *     }
+     * </pre>
+     *
+     * <p>The default implementation throws {@link UnsupportedOperationException}, as there is no way to learn
+     * through this interface when new flags are downloaded.</p>
+     *
+     * @param flagKey the feature flag you want to evaluate.
+     * @param context the user to evaluate the feature flag for.
+     * @return {@link FlagHandle}
+     */
+    default FlagHandle getFlagHandle(String flagKey, EvaluationContext context) {
+        throw new UnsupportedOperationException("getFlagHandle is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Evaluates the feature flag for every context of the iterator, in parallel on a {@link
+     * java.util.concurrent.ForkJoinPool}, e.g. to assign all users to a variation in a batch job. All contexts are
+     * evaluated against the flag as it was when this method was called, even if newer flags are downloaded in the
+     * meantime.
+     *
+     * <pre>
+     *     BulkEvaluationResult result = client.evaluateBulk("new_pricing", users.stream().map(User::toContext).iterator(),
+     *         (context, feature) -&gt; assignments.write(context.getIdentity(), feature.getVariation()),
+     *         BulkEvaluationOptions.defaults().withoutImpressions());
+     * </pre>
+     *
+     * <p>The iterator is read on the calling thread, which returns once all contexts are evaluated. The results are
+     * passed to the consumer as they are evaluated rather than collected, so the consumer is called concurrently by
+     * the threads of the pool and in no particular order. If the iterator or the consumer throws an exception, the
+     * evaluation is stopped and this method throws an exception of the same type.</p>
+     *
+     * <p>The default implementation evaluates the contexts one by one on the calling thread with
+     * {@link #getFeature(String, EvaluationContext)}, ignoring the pool and recording impressions whatever the
+     * options.</p>
+     *
+     * @param flagKey  the feature flag you want to evaluate.
+     * @param contexts the users to evaluate the feature flag for.
+     * @param consumer called with each context and its {@link UnlaunchFeature}.
+     * @param options  pool to evaluate on and whether to record impressions, see {@link BulkEvaluationOptions}.
+     * @return number of users that got each variation
+     * @throws IllegalArgumentException if an argument is null or the flag key is empty, or if the iterator returns a
+     *                                  null context
+     */
+    default BulkEvaluationResult evaluateBulk(String flagKey, Iterator<EvaluationContext> contexts,
+                                              BiConsumer<EvaluationContext, UnlaunchFeature> consumer,
+                                              BulkEvaluationOptions options) {
+        if (flagKey == null || flagKey.isEmpty()) {
+            throw new IllegalArgumentException("Argument flagKey must not be null or empty: " + flagKey);
+        }
+        if (contexts == null) {
+            throw new IllegalArgumentException("Argument contexts must not be null");
+        }
+        if (consumer == null) {
+            throw new IllegalArgumentException("Argument consumer must not be null");
+        }
+        if (options == null) {
+            throw new IllegalArgumentException("Argument options must not be null");
+        }
+
+        long evaluatedCount = 0;
+        Map<String, Long> variationCounts = new HashMap<>();
+        while (contexts.hasNext()) {
+            EvaluationContext context = contexts.next();
+            if (context == null) {
+                throw new IllegalArgumentException("contexts must not contain null");
+            }
+
+            UnlaunchFeature feature = getFeature(flagKey, context);
+            consumer.accept(context, feature);
+            evaluatedCount++;
+            variationCounts.merge(feature.getVariation(), 1L, Long::sum);
+        }
+        return new BulkEvaluationResult(flagKey, evaluatedCount, variationCounts);
+    }
+
+    /**
+     * Opens an {@link EvaluationScope}, e.g. for the handling of one HTTP request, within which each flag is evaluated
+     * at most once per user and all flags are evaluated against the same download of flags. Until the scope is
+     * closed, the <code>getVariation</code> and <code>getFeature</code> methods called on this thread are evaluated in
+     * the scope.
+     *
+     * <pre>
+     *     try (EvaluationScope scope = client.openScope()) {
+     *         handleRequest(request);
+     *     }
+     * </pre>
+     *
+     * <p>The default implementation throws {@link UnsupportedOperationException}, as the flags can't be pinned to
+     * one download through this interface.</p>
+     *
+     * @return the scope, which must be closed
+     */
+    default EvaluationScope openScope() {
+        throw new UnsupportedOperationException("openScope is not supported by " + getClass().getName());
+    }
+
     /**
      * Causes the current thread to wait until {@link UnlaunchClient} is initialized, unless the thread is interrupted,
      * or the specified waiting time elapses.
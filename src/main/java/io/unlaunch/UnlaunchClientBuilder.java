@@ -113,4 +113,36 @@ public interface UnlaunchClientBuilder {
 
     UnlaunchClientBuilder enableLazyLoading();
 
+    /**
+     * Caches the results of {@link UnlaunchClient#getVariation(String, String, UnlaunchAttribute...)},
+     * {@link UnlaunchClient#getFeature(String, String, UnlaunchAttribute...)} and their overloads, keyed by flag and
+     * user (identity and attributes). Use this if the same flag is evaluated for the same user repeatedly, e.g. by
+     * polling clients. Impressions and metrics are recorded for cached results as well, and the cache is invalidated
+     * whenever flags are downloaded.
+     * <p>The cache is a direct-mapped table of <code>maximumSize</code> entries, rounded up to the next power of two;
+     * results whose keys hash to the same entry replace each other. See {@link UnlaunchClient#evaluationCacheStats()}
+     * for its hit rate.</p>
+     * <p>This is disabled by default. The default implementation of this method leaves it disabled, which doesn't
+     * change any results.</p>
+     * @param maximumSize number of entries of the table, rounded up to the next power of two
+     * @return {@link UnlaunchClientBuilder}
+     */
+    default UnlaunchClientBuilder enableEvaluationCache(int maximumSize) {
+        return this;
+    }
+
+    /**
+     * Compiles the conditions of each targeting rule into a class of its own when flags are downloaded, specialized
+     * for the operators, attribute types and values of the conditions, instead of testing them through the generic
+     * operators on every evaluation. The JIT compiler can then inline each condition with its value as a constant.
+     * Results are the same in both modes; rules whose class can't be generated have their conditions tested one by
+     * one.
+     * <p>This is disabled by default. The default implementation of this method leaves it disabled, which doesn't
+     * change any results.</p>
+     * @return {@link UnlaunchClientBuilder}
+     */
+    default UnlaunchClientBuilder enableGeneratedPredicates() {
+        return this;
+    }
+
 }
@@ -25,13 +25,27 @@ public class UnlaunchFeature {
     private final String flagKey;
     private final String variationKey;
     private final Map<String, String> properties;
-    private final String evaluationReason;
+    private final EvaluationReasonCode evaluationReasonCode;
+    private final String evaluationReasonDetail;
+    // Formatted from the reason code on first use. Racy but safe, String is immutable.
+    private String evaluationReason;
 
     private UnlaunchFeature(String flagKey, String variationKey, String evaluationReason, Map<String, String> properties) {
         this.flagKey = flagKey;
         this.variationKey = variationKey;
         this.evaluationReason = evaluationReason;
         this.properties = properties;
+        this.evaluationReasonCode = null;
+        this.evaluationReasonDetail = null;
+    }
+
+    private UnlaunchFeature(String flagKey, String variationKey, Map<String, String> properties,
+                            EvaluationReasonCode evaluationReasonCode, String evaluationReasonDetail) {
+        this.flagKey = flagKey;
+        this.variationKey = variationKey;
+        this.properties = properties;
+        this.evaluationReasonCode = evaluationReasonCode;
+        this.evaluationReasonDetail = evaluationReasonDetail;
     }
 
     /**
@@ -99,7 +113,23 @@ public class UnlaunchFeature {
      * @return evaluation reason (as String) explaining why the variation was selected
      */
     public String getEvaluationReason() {
-        return evaluationReason;
+        String reason = evaluationReason;
+        if (reason == null && evaluationReasonCode != null) {
+            reason = evaluationReasonCode.format(evaluationReasonDetail);
+            evaluationReason = reason;
+        }
+        return reason;
+    }
+
+    /**
+     * Returns the structured reason of the evaluation. Use this instead of parsing
+     * {@link UnlaunchFeature#getEvaluationReason()} if you need to act on why a variation was chosen.
+     *
+     * @return evaluation reason code, or <code>null</code> if the variation wasn't chosen by evaluating the flag
+     * e.g. the "control" variation returned when the flag was not found
+     */
+    public EvaluationReasonCode getEvaluationReasonCode() {
+        return evaluationReasonCode;
     }
 
     public static UnlaunchFeature create(String flagKey, String variationKey, Map<String, String> properties,
@@ -107,6 +137,22 @@ public class UnlaunchFeature {
         return new UnlaunchFeature(flagKey, variationKey, evaluationReason, properties);
     }
 
+    /**
+     * Creates a feature with a structured evaluation reason. The human readable reason is only formatted if
+     * {@link UnlaunchFeature#getEvaluationReason()} is called, so results can be built ahead of time and shared.
+     *
+     * @param flagKey flag key
+     * @param variationKey variation key
+     * @param properties configuration of the variation
+     * @param evaluationReasonCode reason code
+     * @param evaluationReasonDetail evaluation specific detail of the reason, may be null
+     * @return feature
+     */
+    public static UnlaunchFeature create(String flagKey, String variationKey, Map<String, String> properties,
+                                         EvaluationReasonCode evaluationReasonCode, String evaluationReasonDetail) {
+        return new UnlaunchFeature(flagKey, variationKey, properties, evaluationReasonCode, evaluationReasonDetail);
+    }
+
     public static UnlaunchFeature create(String flagKey, String variationKey, Map<String, String> properties) {
         return new UnlaunchFeature(flagKey, variationKey, "", properties);
     }
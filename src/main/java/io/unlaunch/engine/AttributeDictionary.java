@@ -0,0 +1,71 @@
+package io.unlaunch.engine;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns a dense integer id (slot) to every attribute name referenced by the conditions of a set of flags. Compiled
+ * conditions read the user's value of their attribute by slot instead of looking it up by name, see
+ * {@link SlotValues}.
+ *
+ * <p>This class is immutable and hence thread-safe.</p>
+ *
+ * @author umermansoor
+ */
+final class AttributeDictionary {
+
+    private final String[] names;
+    private final Map<String, Integer> slots;
+
+    /**
+     * @param attributeNames distinct attribute names, slots are assigned in iteration order
+     */
+    AttributeDictionary(Collection<String> attributeNames) {
+        this.names = attributeNames.toArray(new String[0]);
+        this.slots = new HashMap<>(names.length * 2);
+
+        for (int i = 0; i < names.length; i++) {
+            if (slots.put(names[i], i) != null) {
+                throw new IllegalArgumentException("attribute '" + names[i] + "' is defined more than once");
+            }
+        }
+    }
+
+    /**
+     * Returns the slot of the attribute.
+     *
+     * @param attributeName name of the attribute
+     * @return slot, or -1 if no condition references the attribute
+     */
+    int getSlot(String attributeName) {
+        Integer slot = slots.get(attributeName);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Returns the name of the attribute in the slot.
+     *
+     * @param slot slot of the attribute
+     * @return attribute name
+     */
+    String getName(int slot) {
+        return names[slot];
+    }
+
+    /**
+     * Returns the number of slots.
+     *
+     * @return number of attributes in this dictionary
+     */
+    int size() {
+        return names.length;
+    }
+
+    @Override
+    public String toString() {
+        return "AttributeDictionary{" +
+                "slots=" + slots +
+                '}';
+    }
+}
@@ -0,0 +1,109 @@
+package io.unlaunch.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests all conditions of a flag on one attribute together. The user's value is projected once per evaluation into
+ * a bit set (see {@link AttributeMatches}) and each condition is then tested by a few word-wise operations on it and
+ * the bit set its operand was encoded into when the flag was loaded.
+ *
+ * <p>Implementations are immutable and hence thread-safe.</p>
+ *
+ * @author umermansoor
+ * @see StringMatcher
+ * @see SetMatcher
+ */
+abstract class AttributeMatcher {
+
+    private final int slot;
+
+    AttributeMatcher(int slot) {
+        this.slot = slot;
+    }
+
+    /**
+     * Builds the matchers of the attributes whose conditions pay off being tested together.
+     *
+     * @param rules      targeting rules of a flag
+     * @param dictionary slots of the attributes referenced by the conditions
+     * @return matchers, or null if there are none
+     */
+    static AttributeMatcher[] build(List<Rule> rules, AttributeDictionary dictionary) {
+        List<AttributeMatcher> matchers = new ArrayList<>();
+        matchers.addAll(StringMatcher.buildAll(rules, dictionary));
+        matchers.addAll(SetMatcher.buildAll(rules, dictionary));
+        return matchers.isEmpty() ? null : matchers.toArray(new AttributeMatcher[0]);
+    }
+
+    /**
+     * Returns the slot of the attribute in the {@link AttributeDictionary}.
+     *
+     * @return slot
+     */
+    int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Encodes the operand of a condition on the attribute of this matcher.
+     *
+     * @param condition condition of the flag
+     * @return bit set of the operand, or null if the condition is not tested by this matcher
+     */
+    abstract long[] encode(Condition condition);
+
+    /**
+     * Returns true if values of this type are projected by this matcher. Conditions test other values themselves.
+     *
+     * @param userValue user's value of the attribute, not null
+     * @return true if the value can be projected
+     */
+    abstract boolean accepts(UnlaunchValue userValue);
+
+    /**
+     * Projects the user's value into a bit set.
+     *
+     * @param userValue user's value of the attribute, accepted by this matcher
+     * @return bit set
+     */
+    abstract long[] project(UnlaunchValue userValue);
+
+    /**
+     * Tests a condition.
+     *
+     * @param operator  operator of the condition
+     * @param operand   operand of the condition, see {@link #encode(Condition)}
+     * @param userValue user's value, see {@link #project(UnlaunchValue)}
+     * @return true if the condition is satisfied
+     */
+    abstract boolean test(Operator operator, long[] operand, long[] userValue);
+
+    static boolean intersects(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if ((a[i] & b[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if every bit of a is set in b.
+     */
+    static boolean isSubset(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if ((a[i] & ~b[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" +
+                "slot=" + slot +
+                '}';
+    }
+}
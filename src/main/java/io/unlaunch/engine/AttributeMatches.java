@@ -0,0 +1,50 @@
+package io.unlaunch.engine;
+
+/**
+ * The user's values projected by the {@link AttributeMatcher}s of a flag during one evaluation. Each value is
+ * projected the first time a condition asks for it.
+ *
+ * <p>This class is not thread-safe, it is confined to the evaluation that created it.</p>
+ *
+ * @author umermansoor
+ */
+final class AttributeMatches {
+
+    private final AttributeMatcher[] matchers;
+    private final SlotValues userValues;
+    private final long[][] projections;
+
+    AttributeMatches(AttributeMatcher[] matchers, SlotValues userValues) {
+        this.matchers = matchers;
+        this.userValues = userValues;
+        this.projections = new long[matchers.length][];
+    }
+
+    /**
+     * Returns true if the matcher projects the user's value, see {@link AttributeMatcher#accepts(UnlaunchValue)}.
+     *
+     * @param matcher   index of the matcher
+     * @param userValue user's value of the matcher's attribute
+     * @return true if the value can be projected
+     */
+    boolean accepts(int matcher, UnlaunchValue userValue) {
+        return matchers[matcher].accepts(userValue);
+    }
+
+    /**
+     * Tests a condition against the user's value of the matcher's attribute.
+     *
+     * @param matcher  index of the matcher
+     * @param operator operator of the condition
+     * @param operand  operand of the condition, encoded by the matcher
+     * @return true if the condition is satisfied
+     */
+    boolean test(int matcher, Operator operator, long[] operand) {
+        long[] projection = projections[matcher];
+        if (projection == null) {
+            projection = matchers[matcher].project(userValues.get(matchers[matcher].getSlot()));
+            projections[matcher] = projection;
+        }
+        return matchers[matcher].test(operator, operand, projection);
+    }
+}
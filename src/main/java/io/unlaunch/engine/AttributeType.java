@@ -12,7 +12,8 @@ enum AttributeType {
     BOOLEAN("boolean"),
     DATE("date"),
     DATE_TIME("datetime"),       
-    SET("set");          
+    SET("set"),
+    SEMVER("semver");
             
     String name;
 
@@ -0,0 +1,69 @@
+package io.unlaunch.engine;
+
+import io.unlaunch.utils.MurmurHash3;
+
+/**
+ * Assigns users to one of 100 buckets for a flag. Percentage rollouts use the bucket to pick a variation, so the
+ * assignment must stay stable across SDK versions.
+ *
+ * @author umermansoor
+ */
+final class Bucketing {
+
+    static final int NUMBER_OF_BUCKETS = 100;
+
+    private Bucketing() {
+    }
+
+    /**
+     * Returns the bucket (1 to 100 inclusive) of the user for the given flag.
+     *
+     * @param userId  id of the user
+     * @param flagKey key of the flag
+     * @return bucket number
+     */
+    static int getBucket(String userId, String flagKey) {
+        if (userId == null || flagKey == null) {
+            throw new IllegalArgumentException("userId and featureId must not be null");
+        }
+
+        return toBucket(MurmurHash3.murmurhash3_x86_32(userId, flagKey, 0));
+    }
+
+    /**
+     * Hashes the user id so it can be bucketed for many flags with {@link #getBucket(MurmurHash3.PrefixState, String)}
+     * without hashing it again for every flag.
+     *
+     * @param userId id of the user
+     * @return hash state after the user id
+     */
+    static MurmurHash3.PrefixState prefix(String userId) {
+        if (userId == null) {
+            throw new IllegalArgumentException("userId must not be null");
+        }
+
+        MurmurHash3.PrefixState state = new MurmurHash3.PrefixState();
+        MurmurHash3.murmurhash3_x86_32_prefix(userId, 0, state);
+        return state;
+    }
+
+    /**
+     * Returns the bucket (1 to 100 inclusive) of the user, whose id was hashed with {@link #prefix(String)}, for the
+     * given flag. Same as {@link #getBucket(String, String)}.
+     *
+     * @param userPrefix hash state after the user id
+     * @param flagKey    key of the flag
+     * @return bucket number
+     */
+    static int getBucket(MurmurHash3.PrefixState userPrefix, String flagKey) {
+        if (userPrefix == null || flagKey == null) {
+            throw new IllegalArgumentException("userPrefix and featureId must not be null");
+        }
+
+        return toBucket(MurmurHash3.murmurhash3_x86_32(userPrefix, flagKey));
+    }
+
+    private static int toBucket(long hash) {
+        return (int) (Math.abs(hash % NUMBER_OF_BUCKETS) + 1);
+    }
+}
@@ -1,18 +1,20 @@
 package io.unlaunch.engine;
 
-import java.util.List;
-
 /**
  * This class represents a Condtion which is used to define a complete Rule.  
  * A condition is defined by attribute joins with Operator to take on list of values. 
+ * The value is parsed into an {@link Operand} once, when the condition is created, as the representation the
+ * operator reads for the attribute type. The regular expression of a {@link Operator#MATCHES} or
+ * {@link Operator#NOT_MATCHES} condition is compiled at that time as well.
  * @author jawad
  */
 final class Condition {
     
-    private String attribute;
-    private Operator operator;
-    private AttributeType type;
-    private String value;
+    private final String attribute;
+    private final Operator operator;
+    private final AttributeType type;
+    private final String value;
+    private final Operand operand;
 
     /**
      *
@@ -26,40 +28,30 @@ final class Condition {
         this.operator = operator;
         this.type = type;
         this.value = value;
+        this.operand = Operand.of(operator, type, value);
     }
 
     public String getAttribute() {
         return attribute;
     }
 
-    public void setAttribute(String attribute) {
-        this.attribute = attribute;
-    }
-
     public Operator getOperator() {
         return operator;
     }
 
-    public void setOperator(Operator operator) {
-        this.operator = operator;
-    }
-
     public AttributeType getType() {
         return type;
     }
 
-    public void setType(AttributeType type) {
-        this.type = type;
-    }
-
     public String getValue() {
         return value;
     }
 
-    public void setValue(String value) {
-        this.value = value;
+    public Operand getOperand() {
+        return operand;
     }
-    
+
+
     /**
      * Matches Unlaunch user attribute value with values provided in this object.
      * Match is performed on the basis of operator defined for this object.
@@ -67,12 +59,16 @@ final class Condition {
      * @return
      */
     public boolean match(UnlaunchUser user){
-    
-        if(user.getAllAttributes().containsKey(attribute)){
-            return operator.apply(value, user.getAllAttributes().get(attribute), type);
-        }
-        
-        return false;
+        return match(user.getAttributeValue(attribute));
+    }
+
+    /**
+     * Matches the user's value of this condition's attribute with values provided in this object.
+     * @param userValue value of the attribute, or null if the user doesn't have it
+     * @return
+     */
+    boolean match(UnlaunchValue userValue) {
+        return userValue != null && operator.apply(operand, userValue, type);
     }
     
     
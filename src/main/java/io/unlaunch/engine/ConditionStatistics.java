@@ -0,0 +1,102 @@
+package io.unlaunch.engine;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sampled pass rate and cost of the conditions of a {@link RulePlan}, used to test the most selective and cheapest
+ * conditions of a rule first.
+ *
+ * <p>About one in {@link #SAMPLE_INTERVAL} evaluations of the rule is sampled. Sampling is decided with a thread local
+ * random number so evaluations on different threads don't contend on a shared counter, and the counts are only written
+ * by sampled evaluations.</p>
+ *
+ * <p>The counts of a condition are halved by {@link #decay()} after each reordering once it has twice
+ * {@link #MIN_SAMPLES}, so older samples weigh less and the order follows users whose attributes change over time.
+ * A condition never drops below {@link #MIN_SAMPLES} once it has reached it.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ *
+ * @author umermansoor
+ */
+final class ConditionStatistics {
+
+    /**
+     * Evaluations per sample on average, a power of two.
+     */
+    static final int SAMPLE_INTERVAL = 64;
+
+    /**
+     * Samples of a condition needed before its statistics are trusted.
+     */
+    static final int MIN_SAMPLES = 100;
+
+    // Samples, passes and nanoseconds spent of each condition, three longs per condition
+    private final AtomicLongArray counts;
+
+    ConditionStatistics(int conditions) {
+        this.counts = new AtomicLongArray(conditions * 3);
+    }
+
+    /**
+     * Returns true if the current evaluation should be sampled.
+     *
+     * @return true about once every {@link #SAMPLE_INTERVAL} calls
+     */
+    boolean shouldSample() {
+        return (ThreadLocalRandom.current().nextInt() & (SAMPLE_INTERVAL - 1)) == 0;
+    }
+
+    /**
+     * Records one test of a condition.
+     *
+     * @param condition position of the condition in its rule
+     * @param passed    whether the user satisfied the condition
+     * @param nanos     time the test took
+     */
+    void record(int condition, boolean passed, long nanos) {
+        counts.incrementAndGet(condition * 3);
+        if (passed) {
+            counts.incrementAndGet(condition * 3 + 1);
+        }
+        counts.addAndGet(condition * 3 + 2, nanos);
+    }
+
+    /**
+     * Halves the counts of every condition that has at least twice {@link #MIN_SAMPLES} samples. Samples recorded
+     * concurrently are kept, halved or not.
+     */
+    void decay() {
+        for (int condition = 0; condition < counts.length() / 3; condition++) {
+            if (counts.get(condition * 3) >= 2 * MIN_SAMPLES) {
+                for (int i = condition * 3; i < condition * 3 + 3; i++) {
+                    counts.getAndUpdate(i, count -> count / 2);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true if the condition has been sampled at least {@link #MIN_SAMPLES} times.
+     */
+    boolean hasEnoughSamples(int condition) {
+        return counts.get(condition * 3) >= MIN_SAMPLES;
+    }
+
+    /**
+     * Returns the expected cost of testing the condition per user it rules out. Testing conditions by ascending rank
+     * minimizes the expected cost of a conjunction of independent conditions.
+     *
+     * @param condition position of the condition in its rule
+     * @return rank, {@link Double#POSITIVE_INFINITY} if the condition was never failed
+     */
+    double rank(int condition) {
+        long samples = counts.get(condition * 3);
+        long passes = counts.get(condition * 3 + 1);
+        // At least a nanosecond, so the pass rate still matters when the cost is below the timer's resolution
+        double cost = Math.max(1.0, (double) counts.get(condition * 3 + 2) / samples);
+        // Read while other threads record, so passes may be ahead of samples
+        double failRate = (double) (samples - passes) / samples;
+        return failRate <= 0 ? Double.POSITIVE_INFINITY : cost / failRate;
+    }
+}
@@ -0,0 +1,58 @@
+package io.unlaunch.engine;
+
+import io.unlaunch.UnlaunchFeature;
+import io.unlaunch.utils.MurmurHash3;
+
+/**
+ * State of one evaluation, which can span several flags for the same user. Results of flags that have already been
+ * evaluated are memoized, so a prerequisite shared by many flags, or reached through many paths of a prerequisite
+ * chain, is evaluated once. The user id is hashed once and the hash state reused to bucket the user for every flag.
+ *
+ * <p>Plans compiled together share an {@link AttributeDictionary} and each has a distinct index in it; the memo is
+ * indexed by plan and starts over if a plan compiled separately is evaluated.</p>
+ *
+ * <p>This class is not thread-safe. A frame must only be used for one user.</p>
+ *
+ * @author umermansoor
+ */
+final class EvaluationFrame {
+
+    private AttributeDictionary owner;
+    private UnlaunchFeature[] results;
+    private MurmurHash3.PrefixState userIdPrefix;
+
+    /**
+     * Returns the bucket of the user for the flag, same as {@link Bucketing#getBucket(String, String)}.
+     *
+     * @param user user being evaluated
+     * @param flagKey key of the flag
+     * @return bucket number
+     */
+    int getBucket(UnlaunchUser user, String flagKey) {
+        if (userIdPrefix == null) {
+            userIdPrefix = Bucketing.prefix(user.getId());
+        }
+        return Bucketing.getBucket(userIdPrefix, flagKey);
+    }
+
+    /**
+     * Returns the memoized result of the plan.
+     *
+     * @param plan evaluated plan
+     * @return result, or null if the plan hasn't been evaluated in this frame
+     */
+    UnlaunchFeature getResult(EvaluationPlan plan) {
+        if (results == null || owner != plan.getDictionary()) {
+            return null;
+        }
+        return results[plan.getFlagIndex()];
+    }
+
+    void putResult(EvaluationPlan plan, UnlaunchFeature result) {
+        if (results == null || owner != plan.getDictionary()) {
+            owner = plan.getDictionary();
+            results = new UnlaunchFeature[plan.getFlagCount()];
+        }
+        results[plan.getFlagIndex()] = result;
+    }
+}
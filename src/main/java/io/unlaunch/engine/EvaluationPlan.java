@@ -0,0 +1,293 @@
+package io.unlaunch.engine;
+
+import io.unlaunch.EvaluationReasonCode;
+import io.unlaunch.UnlaunchFeature;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable, pre-compiled form of a {@link FeatureFlag} that is executed by the {@link PlanEvaluator}.
+ *
+ * <p>Plans are built once by the {@link PlanCompiler} when flags are downloaded. Everything that doesn't depend on
+ * the user is resolved at that time: rules are kept in priority order, splits are turned into cumulative
+ * percentages, allow lists are indexed by user id, rules that test the same attribute for equality are indexed by
+ * its value (see {@link RuleIndex}), string and set conditions on the same attribute are tested together (see
+ * {@link AttributeMatcher}) and prerequisite flags are compiled as well. Evaluating a plan is
+ * then a few array walks and comparisons, and the {@link FlagShape} of the flag tells which of them can be skipped.</p>
+ *
+ * <p>Every result the plan can serve (off, prerequisite failed, each allow listed user and each rule split) is built
+ * as an immutable {@link UnlaunchFeature} up front, so an evaluation returns a shared instance instead of creating
+ * one.</p>
+ *
+ * <p>This class is thread-safe. It is immutable except for the order in which the conditions of each rule are
+ * tested, which {@link #reorderConditions()} replaces atomically as it learns which conditions are most selective.</p>
+ *
+ * @author umermansoor
+ */
+public final class EvaluationPlan {
+
+    private final FeatureFlag flag;
+    private final AttributeDictionary dictionary;
+    private final int flagIndex;
+    private final int flagCount;
+    private final String key;
+    private final boolean enabled;
+    private final UnlaunchFeature offResult;
+    private final UnlaunchFeature prerequisiteFailedResult;
+    private final Prerequisite[] prerequisites;
+    private final Map<String, UnlaunchFeature> allowListIndex;
+    private final RulePlan[] rules;
+    // Null if the rules are tested one by one
+    private final RuleIndex ruleIndex;
+    // Null if every condition tests the user's value itself
+    private final AttributeMatcher[] attributeMatchers;
+    private final RulePlan defaultRule;
+    private final FlagShape shape;
+    // Result of a CONSTANT flag, null for other shapes
+    private final UnlaunchFeature constantResult;
+
+    EvaluationPlan(FeatureFlag flag, AttributeDictionary dictionary, int flagIndex, int flagCount,
+                   Prerequisite[] prerequisites, RulePlan[] rules, AttributeMatcher[] attributeMatchers,
+                   RulePlan defaultRule) {
+        this.flag = flag;
+        this.dictionary = dictionary;
+        this.flagIndex = flagIndex;
+        this.flagCount = flagCount;
+        this.key = flag.getKey();
+        this.enabled = flag.isEnabled();
+        this.offResult = result(flag, flag.getOffVariation(), EvaluationReasonCode.FLAG_DISABLED, null);
+        this.prerequisiteFailedResult = result(flag, flag.getOffVariation(), EvaluationReasonCode.PREREQUISITE_FAILED,
+                null);
+        this.prerequisites = prerequisites;
+        this.rules = rules;
+        this.ruleIndex = RuleIndex.build(rules);
+        this.attributeMatchers = attributeMatchers;
+        this.defaultRule = defaultRule;
+        this.allowListIndex = indexAllowLists(flag);
+        this.shape = classify();
+        this.constantResult = shape != FlagShape.CONSTANT ? null : enabled ? defaultRule.getConstantResult() : offResult;
+    }
+
+    private FlagShape classify() {
+        if (!enabled) {
+            return FlagShape.CONSTANT;
+        } else if (prerequisites.length > 0) {
+            return FlagShape.HAS_PREREQUISITES;
+        } else if (rules.length > 0) {
+            return FlagShape.ATTRIBUTE_DEPENDENT;
+        } else if (!allowListIndex.isEmpty()) {
+            return FlagShape.ALLOW_LIST_AND_BUCKET;
+        } else if (defaultRule.getConstantResult() != null) {
+            return FlagShape.CONSTANT;
+        }
+        return FlagShape.BUCKET_ONLY;
+    }
+
+    /**
+     * Builds an index of user id to the result of the variation whose allow list contains it. If a user is in the
+     * allow list of more than one variation, the first variation wins.
+     */
+    private static Map<String, UnlaunchFeature> indexAllowLists(FeatureFlag flag) {
+        Map<String, UnlaunchFeature> index = new HashMap<>();
+
+        for (Variation variation : flag.getVariations()) {
+            if (variation.getAllowList() != null) {
+                for (String userId : variation.getAllowList().split(",")) {
+                    if (!index.containsKey(userId)) {
+                        index.put(userId, result(flag, variation, EvaluationReasonCode.TARGET_USER, userId));
+                    }
+                }
+            }
+        }
+
+        return index.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(index);
+    }
+
+    private static UnlaunchFeature result(FeatureFlag flag, Variation variation, EvaluationReasonCode reasonCode,
+                                          String reasonDetail) {
+        if (variation == null) {
+            return null;
+        }
+        return UnlaunchFeature.create(flag.getKey(), variation.getKey(), variation.getProperties(), reasonCode,
+                reasonDetail);
+    }
+
+    /**
+     * Returns the flag this plan was compiled from.
+     *
+     * @return the source {@link FeatureFlag}
+     */
+    public FeatureFlag getFlag() {
+        return flag;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the slots of the attributes referenced by the rules of this plan.
+     *
+     * @return attribute dictionary
+     */
+    AttributeDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Returns the index of this plan among the plans it was compiled with, 0 to {@link #getFlagCount()} exclusive.
+     *
+     * @return index of the plan
+     */
+    int getFlagIndex() {
+        return flagIndex;
+    }
+
+    /**
+     * Returns the number of plans this plan was compiled with, including prerequisite flags.
+     *
+     * @return number of plans
+     */
+    int getFlagCount() {
+        return flagCount;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    FlagShape getShape() {
+        return shape;
+    }
+
+    /**
+     * Returns the result served to every user if the flag is {@link FlagShape#CONSTANT}.
+     *
+     * @return shared result, or null if the flag has another shape
+     */
+    UnlaunchFeature getConstantResult() {
+        return constantResult;
+    }
+
+    /**
+     * Returns the result served when the flag is disabled.
+     *
+     * @return shared result of the off variation
+     */
+    UnlaunchFeature getOffResult() {
+        return offResult;
+    }
+
+    /**
+     * Returns the result served when a prerequisite flag didn't evaluate to the expected variation.
+     *
+     * @return shared result of the off variation
+     */
+    UnlaunchFeature getPrerequisiteFailedResult() {
+        return prerequisiteFailedResult;
+    }
+
+    Prerequisite[] getPrerequisites() {
+        return prerequisites;
+    }
+
+    /**
+     * Returns the result of the variation the user is allow listed for.
+     *
+     * @param userId id of the user
+     * @return shared result, or null if the user isn't in any allow list
+     */
+    UnlaunchFeature getAllowListResult(String userId) {
+        return allowListIndex.get(userId);
+    }
+
+    RulePlan[] getRules() {
+        return rules;
+    }
+
+    /**
+     * Returns the first targeting rule, in priority order, the user satisfies.
+     *
+     * @param userValues attribute values of the user, read by slot
+     * @return matching rule, or null if no targeting rule matches
+     */
+    RulePlan findMatchingRule(SlotValues userValues) {
+        AttributeMatches matches = attributeMatchers == null ? null :
+                new AttributeMatches(attributeMatchers, userValues);
+
+        if (ruleIndex != null) {
+            return ruleIndex.findMatchingRule(userValues, matches);
+        }
+
+        for (RulePlan rule : rules) {
+            if (rule.matches(userValues, matches)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reorders the conditions of each targeting rule by their sampled pass rate and cost, see
+     * {@link RulePlan#reorderConditions()}. This is meant to be called periodically by a background thread, never
+     * by more than one thread at a time. Evaluations running concurrently keep the order they started with.
+     *
+     * @return number of rules whose order changed
+     */
+    public int reorderConditions() {
+        int reordered = 0;
+        for (RulePlan rule : rules) {
+            if (rule.reorderConditions()) {
+                reordered++;
+            }
+        }
+        return reordered;
+    }
+
+    /**
+     * Returns true if the targeting rules are dispatched through a {@link RuleIndex}.
+     *
+     * @return true if the rules are indexed
+     */
+    boolean hasRuleIndex() {
+        return ruleIndex != null;
+    }
+
+    RulePlan getDefaultRule() {
+        return defaultRule;
+    }
+
+    @Override
+    public String toString() {
+        return "EvaluationPlan{" +
+                "key='" + key + '\'' +
+                ", enabled=" + enabled +
+                ", shape=" + shape +
+                ", prerequisites=" + prerequisites.length +
+                ", rules=" + rules.length +
+                '}';
+    }
+
+    /**
+     * A prerequisite flag and the variation it must evaluate to.
+     */
+    static final class Prerequisite {
+        private final EvaluationPlan plan;
+        private final String expectedVariationKey;
+
+        Prerequisite(EvaluationPlan plan, String expectedVariationKey) {
+            this.plan = plan;
+            this.expectedVariationKey = expectedVariationKey;
+        }
+
+        EvaluationPlan getPlan() {
+            return plan;
+        }
+
+        String getExpectedVariationKey() {
+            return expectedVariationKey;
+        }
+    }
+}
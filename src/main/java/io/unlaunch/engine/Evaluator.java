@@ -1,13 +1,12 @@
 package io.unlaunch.engine;
 
 
+import io.unlaunch.EvaluationReasonCode;
 import io.unlaunch.UnlaunchFeature;
-import io.unlaunch.utils.MurmurHash3;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * This class contains the logic for feature flag evaluation.
@@ -19,11 +18,7 @@ public class Evaluator {
     private static final Logger logger = LoggerFactory.getLogger(Evaluator.class);
 
     public UnlaunchFeature evaluate(FeatureFlag flag, UnlaunchUser user) {
-
-        AtomicReference<String> evaluationReasonRef = new AtomicReference<>("UNSET"); // TODO hack, please fix me
-        Variation v = evaluateInternal(flag, user, evaluationReasonRef);
-
-        return UnlaunchFeature.create(flag.getKey(), v.getKey(), v.getProperties(), evaluationReasonRef.get());
+        return evaluateInternal(flag, user);
     }
 
 
@@ -38,8 +33,7 @@ public class Evaluator {
      * @param user
      * @return
      */
-    private Variation evaluateInternal(FeatureFlag flag, UnlaunchUser user,
-                                       AtomicReference<String> evaluationReasonRef /* hack, remove this */) {
+    private UnlaunchFeature evaluateInternal(FeatureFlag flag, UnlaunchUser user) {
 
         if (flag == null) {
             throw new IllegalArgumentException("unlaunchFlag must not be null");
@@ -50,14 +44,15 @@ public class Evaluator {
         }
 
         Variation variationToServe;
-        String evaluationReason = "";
+        EvaluationReasonCode evaluationReason;
+        String evaluationReasonDetail = null;
 
         if (!flag.isEnabled()) {
             logger.debug("FLAG_DISABLED, {}, OFF_VARIATION is served to user {}", flag.getKey(), user.getId());
 
             variationToServe = flag.getOffVariation();
 
-            evaluationReason = "Default Variation served. Because the flag is disabled.";
+            evaluationReason = EvaluationReasonCode.FLAG_DISABLED;
 
         } else if (!checkDependencies(flag, user)) {
 
@@ -65,17 +60,19 @@ public class Evaluator {
 
             variationToServe = flag.getOffVariation();
 
-            evaluationReason = "Default Variation served. Because Pre-requisite failed. ";
+            evaluationReason = EvaluationReasonCode.PREREQUISITE_FAILED;
 
         } else if ((variationToServe = getVariationIfUserInAllowList(flag, user)) != null) {
 
             logger.info("USER_IN_TARGET_USER for flag {}, VARIATION {} is served to user {}",
                     flag.getKey(), variationToServe, user.getId());
 
-            evaluationReason = "Target User rules matched for identity: " + user.getId();
+            evaluationReason = EvaluationReasonCode.TARGET_USER;
+            evaluationReasonDetail = user.getId();
 
         } else {
             int bucketNumber = getBucket(user.getId(), flag.getKey());
+            evaluationReason = EvaluationReasonCode.DEFAULT_RULE;
 
             // TODO Extract into its own method
             for (Rule rule : flag.getRules()) {
@@ -89,7 +86,8 @@ public class Evaluator {
                             variationToServe.getKey(),
                             user.getId()
                     );
-                    evaluationReason = "Targeting Rule (priority #" + rule.getPriority() + ") matched.";
+                    evaluationReason = EvaluationReasonCode.TARGETING_RULE;
+                    evaluationReasonDetail = String.valueOf(rule.getPriority());
                     break;
                 }
             }
@@ -105,18 +103,11 @@ public class Evaluator {
                         variationToServe.getKey(),
                         user.getId()
                 );
-
-                evaluationReason = "Default Rule served. This is because the flag is Enabled and Target User and " +
-                        "Targeting Rules didn't match.";
             }
         }
 
-        if (evaluationReasonRef != null) {
-            evaluationReasonRef.set(evaluationReason); // TODO hack, please fix me.
-        }
-
-        return variationToServe;
-
+        return UnlaunchFeature.create(flag.getKey(), variationToServe.getKey(), variationToServe.getProperties(),
+                evaluationReason, evaluationReasonDetail);
     }
 
     /**
@@ -133,9 +124,9 @@ public class Evaluator {
 
         for (FeatureFlag prerequisiteFlag : prerequisiteFlags.keySet()) {
 
-            Variation variation = evaluateInternal(prerequisiteFlag, user, null);
+            UnlaunchFeature result = evaluateInternal(prerequisiteFlag, user);
 
-            if (!variation.getKey().equals(prerequisiteFlags.get(prerequisiteFlag).getKey())) {
+            if (!result.getVariation().equals(prerequisiteFlags.get(prerequisiteFlag).getKey())) {
                 logger.info("PREREQUISITE_FAILED,{},{}", prerequisiteFlag.getKey(), user.getId());
                 return false;
             }
@@ -144,19 +135,8 @@ public class Evaluator {
         return true;
     }
 
-     int getBucket(String userId, String featureId) {
-        if (userId == null || featureId == null) {
-            throw new IllegalArgumentException("userId and featureId must not be null");
-        }
-
-        String key = userId + featureId;
-        long hash = getHash(key);
-
-        return (int) (Math.abs(hash % 100) + 1);
-    }
-
-    private long getHash(String key) {
-        return MurmurHash3.murmurhash3_x86_32(key, 0, key.length(), 0);
+    int getBucket(String userId, String featureId) {
+        return Bucketing.getBucket(userId, featureId);
     }
 
     private Variation getVariationIfUserInAllowList(FeatureFlag flag, UnlaunchUser user) {
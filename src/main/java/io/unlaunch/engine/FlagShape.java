@@ -0,0 +1,37 @@
+package io.unlaunch.engine;
+
+/**
+ * The shape of a flag, determined when it is compiled into an {@link EvaluationPlan}. The {@link PlanEvaluator} only
+ * does the work the shape requires, e.g. a constant flag is served without hashing the user id or reading any of the
+ * user's attributes.
+ *
+ * @author umermansoor
+ */
+enum FlagShape {
+
+    /**
+     * Serves the same result to every user: the flag is disabled, or it has no prerequisites, allow lists or targeting
+     * rules and its default rule serves a single variation.
+     */
+    CONSTANT,
+
+    /**
+     * Serves the default rule, whose splits depend only on the user's bucket.
+     */
+    BUCKET_ONLY,
+
+    /**
+     * Serves allow listed users their variation and everyone else the default rule.
+     */
+    ALLOW_LIST_AND_BUCKET,
+
+    /**
+     * Has targeting rules, which depend on the user's attributes.
+     */
+    ATTRIBUTE_DEPENDENT,
+
+    /**
+     * Is enabled and depends on the results of prerequisite flags.
+     */
+    HAS_PREREQUISITES
+}
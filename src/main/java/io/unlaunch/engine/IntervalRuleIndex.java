@@ -0,0 +1,300 @@
+package io.unlaunch.engine;
+
+import io.unlaunch.exceptions.UnlaunchAttributeCastException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Rule index for range tests. Rules whose leading conditions compare a number, date or date time attribute with
+ * {@link Operator#GREATER_THAN}, {@link Operator#GREATER_THAN_OR_EQUALS}, {@link Operator#LESS_THAN} or
+ * {@link Operator#LESS_THAN_OR_EQUALS} accept an interval of values, for example a band such as
+ * {@code amount >= 10 and amount < 20}.
+ *
+ * <p>The bounds of all intervals split the values into elementary segments: the bounds themselves and the open
+ * ranges between them. The rules covering each segment are computed when the flag is loaded, so finding the
+ * candidate rules for the user's value is a binary search over the bounds.</p>
+ *
+ * <p>Values are compared as doubles, which hold numbers, epoch days and epoch millis (of dates within a few thousand
+ * years) exactly. A date time with sub-millisecond precision is placed half way between two milliseconds, which is how
+ * the operators compare it. User values the operators don't compare (strings, booleans, NaN) or that they would
+ * reject with an error are not looked up, every rule is tested instead.</p>
+ *
+ * @author umermansoor
+ */
+final class IntervalRuleIndex extends RuleIndex {
+
+    /**
+     * Upper limit of the number of candidate positions held by all segments, flags whose rules overlap so much that
+     * they exceed it are not indexed.
+     */
+    static final int MAX_CANDIDATES = 1 << 16;
+
+    // Largest magnitude up to which every integer (and integer + 0.5) is exactly representable as a double
+    private static final double MAX_EXACT = 1L << 51;
+
+    private final AttributeType type;
+    // Distinct bounds in ascending order
+    private final double[] bounds;
+    // Positions (in priority order) of the indexed rules covering each segment. Segment 2i + 1 is bounds[i], segment
+    // 2i is the open range below it and segment 2 * bounds.length is the open range above the last bound.
+    private final int[][] candidatesBySegment;
+
+    private IntervalRuleIndex(RulePlan[] rules, int slot, boolean[] indexed, AttributeType type, double[] bounds,
+                              int[][] candidatesBySegment) {
+        super(rules, slot, indexed);
+        this.type = type;
+        this.bounds = bounds;
+        this.candidatesBySegment = candidatesBySegment;
+    }
+
+    /**
+     * Builds an index on the attribute and type that lead the most indexable rules.
+     *
+     * @param rules rules of the flag in priority order
+     * @return index, or null if too few rules can be indexed for it to pay off
+     */
+    static IntervalRuleIndex build(RulePlan[] rules) {
+        Map<String, Integer> indexableRulesByAttribute = new HashMap<>();
+        int slot = -1;
+        AttributeType type = null;
+        int indexableRules = 0;
+        for (RulePlan rule : rules) {
+            if (rangeConditions(rule) > 0) {
+                Condition leading = rule.getCondition(0);
+                int count = indexableRulesByAttribute.merge(rule.getSlot(0) + ":" + leading.getType(), 1,
+                        Integer::sum);
+                if (count > indexableRules) {
+                    indexableRules = count;
+                    slot = rule.getSlot(0);
+                    type = leading.getType();
+                }
+            }
+        }
+
+        if (indexableRules < MIN_INDEXED_RULES) {
+            return null;
+        }
+
+        boolean[] indexed = new boolean[rules.length];
+        Interval[] intervals = new Interval[rules.length];
+        TreeSet<Double> distinctBounds = new TreeSet<>();
+        for (int i = 0; i < rules.length; i++) {
+            int count = rangeConditions(rules[i]);
+            if (count > 0 && rules[i].getSlot(0) == slot && rules[i].getCondition(0).getType() == type) {
+                indexed[i] = true;
+                intervals[i] = new Interval();
+                for (int c = 0; c < count; c++) {
+                    intervals[i].intersect(rules[i].getCondition(c), type);
+                }
+                intervals[i].addBounds(distinctBounds);
+            }
+        }
+
+        double[] bounds = new double[distinctBounds.size()];
+        int b = 0;
+        for (double bound : distinctBounds) {
+            bounds[b++] = bound;
+        }
+
+        List<List<Integer>> positionsBySegment = new ArrayList<>();
+        for (int s = 0; s <= 2 * bounds.length; s++) {
+            positionsBySegment.add(new ArrayList<>());
+        }
+
+        int candidates = 0;
+        for (int i = 0; i < rules.length; i++) {
+            if (indexed[i]) {
+                int first = intervals[i].firstSegment(bounds);
+                int last = intervals[i].lastSegment(bounds);
+                for (int s = first; s <= last; s++) {
+                    positionsBySegment.get(s).add(i);
+                }
+                candidates += Math.max(0, last - first + 1);
+                if (candidates > MAX_CANDIDATES) {
+                    return null;
+                }
+            }
+        }
+
+        int[][] candidatesBySegment = new int[positionsBySegment.size()][];
+        for (int s = 0; s < candidatesBySegment.length; s++) {
+            candidatesBySegment[s] = toArray(positionsBySegment.get(s));
+        }
+
+        return new IntervalRuleIndex(rules, slot, indexed, type, bounds, candidatesBySegment);
+    }
+
+    /**
+     * Returns the number of leading conditions of the rule that are range tests on the attribute and type of the
+     * first condition, whose value is valid so they never throw.
+     */
+    private static int rangeConditions(RulePlan rule) {
+        int count = 0;
+        while (count < rule.getConditionCount()
+                && rule.getSlot(count) == rule.getSlot(0)
+                && isRangeCondition(rule.getCondition(count), rule.getCondition(0).getType())) {
+            count++;
+        }
+        return count;
+    }
+
+    private static boolean isRangeCondition(Condition condition, AttributeType type) {
+        if (condition.getOperator() == null) {
+            return false;
+        }
+
+        switch (condition.getOperator()) {
+            case GREATER_THAN:
+            case GREATER_THAN_OR_EQUALS:
+            case LESS_THAN:
+            case LESS_THAN_OR_EQUALS:
+                break;
+            default:
+                return false;
+        }
+
+        if (condition.getType() != type) {
+            return false;
+        }
+
+        Operand operand = condition.getOperand();
+        if (type == AttributeType.NUMBER) {
+            return operand.isNumber() && !Double.isNaN(operand.getNumber());
+        } else if (type == AttributeType.DATE) {
+            return operand.isEpochMillis();
+        } else if (type == AttributeType.DATE_TIME) {
+            return operand.isEpochMillis() && Math.abs(operand.getEpochMillis()) <= MAX_EXACT;
+        }
+        return false;
+    }
+
+    private static double bound(Operand operand, AttributeType type) {
+        double bound;
+        if (type == AttributeType.DATE) {
+            bound = operand.getEpochDay();
+        } else if (type == AttributeType.DATE_TIME) {
+            bound = operand.getEpochMillis();
+        } else {
+            bound = operand.getNumber();
+        }
+        // -0.0 and 0.0 compare equal
+        return bound + 0.0;
+    }
+
+    @Override
+    int[] getCandidates(UnlaunchValue userValue) {
+        if (userValue == null) {
+            return NO_RULES;
+        }
+
+        // The operators treat these values specially, see Operator#greaterThan
+        if (userValue instanceof UnlaunchStringValue || userValue instanceof UnlaunchBooleanValue) {
+            return null;
+        }
+
+        double value;
+        try {
+            value = toDouble(userValue);
+        } catch (UnlaunchAttributeCastException e) {
+            // Reported by testing the rules
+            return null;
+        }
+
+        if (Double.isNaN(value)) {
+            return null;
+        }
+
+        int i = Arrays.binarySearch(bounds, value + 0.0);
+        return candidatesBySegment[i >= 0 ? 2 * i + 1 : 2 * (-i - 1)];
+    }
+
+    private double toDouble(UnlaunchValue userValue) {
+        if (type == AttributeType.DATE) {
+            return Operator.getUserEpochDay(userValue);
+        } else if (type == AttributeType.DATE_TIME) {
+            UnlaunchDateTimeValue dateTime = Operator.getUserDateTime(userValue);
+            long millis = dateTime.getEpochMillis();
+            if (Math.abs(millis) > MAX_EXACT) {
+                return Double.NaN;
+            }
+            return dateTime.hasSubMillis() ? millis + 0.5 : millis;
+        }
+        return Operator.getUserNumber(userValue);
+    }
+
+    /**
+     * Values accepted by the range conditions of a rule.
+     */
+    private static final class Interval {
+        private boolean hasLower;
+        private double lower;
+        private boolean lowerInclusive;
+        private boolean hasUpper;
+        private double upper;
+        private boolean upperInclusive;
+
+        void intersect(Condition condition, AttributeType type) {
+            double bound = bound(condition.getOperand(), type);
+            switch (condition.getOperator()) {
+                case GREATER_THAN:
+                    intersectLower(bound, false);
+                    break;
+                case GREATER_THAN_OR_EQUALS:
+                    intersectLower(bound, true);
+                    break;
+                case LESS_THAN:
+                    intersectUpper(bound, false);
+                    break;
+                default:
+                    intersectUpper(bound, true);
+                    break;
+            }
+        }
+
+        private void intersectLower(double bound, boolean inclusive) {
+            if (!hasLower || bound > lower || (bound == lower && !inclusive)) {
+                hasLower = true;
+                lower = bound;
+                lowerInclusive = inclusive;
+            }
+        }
+
+        private void intersectUpper(double bound, boolean inclusive) {
+            if (!hasUpper || bound < upper || (bound == upper && !inclusive)) {
+                hasUpper = true;
+                upper = bound;
+                upperInclusive = inclusive;
+            }
+        }
+
+        void addBounds(TreeSet<Double> bounds) {
+            if (hasLower) {
+                bounds.add(lower);
+            }
+            if (hasUpper) {
+                bounds.add(upper);
+            }
+        }
+
+        int firstSegment(double[] bounds) {
+            if (!hasLower) {
+                return 0;
+            }
+            int i = Arrays.binarySearch(bounds, lower);
+            return lowerInclusive ? 2 * i + 1 : 2 * i + 2;
+        }
+
+        int lastSegment(double[] bounds) {
+            if (!hasUpper) {
+                return 2 * bounds.length;
+            }
+            int i = Arrays.binarySearch(bounds, upper);
+            return upperInclusive ? 2 * i + 1 : 2 * i;
+        }
+    }
+}
@@ -32,9 +32,11 @@ public final class JsonObjectConversionHelper {
     public List<FeatureFlag> toUnlaunchFlags(JSONArray flags) {
 
         List<FeatureFlag> unlaunchFlags = new ArrayList<>();
+        // Prerequisite flags shared by several flags are only parsed once
+        Map<String, FeatureFlag> parsedPrerequisites = new HashMap<>();
         flags.iterator().forEachRemaining(jsonObj -> {
             try {
-                FeatureFlag unlaunchFlag = toFlag((JSONObject) jsonObj);
+                FeatureFlag unlaunchFlag = toFlag((JSONObject) jsonObj, parsedPrerequisites);
                 unlaunchFlags.add(unlaunchFlag);
             } catch (ParseException ex) {
                 java.util.logging.Logger.getLogger(JsonObjectConversionHelper.class.getName()).log(Level.SEVERE, null, ex);
@@ -44,7 +46,7 @@ public final class JsonObjectConversionHelper {
         return unlaunchFlags;
     }
 
-    private FeatureFlag toFlag(JSONObject json) throws ParseException {
+    private FeatureFlag toFlag(JSONObject json, Map<String, FeatureFlag> parsedPrerequisites) throws ParseException {
 
         List<Rule> rules = new ArrayList<>();
 
@@ -70,14 +72,16 @@ public final class JsonObjectConversionHelper {
         Map<String, String> prerequistesFlagMap = (Map<String, String>) json.get("prerequisiteFlags");
         Map<FeatureFlag, Variation> prerequistesFlags = null;
         if (prerequistesFlagMap != null && !prerequistesFlagMap.isEmpty()) {
-            prerequistesFlags = toPrerequistesFlagMap(prerequistesFlagMap);
+            prerequistesFlags = toPrerequistesFlagMap(prerequistesFlagMap, parsedPrerequisites);
         }
         FeatureFlag unlaunchFlag = new FeatureFlag(flagKey, flagName, variations, prerequistesFlags, rules, enabled, offVariation, defaultRule, null, type);
 
         return unlaunchFlag;
     }
 
-    private Map<FeatureFlag, Variation> toPrerequistesFlagMap(Map<String, String> map) throws ParseException {
+    private Map<FeatureFlag, Variation> toPrerequistesFlagMap(Map<String, String> map,
+                                                              Map<String, FeatureFlag> parsedPrerequisites)
+            throws ParseException {
         
         Map<FeatureFlag, Variation> prerequisteFlags = new HashMap<>();
         
@@ -85,10 +89,14 @@ public final class JsonObjectConversionHelper {
             String flagString = entry.getKey();
             String varString = entry.getValue();
             
-            Object jsonObject = new JSONParser().parse(flagString);
+            FeatureFlag featureFlag = parsedPrerequisites.get(flagString);
+            if (featureFlag == null) {
+                Object jsonObject = new JSONParser().parse(flagString);
+                featureFlag = toFlag((JSONObject) jsonObject, parsedPrerequisites);
+                parsedPrerequisites.put(flagString, featureFlag);
+            }
             Object varJsonObject = new JSONParser().parse(varString);
-	 
-            FeatureFlag featureFlag = toFlag((JSONObject) jsonObject);
+
             Variation variation = toVariation((JSONObject) varJsonObject);
             
             prerequisteFlags.put(featureFlag, variation);
@@ -0,0 +1,311 @@
+package io.unlaunch.engine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The value of a {@link Condition}, parsed once when the condition is created into the representation its operator
+ * reads for its attribute type: a set of values, a number, epoch millis and epoch day, a semantic version, a regular
+ * expression or the raw string. Nothing else is parsed, e.g. the value of a {@link Operator#STARTS_WITH} condition is
+ * never parsed as a number.
+ *
+ * <p>A value that can't be parsed into the representation its operator reads makes the operand invalid, see
+ * {@link #getError()}. It fails the evaluations whose operator reads the value, whether the flag is compiled or
+ * interpreted; {@link PlanCompiler} also logs it once, when the flag is compiled.</p>
+ *
+ * <p>This class is immutable and hence thread-safe.</p>
+ *
+ * @author jawad
+ */
+final class Operand {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /**
+     * Representation of the value that an operator reads.
+     */
+    private enum Form {
+        // The operator doesn't read the value, e.g. boolean equality
+        NONE,
+        // The raw value, which may be null
+        RAW,
+        // The raw value, which must not be null
+        TEXT,
+        VALUES,
+        NUMBER,
+        EPOCH_MILLIS,
+        VERSION,
+        PATTERN
+    }
+
+    private final String value;
+    private final Form form;
+    // Why the value can't be read by the operator, null if it can
+    private final String error;
+    // Null unless the form is VALUES
+    private final Set<String> values;
+    private final double number;
+    private final long epochMillis;
+    private final long epochDay;
+    private final SemanticVersion version;
+    // Compiled regular expression, null unless the form is PATTERN
+    private final Pattern pattern;
+
+    private Operand(String value, Form form, String error, Set<String> values, double number, long epochMillis,
+                    SemanticVersion version, Pattern pattern) {
+        this.value = value;
+        this.form = form;
+        this.error = error;
+        this.values = values;
+        this.number = number;
+        this.epochMillis = epochMillis;
+        this.epochDay = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        this.version = version;
+        this.pattern = pattern;
+    }
+
+    /**
+     * Parses the value of a condition into the representation the operator reads for the attribute type.
+     *
+     * @param operator operator of the condition, may be null if it isn't supported
+     * @param type     attribute type of the condition, may be null
+     * @param value    raw value of the condition, may be null
+     * @return operand, which is invalid if the value can't be read by the operator
+     */
+    static Operand of(Operator operator, AttributeType type, String value) {
+        if (operator == null) {
+            return invalid(value, Form.NONE, "the operator is not supported");
+        }
+
+        Form form = form(operator, type);
+        if (value == null && form != Form.NONE && form != Form.RAW && form != Form.VALUES) {
+            return invalid(null, form, "the value is missing");
+        }
+
+        switch (form) {
+            case VALUES:
+                Set<String> values = value == null ? Collections.emptySet() :
+                        Collections.unmodifiableSet(new HashSet<>(Arrays.asList(value.split(","))));
+                return new Operand(value, form, null, values, 0, 0, null, null);
+            case NUMBER:
+                try {
+                    return new Operand(value, form, null, null, Double.parseDouble(value), 0, null, null);
+                } catch (NumberFormatException e) {
+                    return invalid(value, form, "\"" + value + "\" is not a number");
+                }
+            case EPOCH_MILLIS:
+                try {
+                    return new Operand(value, form, null, null, 0, Long.parseLong(value), null, null);
+                } catch (NumberFormatException e) {
+                    return invalid(value, form, "\"" + value + "\" is not a date in milliseconds since epoch");
+                }
+            case VERSION:
+                SemanticVersion version = SemanticVersion.parse(value);
+                if (version == null) {
+                    return invalid(value, form, "\"" + value + "\" is not a semantic version");
+                }
+                return new Operand(value, form, null, null, 0, 0, version, null);
+            case PATTERN:
+                try {
+                    return new Operand(value, form, null, null, 0, 0, null, Pattern.compile(value));
+                } catch (PatternSyntaxException e) {
+                    return invalid(value, form, "\"" + value + "\" is not a regular expression: " +
+                            e.getDescription());
+                }
+            default:
+                return new Operand(value, form, null, null, 0, 0, null, null);
+        }
+    }
+
+    private static Operand invalid(String value, Form form, String error) {
+        return new Operand(value, form, error, null, 0, 0, null, null);
+    }
+
+    /**
+     * Returns the representation of the value that the operator reads for the attribute type, which follows the
+     * branches of the operator's implementation.
+     */
+    private static Form form(Operator operator, AttributeType type) {
+        switch (operator) {
+            case EQUALS:
+            case NOT_EQUALS:
+                if (type == AttributeType.SEMVER) {
+                    return Form.VERSION;
+                } else if (type == AttributeType.DATE) {
+                    return Form.EPOCH_MILLIS;
+                } else if (type == AttributeType.SET) {
+                    return Form.VALUES;
+                } else if (type == AttributeType.NUMBER) {
+                    return Form.NUMBER;
+                } else if (type == AttributeType.BOOLEAN) {
+                    return Form.NONE;
+                }
+                return Form.RAW;
+            case GREATER_THAN:
+            case GREATER_THAN_OR_EQUALS:
+            case LESS_THAN:
+            case LESS_THAN_OR_EQUALS:
+                if (type == AttributeType.SEMVER) {
+                    return Form.VERSION;
+                } else if (type == AttributeType.DATE || type == AttributeType.DATE_TIME) {
+                    return Form.EPOCH_MILLIS;
+                }
+                return Form.NUMBER;
+            case IS_ONE_OF:
+            case IS_PART_OF:
+            case IS_NOT_PART_OF:
+            case HAS_ANY_OF:
+            case DOES_NOT_HAVE_ANY_OF:
+            case HAS_ALL_OF:
+            case DOES_NOT_HAVE_ALL_OF:
+                return Form.VALUES;
+            case MATCHES:
+            case NOT_MATCHES:
+                return Form.PATTERN;
+            case SEMVER_EQUALS:
+            case SEMVER_GREATER_THAN:
+            case SEMVER_GREATER_THAN_OR_EQUALS:
+            case SEMVER_LESS_THAN:
+            case SEMVER_LESS_THAN_OR_EQUALS:
+                return Form.VERSION;
+            default:
+                return Form.TEXT;
+        }
+    }
+
+    /**
+     * Returns why the value can't be read by the operator of the condition.
+     *
+     * @return error, or null if the operand is valid
+     */
+    String getError() {
+        return error;
+    }
+
+    /**
+     * Returns the raw value, exactly as it was defined in the condition.
+     *
+     * @return raw value
+     */
+    String getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the comma separated values of the condition as an immutable set.
+     *
+     * @return set of values
+     */
+    Set<String> getValues() {
+        read(Form.VALUES);
+        return values;
+    }
+
+    /**
+     * Returns true if the value is a number, in which case {@link #getNumber()} doesn't throw.
+     *
+     * @return true if the value was parsed as a number
+     */
+    boolean isNumber() {
+        return form == Form.NUMBER && error == null;
+    }
+
+    /**
+     * Returns true if the value is a date or date time, in which case {@link #getEpochMillis()} and
+     * {@link #getEpochDay()} don't throw.
+     *
+     * @return true if the value was parsed as milliseconds since epoch
+     */
+    boolean isEpochMillis() {
+        return form == Form.EPOCH_MILLIS && error == null;
+    }
+
+    double getNumber() {
+        read(Form.NUMBER);
+        return number;
+    }
+
+    /**
+     * Returns the value as milliseconds since epoch (UTC).
+     *
+     * @return epoch millis
+     */
+    long getEpochMillis() {
+        read(Form.EPOCH_MILLIS);
+        return epochMillis;
+    }
+
+    /**
+     * Returns the UTC date of the value as days since epoch.
+     *
+     * @return epoch day
+     */
+    long getEpochDay() {
+        read(Form.EPOCH_MILLIS);
+        return epochDay;
+    }
+
+    /**
+     * Returns true if the value is a semantic version, in which case {@link #getVersion()} doesn't throw.
+     *
+     * @return true if the value was parsed as a version
+     */
+    boolean isVersion() {
+        return form == Form.VERSION && error == null;
+    }
+
+    /**
+     * Returns the value as a semantic version.
+     *
+     * @return version
+     */
+    SemanticVersion getVersion() {
+        read(Form.VERSION);
+        return version;
+    }
+
+    /**
+     * Returns true if the value was compiled into a regular expression, in which case {@link #getPattern()} doesn't
+     * throw.
+     *
+     * @return true if the value is a valid, compiled pattern
+     */
+    boolean isPattern() {
+        return pattern != null;
+    }
+
+    /**
+     * Returns the value as a regular expression.
+     *
+     * @return compiled pattern
+     */
+    Pattern getPattern() {
+        read(Form.PATTERN);
+        return pattern;
+    }
+
+    /**
+     * Checks that the value was parsed into the representation an operator is about to read.
+     *
+     * @throws IllegalArgumentException if the value couldn't be parsed
+     * @throws IllegalStateException    if the operand was created for an operator that reads another representation
+     */
+    private void read(Form form) {
+        if (error != null) {
+            throw new IllegalArgumentException("Invalid condition value: " + error);
+        }
+        if (this.form != form) {
+            throw new IllegalStateException("Value \"" + value + "\" of the condition is read as " + this.form +
+                    ", not " + form);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
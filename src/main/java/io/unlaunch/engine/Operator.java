@@ -2,15 +2,7 @@ package io.unlaunch.engine;
 
 import io.unlaunch.exceptions.UnlaunchAttributeCastException;
 
-import java.time.Instant;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * This Enum represents supported operators in Unlaunch with implementation.
@@ -26,7 +18,7 @@ enum Operator {
     EQUALS("EQ") {
 
         @Override
-        public boolean apply(String value, UnlaunchValue userValue, AttributeType type) {
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
             return equals(value, userValue, type);
         }
     },
@@ -37,7 +29,7 @@ enum Operator {
     NOT_EQUALS("NEQ") {
 
         @Override
-        public boolean apply(String value, UnlaunchValue userValue, AttributeType type) {
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
             return !equals(value, userValue, type);
         }
     },
@@ -49,7 +41,7 @@ enum Operator {
     GREATER_THAN("GT") {
 
         @Override
-        public boolean apply(String value, UnlaunchValue userValue, AttributeType type) {
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
             return greaterThan(value, userValue, type);
         }
     },
@@ -61,7 +53,7 @@ enum Operator {
     GREATER_THAN_OR_EQUALS("GTE") {
 
         @Override
-        public boolean apply(String value, UnlaunchValue userValue, AttributeType type) {
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
             return !lessThan(value, userValue, type);
         }
     },
@@ -73,7 +65,7 @@ enum Operator {
     LESS_THAN("LT") {
 
         @Override
-        public boolean apply(String value, UnlaunchValue userValue, AttributeType type) {
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
             return lessThan(value, userValue, type);
         }
     },
@@ -85,7 +77,7 @@ enum Operator {
     LESS_THAN_OR_EQUALS("LTE") {
 
         @Override
-        public boolean apply(String value, UnlaunchValue userValue, AttributeType type) {
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
             return !greaterThan(value, userValue, type);
         }
     },
@@ -93,14 +85,13 @@ enum Operator {
     IS_ONE_OF("IN") {
 
         @Override
-        public boolean apply(String value, UnlaunchValue userValue, AttributeType type) {
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
 
             if (userValue == null) {
                 return false;
             }
 
-            Set<String> values = new HashSet<>(Arrays.asList(value.split(",")));
-            return values.contains(userValue.toString());
+            return value.getValues().contains(userValue.toString());
         }
     },
     /**
@@ -111,7 +102,7 @@ enum Operator {
     STARTS_WITH("SW") {
 
         @Override
-        public boolean apply(String value, UnlaunchValue userValue, AttributeType type) {
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
             return startsWith(value, userValue);
         }
     },
@@ -123,7 +114,7 @@ enum Operator {
     ENDS_WITH("EW") {
 
         @Override
-        public boolean apply(String value, UnlaunchValue userValue, AttributeType type) {
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
             return endsWith(value, userValue);
         }
     },
@@ -135,7 +126,7 @@ enum Operator {
     CONTAINS("CON") {
 
         @Override
-        public boolean apply(String value, UnlaunchValue userValue, AttributeType type) {
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
             return contains(value, userValue);
         }
 
@@ -148,7 +139,7 @@ enum Operator {
     NOT_CONTAINS("NCON") {
 
         @Override
-        public boolean apply(String value, UnlaunchValue userValue, AttributeType type) {
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
             return !contains(value, userValue);
         }
 
@@ -161,7 +152,7 @@ enum Operator {
     NOT_STARTS_WITH("NSW") {
 
         @Override
-        public boolean apply(String value, UnlaunchValue userValue, AttributeType type) {
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
             return !startsWith(value, userValue);
         }
     },
@@ -173,53 +164,146 @@ enum Operator {
     NOT_ENDS_WITH("NEW") {
 
         @Override
-        public boolean apply(String value, UnlaunchValue userValue, AttributeType type) {
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
             return !endsWith(value, userValue);
         }
     },
     IS_PART_OF("PO") {
 
         @Override
-        public boolean apply(String value, UnlaunchValue userValue, AttributeType type) {
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
             return partOf(value, userValue);
         }
     },
     IS_NOT_PART_OF("NPO") {
 
         @Override
-        public boolean apply(String value, UnlaunchValue userValue, AttributeType type) {
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
             return !partOf(value, userValue);
         }
     },
     HAS_ANY_OF("HA") {
 
         @Override
-        public boolean apply(String value, UnlaunchValue userValue, AttributeType type) {
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
             return hasAny(value, userValue);
         }
     },
     DOES_NOT_HAVE_ANY_OF("NHA") {
 
         @Override
-        public boolean apply(String value, UnlaunchValue userValue, AttributeType type) {
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
             return !hasAny(value, userValue);
         }
     },
     HAS_ALL_OF("AO") {
 
         @Override
-        public boolean apply(String value, UnlaunchValue userValue, AttributeType type) {
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
             return allOf(value, userValue);
         }
     },
     DOES_NOT_HAVE_ALL_OF("NAO") {
 
         @Override
-        public boolean apply(String value, UnlaunchValue userValue, AttributeType type) {
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
             return !allOf(value, userValue);
         }
+    },
+    /**
+     * Returns true if userValue is type of UnlaunchStringValue and the whole of it matches the regular expression
+     * value. Returns false if userValue is null, is not type of UnlaunchStringValue, is longer than
+     * {@link #MAX_PATTERN_INPUT_LENGTH} or takes more than {@link #MAX_PATTERN_STEPS} to match.
+     */
+    MATCHES("RE") {
+
+        @Override
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
+            return matches(value, userValue, true);
+        }
+    },
+    /**
+     * Returns true if userValue is type of UnlaunchStringValue and the whole of it doesn't match the regular
+     * expression value. Like {@link #MATCHES}, returns false if userValue is null, is not type of
+     * UnlaunchStringValue, is longer than {@link #MAX_PATTERN_INPUT_LENGTH} or takes more than
+     * {@link #MAX_PATTERN_STEPS} to match, so a value that can't be matched doesn't pass either condition.
+     */
+    NOT_MATCHES("NRE") {
+
+        @Override
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
+            return matches(value, userValue, false);
+        }
+    },
+    /**
+     * Returns true if userValue is the same semantic version as value, ignoring build metadata.
+     * Returns false if userValue is null.
+     */
+    SEMVER_EQUALS("SVEQ") {
+
+        @Override
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
+            return userValue != null && compareVersion(value, userValue) == 0;
+        }
+    },
+    /**
+     * Returns true if userValue is a later semantic version than value.
+     * Returns false if userValue is null.
+     */
+    SEMVER_GREATER_THAN("SVGT") {
+
+        @Override
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
+            return userValue != null && compareVersion(value, userValue) > 0;
+        }
+    },
+    /**
+     * Returns true if userValue is the same or a later semantic version than value.
+     * Returns false if userValue is null.
+     */
+    SEMVER_GREATER_THAN_OR_EQUALS("SVGTE") {
+
+        @Override
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
+            return userValue != null && compareVersion(value, userValue) >= 0;
+        }
+    },
+    /**
+     * Returns true if userValue is an earlier semantic version than value.
+     * Returns false if userValue is null.
+     */
+    SEMVER_LESS_THAN("SVLT") {
+
+        @Override
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
+            return userValue != null && compareVersion(value, userValue) < 0;
+        }
+    },
+    /**
+     * Returns true if userValue is the same or an earlier semantic version than value.
+     * Returns false if userValue is null.
+     */
+    SEMVER_LESS_THAN_OR_EQUALS("SVLTE") {
+
+        @Override
+        public boolean apply(Operand value, UnlaunchValue userValue, AttributeType type) {
+            return userValue != null && compareVersion(value, userValue) <= 0;
+        }
     };
 
+    /**
+     * Longest user value a regular expression is matched against, longer values fail both {@link #MATCHES} and
+     * {@link #NOT_MATCHES}.
+     */
+    static final int MAX_PATTERN_INPUT_LENGTH = 1024;
+
+    /**
+     * Upper limit of the characters a regular expression may read while matching a value, across all the paths it
+     * backtracks through. It stops patterns such as {@code (.*a){20}} from taking exponential time on some inputs.
+     * Values that reach the limit fail both {@link #MATCHES} and {@link #NOT_MATCHES}.
+     */
+    static final int MAX_PATTERN_STEPS = 100_000;
+
     private String key;
 
     private Operator(String key) {
@@ -236,12 +320,12 @@ enum Operator {
 
     /**
      *
-     * @param value
+     * @param value pre-parsed value of the condition
      * @param userValue
      * @param valueType
      * @return
      */
-    public abstract boolean apply(String value, UnlaunchValue userValue, AttributeType valueType);
+    public abstract boolean apply(Operand value, UnlaunchValue userValue, AttributeType valueType);
 
     /**
      *
@@ -259,142 +343,192 @@ enum Operator {
         return null;
     }
 
-    static boolean equals(String value, UnlaunchValue userValue, AttributeType type) {
+    static boolean equals(Operand value, UnlaunchValue userValue, AttributeType type) {
         if (userValue == null) {
             return false;
         }
 
-        if (AttributeType.DATE.equals(type)) {
-            LocalDateTime userDateTime = getLocalDateTime(userValue);
-            LocalDate userDate = userDateTime.toLocalDate();
-
-            return userDate.equals(Instant.ofEpochMilli(Long.valueOf(value)).atZone(ZoneId.of("UTC")).toLocalDate());
+        if (AttributeType.SEMVER.equals(type)) {
+            return compareVersion(value, userValue) == 0;
+        } else if (AttributeType.DATE.equals(type)) {
+            return getUserEpochDay(userValue) == value.getEpochDay();
         } else if (AttributeType.SET.equals(type)) {
             Set userSetValue = getUserSet(userValue);
-            Set valuesSet = new HashSet(Arrays.asList(value.split(",")));
 
-            return valuesSet.equals(userSetValue);
+            return value.getValues().equals(userSetValue);
         } else if (AttributeType.NUMBER.equals(type)) {
-            return getUserNumber(userValue) == Double.valueOf(value);
+            return getUserNumber(userValue) == value.getNumber();
         } else if (AttributeType.BOOLEAN.equals(type)) {
-            return userValue.toString().toLowerCase().equals("true");
+            return "true".equalsIgnoreCase(userValue.toString());
         }
 
-        return userValue.toString().equals(value);
+        return userValue.toString().equals(value.getValue());
     }
 
-    static boolean greaterThan(String value, UnlaunchValue userValue, AttributeType type) {
+    static boolean greaterThan(Operand value, UnlaunchValue userValue, AttributeType type) {
+        if (userValue != null && AttributeType.SEMVER.equals(type)) {
+            // Versions are strings, compared by precedence
+            return compareVersion(value, userValue) > 0;
+        }
+
         if (userValue == null || userValue instanceof UnlaunchStringValue || userValue instanceof UnlaunchBooleanValue) {
             return false;
         }
 
         if (AttributeType.DATE.equals(type)) {
-
-            LocalDateTime userDateTime = getLocalDateTime(userValue);
-            LocalDate userDate = userDateTime.toLocalDate();
-
-            return userDate.isAfter(Instant.ofEpochMilli(Long.valueOf(value)).atZone(ZoneId.of("UTC")).toLocalDate());
+            return getUserEpochDay(userValue) > value.getEpochDay();
         } else if (AttributeType.DATE_TIME.equals(type)) {
-            LocalDateTime userDateTime = getLocalDateTime(userValue);
-
-            return userDateTime.isAfter(Instant.ofEpochMilli(Long.valueOf(value)).atZone(ZoneId.of("UTC")).toLocalDateTime());
+            return compareDateTime(getUserDateTime(userValue), value.getEpochMillis()) > 0;
         }
 
-        return getUserNumber(userValue) > Double.valueOf(value);
+        return getUserNumber(userValue) > value.getNumber();
     }
 
-    static boolean lessThan(String value, UnlaunchValue userValue, AttributeType type) {
+    static boolean lessThan(Operand value, UnlaunchValue userValue, AttributeType type) {
+        if (userValue != null && AttributeType.SEMVER.equals(type)) {
+            // Versions are strings, compared by precedence
+            return compareVersion(value, userValue) < 0;
+        }
+
         if (userValue == null || userValue instanceof UnlaunchStringValue || userValue instanceof UnlaunchBooleanValue) {
             return false;
         }
 
         if (AttributeType.DATE.equals(type)) {
-
-            LocalDateTime userDateTime = getLocalDateTime(userValue);
-            LocalDate userDate = userDateTime.toLocalDate();
-            LocalDate valueDate = Instant.ofEpochMilli(Long.valueOf(value)).atZone(ZoneId.of("UTC")).toLocalDate();
-
-            return userDate.isBefore(valueDate);
+            return getUserEpochDay(userValue) < value.getEpochDay();
         } else if (AttributeType.DATE_TIME.equals(type)) {
+            return compareDateTime(getUserDateTime(userValue), value.getEpochMillis()) < 0;
+        }
 
-            LocalDateTime userDateTime = getLocalDateTime(userValue);
-            LocalDateTime valueDateTime = Instant.ofEpochMilli(Long.valueOf(value)).atZone(ZoneId.of("UTC")).toLocalDateTime();
+        return getUserNumber(userValue) < value.getNumber();
+    }
 
-            return userDateTime.isBefore(valueDateTime);
+    static boolean startsWith(Operand value, UnlaunchValue userValue) {
+        if (userValue == null || !(userValue instanceof UnlaunchStringValue)) {
+            return false;
         }
 
-        return getUserNumber(userValue) < Double.valueOf(value);
+        return userValue.toString().startsWith(value.getValue());
     }
 
-    static boolean startsWith(String value, UnlaunchValue userValue) {
+    static boolean endsWith(Operand value, UnlaunchValue userValue) {
         if (userValue == null || !(userValue instanceof UnlaunchStringValue)) {
             return false;
         }
 
-        return userValue.toString().startsWith(value);
+        return userValue.toString().endsWith(value.getValue());
     }
 
-    static boolean endsWith(String value, UnlaunchValue userValue) {
+    static boolean contains(Operand value, UnlaunchValue userValue) {
         if (userValue == null || !(userValue instanceof UnlaunchStringValue)) {
             return false;
         }
 
-        return userValue.toString().endsWith(value);
+        return userValue.toString().contains(value.getValue());
     }
 
-    static boolean contains(String value, UnlaunchValue userValue) {
+    /**
+     * Returns true if the user's string value matches the pattern as expected, false if it can't be matched.
+     */
+    static boolean matches(Operand value, UnlaunchValue userValue, boolean expected) {
         if (userValue == null || !(userValue instanceof UnlaunchStringValue)) {
             return false;
         }
 
-        return userValue.toString().contains(value);
+        String input = userValue.toString();
+        if (input.length() > MAX_PATTERN_INPUT_LENGTH) {
+            return false;
+        }
+
+        try {
+            return value.getPattern().matcher(new BoundedCharSequence(input)).matches() == expected;
+        } catch (StepLimitExceededException e) {
+            return false;
+        }
     }
 
-    static boolean partOf(String value, UnlaunchValue userValue) {
+    /**
+     * Returns true if every item of the user's set is one of the values.
+     */
+    static boolean partOf(Operand value, UnlaunchValue userValue) {
         if (userValue == null || !(userValue instanceof UnlaunchSetValue)) {
             return false;
         }
 
-        Set userSet = getUserSet(userValue);
-        List<String> values = Arrays.asList(value.split(","));
+        Set<String> userSet = getUserSet(userValue);
 
-        Set<String> intersection = values.stream()
-                .distinct()
-                .filter(userSet::contains)
-                .collect(Collectors.toSet());
-
-        return userSet.equals(intersection);
+        return value.getValues().containsAll(userSet);
     }
 
-    static boolean hasAny(String value, UnlaunchValue userValue) {
+    static boolean hasAny(Operand value, UnlaunchValue userValue) {
         if (userValue == null || !(userValue instanceof UnlaunchSetValue)) {
             return false;
         }
 
-        Set userSet = getUserSet(userValue);
-        List<String> values = Arrays.asList(value.split(","));
+        Set<String> userSet = getUserSet(userValue);
 
-        return values.stream().anyMatch(item -> userSet.contains(item));
+        for (String item : value.getValues()) {
+            if (userSet.contains(item)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    static boolean allOf(String value, UnlaunchValue userValue) {
+    static boolean allOf(Operand value, UnlaunchValue userValue) {
         if (userValue == null || !(userValue instanceof UnlaunchSetValue)) {
             return false;
         }
 
-        Set userSet = getUserSet(userValue);
-        List<String> values = Arrays.asList(value.split(","));
+        Set<String> userSet = getUserSet(userValue);
 
-        return values.stream().allMatch(item -> userSet.contains(item));
+        return userSet.containsAll(value.getValues());
     }
 
-    static LocalDateTime getLocalDateTime(UnlaunchValue userValue) {
-        try {
-            return ((UnlaunchDateTimeValue) userValue).get();
-        } catch (ClassCastException e) {
+    /**
+     * Compares the user's date time (in UTC) with milliseconds since epoch. Sub-millisecond precision of the user's
+     * value is taken into account.
+     */
+    static int compareDateTime(UnlaunchDateTimeValue userDateTime, long epochMillis) {
+        long userMillis = userDateTime.getEpochMillis();
+
+        if (userMillis != epochMillis) {
+            return userMillis < epochMillis ? -1 : 1;
+        }
+        return userDateTime.hasSubMillis() ? 1 : 0;
+    }
+
+    /**
+     * Compares the user's semantic version with the value's.
+     *
+     * @return negative, zero or positive if the user's version is earlier than, the same as or later than the value
+     */
+    static int compareVersion(Operand value, UnlaunchValue userValue) {
+        return getUserVersion(userValue).compareTo(value.getVersion());
+    }
+
+    static SemanticVersion getUserVersion(UnlaunchValue userValue) {
+        // Strings are parsed when the attribute is set, other values (e.g. the number 2) only if they are compared
+        SemanticVersion version = userValue instanceof UnlaunchStringValue ?
+                ((UnlaunchStringValue) userValue).getVersion() : SemanticVersion.parse(userValue.toString());
+        if (version == null) {
             throw new UnlaunchAttributeCastException("Can not convert " + userValue.get()
-                    + " to date time. Please make sure your date/datetime value is in expected format!");
+                    + " to semantic version. Please make sure your version is valid!");
         }
+        return version;
+    }
+
+    static long getUserEpochDay(UnlaunchValue userValue) {
+        return getUserDateTime(userValue).getEpochDay();
+    }
+
+    static UnlaunchDateTimeValue getUserDateTime(UnlaunchValue userValue) {
+        if (userValue instanceof UnlaunchDateTimeValue) {
+            return (UnlaunchDateTimeValue) userValue;
+        }
+
+        throw new UnlaunchAttributeCastException("Can not convert " + userValue.get()
+                + " to date time. Please make sure your date/datetime value is in expected format!");
     }
 
     static Set<String> getUserSet(UnlaunchValue userValue) {
@@ -407,6 +541,10 @@ enum Operator {
     }
 
     static double getUserNumber(UnlaunchValue userValue) {
+        if (userValue instanceof UnlaunchNumberValue && ((UnlaunchNumberValue) userValue).isDouble()) {
+            return ((UnlaunchNumberValue) userValue).doubleValue();
+        }
+
         try {
             return Double.valueOf(userValue.toString());
         } catch (NumberFormatException e) {
@@ -414,4 +552,51 @@ enum Operator {
                     + " to number. Please make sure your number is valid!");
         }
     }
+
+    /**
+     * A string that aborts the match once the pattern has read {@link #MAX_PATTERN_STEPS} characters of it.
+     */
+    private static final class BoundedCharSequence implements CharSequence {
+        private final String input;
+        private int steps;
+
+        BoundedCharSequence(String input) {
+            this.input = input;
+        }
+
+        @Override
+        public int length() {
+            return input.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (++steps > MAX_PATTERN_STEPS) {
+                throw StepLimitExceededException.INSTANCE;
+            }
+            return input.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return input.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return input;
+        }
+    }
+
+    /**
+     * Thrown by {@link BoundedCharSequence} to abort a match. It is shared and has no stack trace since it never
+     * leaves {@link #matches(Operand, UnlaunchValue, boolean)}.
+     */
+    private static final class StepLimitExceededException extends RuntimeException {
+        static final StepLimitExceededException INSTANCE = new StepLimitExceededException();
+
+        private StepLimitExceededException() {
+            super("too many steps", null, false, false);
+        }
+    }
 }
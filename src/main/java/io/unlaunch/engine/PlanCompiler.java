@@ -0,0 +1,250 @@
+package io.unlaunch.engine;
+
+import io.unlaunch.EvaluationReasonCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Compiles {@link FeatureFlag}s into {@link EvaluationPlan}s. This is done once, when flags are downloaded, so that
+ * none of the work is repeated on every evaluation.
+ *
+ * <p>Prerequisite flags are linked by key: a prerequisite that is one of the flags being compiled uses that flag's
+ * plan, so every flag is compiled (and, with {@link EvaluationFrame}, evaluated) once no matter how many flags depend
+ * on it. The copy of the prerequisite embedded in the dependent flag is only compiled if the prerequisite isn't one
+ * of the flags. Prerequisites that form a cycle are rejected.</p>
+ *
+ * @author umermansoor
+ */
+public final class PlanCompiler {
+    private static final Logger logger = LoggerFactory.getLogger(PlanCompiler.class);
+
+    private final boolean generatePredicates;
+
+    /**
+     * Creates a compiler whose rules test their conditions one by one.
+     */
+    public PlanCompiler() {
+        this(false);
+    }
+
+    /**
+     * @param generatePredicates whether to generate a class for each targeting rule that tests its conditions,
+     *                           specialized for their operators, types and values, see {@link RulePredicates}. Rules
+     *                           whose class can't be generated are logged and test their conditions one by one.
+     */
+    public PlanCompiler(boolean generatePredicates) {
+        this.generatePredicates = generatePredicates;
+    }
+
+    /**
+     * Compiles the given flags. All plans share one {@link AttributeDictionary} of the attributes referenced by any
+     * of the flags. Flags that are invalid, e.g. whose rollout percentages don't add up to 100 or whose prerequisites
+     * form a cycle, are logged and left out so they evaluate to "control" instead of failing at evaluation time.
+     * Conditions with values their operators can't read are logged but compiled, and fail the evaluations that reach
+     * them just as they do when the flag is interpreted.
+     *
+     * @param flags list of flags as downloaded from the server
+     * @return map of flag key to its compiled {@link EvaluationPlan}
+     */
+    public Map<String, EvaluationPlan> compile(List<FeatureFlag> flags) {
+        Batch batch = new Batch(flags, generatePredicates);
+        Map<String, EvaluationPlan> plans = new HashMap<>(flags.size());
+
+        for (FeatureFlag flag : flags) {
+            try {
+                plans.put(flag.getKey(), batch.compile(flag.getKey()));
+            } catch (IllegalArgumentException e) {
+                logger.error("flag '{}' is invalid and will return 'control' for all evaluations: {}", flag.getKey(),
+                        e.getMessage());
+            } catch (RuntimeException e) {
+                // One malformed flag must not fail the whole download
+                logger.error("unable to compile flag '{}', it will return 'control' for all evaluations",
+                        flag.getKey(), e);
+            }
+        }
+
+        return plans;
+    }
+
+    /**
+     * Compiles a single flag, including its prerequisite flags.
+     *
+     * @param flag flag to compile
+     * @return compiled {@link EvaluationPlan}
+     * @throws IllegalArgumentException if the flag or one of its prerequisite flags is invalid
+     */
+    public EvaluationPlan compile(FeatureFlag flag) {
+        if (flag == null) {
+            throw new IllegalArgumentException("flag must not be null");
+        }
+
+        return new Batch(Collections.singletonList(flag), generatePredicates).compile(flag.getKey());
+    }
+
+    /**
+     * Flags that are compiled together. They share an {@link AttributeDictionary} and each gets a distinct index,
+     * used by {@link EvaluationFrame} to memoize results.
+     */
+    private static final class Batch {
+        private final Map<String, FeatureFlag> flagsByKey = new LinkedHashMap<>();
+        private final Map<String, Integer> flagIndexes = new HashMap<>();
+        private final AttributeDictionary dictionary;
+        private final Map<String, EvaluationPlan> plans = new HashMap<>();
+        // Flags being compiled, in the order they were reached, to detect cycles
+        private final Set<String> inProgress = new LinkedHashSet<>();
+        private final boolean generatePredicates;
+
+        private Batch(List<FeatureFlag> flags, boolean generatePredicates) {
+            this.generatePredicates = generatePredicates;
+            for (FeatureFlag flag : flags) {
+                flagsByKey.putIfAbsent(flag.getKey(), flag);
+            }
+
+            // Add the embedded copies of prerequisites that aren't one of the flags
+            Deque<FeatureFlag> pending = new ArrayDeque<>(flagsByKey.values());
+            while (!pending.isEmpty()) {
+                Map<FeatureFlag, Variation> prerequisiteFlags = pending.pop().getPrerequisiteFlags();
+                if (prerequisiteFlags != null) {
+                    for (FeatureFlag prerequisiteFlag : prerequisiteFlags.keySet()) {
+                        if (flagsByKey.putIfAbsent(prerequisiteFlag.getKey(), prerequisiteFlag) == null) {
+                            pending.push(prerequisiteFlag);
+                        }
+                    }
+                }
+            }
+
+            Set<String> attributeNames = new LinkedHashSet<>();
+            for (FeatureFlag flag : flagsByKey.values()) {
+                flagIndexes.put(flag.getKey(), flagIndexes.size());
+
+                List<Rule> rules = new ArrayList<>();
+                if (flag.getRules() != null) {
+                    rules.addAll(flag.getRules());
+                }
+                if (flag.getDefaultRule() != null) {
+                    rules.add(flag.getDefaultRule());
+                }
+                for (Rule rule : rules) {
+                    for (Condition condition : rule.getConditions()) {
+                        attributeNames.add(condition.getAttribute());
+                    }
+                }
+            }
+            this.dictionary = new AttributeDictionary(attributeNames);
+        }
+
+        private EvaluationPlan compile(String flagKey) {
+            EvaluationPlan plan = plans.get(flagKey);
+            if (plan != null) {
+                return plan;
+            }
+
+            if (!inProgress.add(flagKey)) {
+                throw new IllegalArgumentException("prerequisite flags form a cycle: " + cycle(flagKey));
+            }
+
+            try {
+                FeatureFlag flag = flagsByKey.get(flagKey);
+                if (flag.getDefaultRule() == null) {
+                    throw new IllegalArgumentException("flag has no default rule");
+                }
+                if (flag.getRules() == null) {
+                    throw new IllegalArgumentException("flag has no rules");
+                }
+
+                List<EvaluationPlan.Prerequisite> prerequisites = new ArrayList<>();
+                Map<FeatureFlag, Variation> prerequisiteFlags = flag.getPrerequisiteFlags();
+                if (prerequisiteFlags != null) {
+                    for (Map.Entry<FeatureFlag, Variation> entry : prerequisiteFlags.entrySet()) {
+                        prerequisites.add(new EvaluationPlan.Prerequisite(compile(entry.getKey().getKey()),
+                                entry.getValue().getKey()));
+                    }
+                }
+
+                List<Rule> targetingRules = new ArrayList<>();
+                for (Rule rule : flag.getRules()) {
+                    if (!rule.isIsDefault()) {
+                        targetingRules.add(rule);
+                    }
+                    warnIfInvalid(flagKey, rule);
+                }
+                warnIfInvalid(flagKey, flag.getDefaultRule());
+
+                AttributeMatcher[] attributeMatchers = AttributeMatcher.build(targetingRules, dictionary);
+                List<RulePlan> rules = new ArrayList<>();
+                for (Rule rule : targetingRules) {
+                    rules.add(targetingRule(flagKey, rule, attributeMatchers));
+                }
+
+                plan = new EvaluationPlan(
+                        flag,
+                        dictionary,
+                        flagIndexes.get(flagKey),
+                        flagsByKey.size(),
+                        prerequisites.toArray(new EvaluationPlan.Prerequisite[0]),
+                        rules.toArray(new RulePlan[0]),
+                        attributeMatchers,
+                        new RulePlan(flagKey, flag.getDefaultRule(), EvaluationReasonCode.DEFAULT_RULE, dictionary,
+                                null, false));
+                plans.put(flagKey, plan);
+
+                return plan;
+            } finally {
+                inProgress.remove(flagKey);
+            }
+        }
+
+        private RulePlan targetingRule(String flagKey, Rule rule, AttributeMatcher[] attributeMatchers) {
+            if (generatePredicates) {
+                try {
+                    return new RulePlan(flagKey, rule, EvaluationReasonCode.TARGETING_RULE, dictionary,
+                            attributeMatchers, true);
+                } catch (IllegalStateException e) {
+                    logger.warn("unable to generate the predicate of rule with priority {} of flag '{}', its " +
+                            "conditions will be tested one by one: {}", rule.getPriority(), flagKey, e.getMessage());
+                }
+            }
+            return new RulePlan(flagKey, rule, EvaluationReasonCode.TARGETING_RULE, dictionary, attributeMatchers,
+                    false);
+        }
+
+        /**
+         * Logs the conditions of the rule whose values their operators can't read, once when the flag is compiled
+         * rather than only by the evaluations that reach them.
+         */
+        private static void warnIfInvalid(String flagKey, Rule rule) {
+            for (Condition condition : rule.getConditions()) {
+                String error = condition.getOperand().getError();
+                if (error != null) {
+                    logger.warn("condition on attribute '{}' of rule with priority {} of flag '{}' is invalid and " +
+                            "will fail evaluations that reach it: {}", condition.getAttribute(), rule.getPriority(),
+                            flagKey, error);
+                }
+            }
+        }
+
+        private String cycle(String flagKey) {
+            StringJoiner cycle = new StringJoiner(" -> ");
+            boolean inCycle = false;
+            for (String key : inProgress) {
+                inCycle |= key.equals(flagKey);
+                if (inCycle) {
+                    cycle.add(key);
+                }
+            }
+            return cycle.add(flagKey).toString();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package io.unlaunch.engine;
+
+import io.unlaunch.EvaluationReasonCode;
+import io.unlaunch.UnlaunchFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Evaluates feature flags using their pre-compiled {@link EvaluationPlan}. The results are identical to the ones
+ * returned by the {@link Evaluator}, which walks the raw {@link FeatureFlag} instead and is kept as the reference
+ * implementation. The returned {@link UnlaunchFeature} is one of the shared instances held by the plan, so
+ * evaluating a flag doesn't allocate it.
+ *
+ * <p>This class is stateless and hence thread-safe.</p>
+ *
+ * @author umermansoor
+ */
+public class PlanEvaluator {
+    private static final Logger logger = LoggerFactory.getLogger(PlanEvaluator.class);
+
+    public UnlaunchFeature evaluate(EvaluationPlan plan, UnlaunchUser user) {
+        if (plan == null) {
+            throw new IllegalArgumentException("plan must not be null");
+        }
+
+        if (user == null) {
+            throw new IllegalArgumentException("user must not be null");
+        }
+
+        // Prerequisites are memoized for the duration of the evaluation
+        return evaluate(plan, user, plan.getPrerequisites().length == 0 ? null : new EvaluationFrame());
+    }
+
+    /**
+     * Evaluates many flags for the same user. The user id is hashed once, and each flag (including prerequisite
+     * flags) is evaluated at most once, so this is cheaper than calling {@link #evaluate(EvaluationPlan, UnlaunchUser)}
+     * for every plan.
+     *
+     * @param plans plans to evaluate, should be compiled together
+     * @param user user to evaluate the plans for
+     * @return map of flag key to result
+     */
+    public Map<String, UnlaunchFeature> evaluateAll(Collection<EvaluationPlan> plans, UnlaunchUser user) {
+        if (plans == null) {
+            throw new IllegalArgumentException("plans must not be null");
+        }
+
+        if (user == null) {
+            throw new IllegalArgumentException("user must not be null");
+        }
+
+        Map<String, UnlaunchFeature> results = new HashMap<>((int) (plans.size() / 0.75f) + 1);
+        EvaluationFrame frame = new EvaluationFrame();
+
+        for (EvaluationPlan plan : plans) {
+            UnlaunchFeature result = frame.getResult(plan);
+            if (result == null) {
+                result = evaluate(plan, user, frame);
+                frame.putResult(plan, result);
+            }
+            results.put(plan.getKey(), result);
+        }
+
+        return results;
+    }
+
+    /**
+     * Evaluates the plan in a frame that memoizes the results of prerequisite flags.
+     *
+     * @param plan
+     * @param user
+     * @param frame frame of the evaluation, may only be null if the plan has no prerequisites
+     * @return
+     */
+    UnlaunchFeature evaluate(EvaluationPlan plan, UnlaunchUser user, EvaluationFrame frame) {
+        UnlaunchFeature result = evaluateResult(plan, user, frame);
+        logResult(plan, user, result);
+        return result;
+    }
+
+    /**
+     * Returns the result the flag evaluates to for the user, without logging the outcome. Only the work the
+     * {@link FlagShape} of the flag requires is done.
+     *
+     * @param plan
+     * @param user
+     * @return
+     */
+    private UnlaunchFeature evaluateResult(EvaluationPlan plan, UnlaunchUser user, EvaluationFrame frame) {
+        switch (plan.getShape()) {
+            case CONSTANT:
+                return plan.getConstantResult();
+            case BUCKET_ONLY:
+                return serve(plan.getDefaultRule(), plan, user, frame);
+            case ALLOW_LIST_AND_BUCKET:
+                UnlaunchFeature result = plan.getAllowListResult(user.getId());
+                return result != null ? result : serve(plan.getDefaultRule(), plan, user, frame);
+            case HAS_PREREQUISITES:
+                if (!checkDependencies(plan, user, frame)) {
+                    return plan.getPrerequisiteFailedResult();
+                }
+                return evaluateTargeting(plan, user, frame);
+            default:
+                return evaluateTargeting(plan, user, frame);
+        }
+    }
+
+    private UnlaunchFeature evaluateTargeting(EvaluationPlan plan, UnlaunchUser user, EvaluationFrame frame) {
+        UnlaunchFeature result = plan.getAllowListResult(user.getId());
+        if (result != null) {
+            return result;
+        }
+
+        RulePlan matchedRule = plan.findMatchingRule(user.getSlotValues(plan.getDictionary()));
+        return serve(matchedRule != null ? matchedRule : plan.getDefaultRule(), plan, user, frame);
+    }
+
+    /**
+     * Returns the result of the rule for the user, the user id is only hashed if the rule has more than one split.
+     */
+    private UnlaunchFeature serve(RulePlan rule, EvaluationPlan plan, UnlaunchUser user, EvaluationFrame frame) {
+        UnlaunchFeature result = rule.getConstantResult();
+        return result != null ? result : rule.getResult(getBucket(plan, user, frame));
+    }
+
+    private static void logResult(EvaluationPlan plan, UnlaunchUser user, UnlaunchFeature result) {
+        EvaluationReasonCode reasonCode;
+        if (result != null) {
+            reasonCode = result.getEvaluationReasonCode();
+        } else {
+            // Only the off variation may be missing
+            reasonCode = plan.isEnabled() ? EvaluationReasonCode.PREREQUISITE_FAILED : EvaluationReasonCode.FLAG_DISABLED;
+        }
+
+        switch (reasonCode) {
+            case FLAG_DISABLED:
+                if (logger.isDebugEnabled()) {
+                    logger.debug("FLAG_DISABLED, {}, OFF_VARIATION is served to user {}", plan.getKey(), user.getId());
+                }
+                break;
+            case PREREQUISITE_FAILED:
+                if (logger.isInfoEnabled()) {
+                    logger.info("PREREQUISITE_FAILED for flag {}, OFF_VARIATION is served to user {}", plan.getKey(),
+                            user.getId());
+                }
+                break;
+            case TARGET_USER:
+                if (logger.isInfoEnabled()) {
+                    logger.info("USER_IN_TARGET_USER for flag {}, VARIATION {} is served to user {}",
+                            plan.getKey(), result.getVariation(), user.getId());
+                }
+                break;
+            case TARGETING_RULE:
+                if (logger.isDebugEnabled()) {
+                    logger.debug("RULE_MATCHED for flag {}, {} Target Rule is served to user {}",
+                            plan.getKey(), result.getVariation(), user.getId());
+                }
+                break;
+            default:
+                if (logger.isDebugEnabled()) {
+                    logger.debug("RULE_NOT_MATCHED for flag {}, {} Default Rule is served to user {}",
+                            plan.getKey(), result.getVariation(), user.getId());
+                }
+                break;
+        }
+    }
+
+    private int getBucket(EvaluationPlan plan, UnlaunchUser user, EvaluationFrame frame) {
+        return frame == null ? Bucketing.getBucket(user.getId(), plan.getKey()) : frame.getBucket(user, plan.getKey());
+    }
+
+    private boolean checkDependencies(EvaluationPlan plan, UnlaunchUser user, EvaluationFrame frame) {
+        for (EvaluationPlan.Prerequisite prerequisite : plan.getPrerequisites()) {
+            UnlaunchFeature result = frame.getResult(prerequisite.getPlan());
+            if (result == null) {
+                result = evaluateResult(prerequisite.getPlan(), user, frame);
+                frame.putResult(prerequisite.getPlan(), result);
+            }
+
+            if (!result.getVariation().equals(prerequisite.getExpectedVariationKey())) {
+                logger.info("PREREQUISITE_FAILED,{},{}", prerequisite.getPlan().getKey(), user.getId());
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
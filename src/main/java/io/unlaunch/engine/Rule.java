@@ -31,8 +31,8 @@ class Rule {
     public Rule(boolean isDefault, long priority, List<Condition> conditions, List<Variation> variations) {
         this.isDefault = isDefault;
         this.priority = priority;
-        this.conditions = conditions;
-        this.variations = variations;
+        this.conditions = Collections.unmodifiableList(conditions);
+        this.variations = Collections.unmodifiableList(variations);
     }
 
     public boolean isIsDefault() {
@@ -44,11 +44,11 @@ class Rule {
     }
 
     public List<Condition> getConditions() {
-        return Collections.unmodifiableList(conditions);
+        return conditions;
     }
 
     public List<Variation> getVariations() {
-        return Collections.unmodifiableList(variations);
+        return variations;
     }
 
      /**
@@ -0,0 +1,137 @@
+package io.unlaunch.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dispatches the rules of a flag on the value of a single attribute. The rules whose leading conditions test the
+ * attribute are indexed so the rules a user can't match are skipped without testing their conditions; the other
+ * rules are tested for every user.
+ *
+ * <p>Candidates are tested in the same (priority) order as the rules of the flag, together with the rules that
+ * couldn't be indexed, so the first matching rule is the same one a linear scan would find. Only conditions that
+ * can't throw are used to rule out a rule, so errors are reported exactly as they are by a linear scan.</p>
+ *
+ * <p>Implementations are immutable and hence thread-safe.</p>
+ *
+ * @author umermansoor
+ * @see ValueRuleIndex
+ * @see IntervalRuleIndex
+ */
+abstract class RuleIndex {
+
+    /**
+     * Below this number of indexed rules, testing the rules one by one is as cheap as an index lookup.
+     */
+    static final int MIN_INDEXED_RULES = 4;
+
+    static final int[] NO_RULES = new int[0];
+
+    private final RulePlan[] rules;
+    private final int slot;
+    private final int indexedRules;
+    // Positions (in priority order) of the rules that must always be tested
+    private final int[] unindexed;
+
+    /**
+     * @param rules   rules of the flag in priority order
+     * @param slot    slot of the attribute the rules are dispatched on
+     * @param indexed whether the rule at each position is indexed
+     */
+    RuleIndex(RulePlan[] rules, int slot, boolean[] indexed) {
+        this.rules = rules;
+        this.slot = slot;
+
+        List<Integer> unindexedPositions = new ArrayList<>();
+        for (int i = 0; i < rules.length; i++) {
+            if (!indexed[i]) {
+                unindexedPositions.add(i);
+            }
+        }
+        this.indexedRules = rules.length - unindexedPositions.size();
+        this.unindexed = toArray(unindexedPositions);
+    }
+
+    /**
+     * Builds the index that covers the most rules.
+     *
+     * @param rules rules of the flag in priority order
+     * @return index, or null if too few rules can be indexed for it to pay off
+     */
+    static RuleIndex build(RulePlan[] rules) {
+        RuleIndex best = null;
+        for (RuleIndex index : new RuleIndex[]{ValueRuleIndex.build(rules), IntervalRuleIndex.build(rules)}) {
+            if (index != null && (best == null || index.indexedRules > best.indexedRules)) {
+                best = index;
+            }
+        }
+        return best;
+    }
+
+    static int[] toArray(List<Integer> positions) {
+        if (positions.isEmpty()) {
+            return NO_RULES;
+        }
+
+        int[] array = new int[positions.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = positions.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Returns the indexed rules the user's value can match.
+     *
+     * @param userValue value of the attribute, or null if the user doesn't have it
+     * @return positions of the candidate rules in priority order, or null if the value can't be looked up and every
+     * rule must be tested
+     */
+    abstract int[] getCandidates(UnlaunchValue userValue);
+
+    /**
+     * Returns the first rule, in priority order, the user satisfies.
+     *
+     * @param userValues attribute values of the user, read by slot
+     * @param matches    user's values projected by the matchers of the flag, see {@link RulePlan#matches}
+     * @return matching rule, or null if no rule matches
+     */
+    RulePlan findMatchingRule(SlotValues userValues, AttributeMatches matches) {
+        int[] candidates = getCandidates(userValues.get(slot));
+        if (candidates == null) {
+            for (RulePlan rule : rules) {
+                if (rule.matches(userValues, matches)) {
+                    return rule;
+                }
+            }
+            return null;
+        }
+
+        // Merge the two sorted lists of positions so rules are tested in priority order
+        int i = 0;
+        int j = 0;
+        while (i < candidates.length || j < unindexed.length) {
+            int position;
+            if (j == unindexed.length || (i < candidates.length && candidates[i] < unindexed[j])) {
+                position = candidates[i++];
+            } else {
+                position = unindexed[j++];
+            }
+
+            if (rules[position].matches(userValues, matches)) {
+                return rules[position];
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" +
+                "slot=" + slot +
+                ", indexed=" + indexedRules +
+                ", unindexed=" + unindexed.length +
+                '}';
+    }
+}
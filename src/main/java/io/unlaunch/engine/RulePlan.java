@@ -0,0 +1,407 @@
+package io.unlaunch.engine;
+
+import io.unlaunch.EvaluationReasonCode;
+import io.unlaunch.UnlaunchFeature;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compiled form of a {@link Rule}. Conditions and splits are resolved into arrays when the flag is loaded so that
+ * evaluating the rule doesn't allocate. Splits are turned into a table of the result to serve for each of the 100
+ * buckets, holding the {@link UnlaunchFeature} built up front for each split and shared by all users the rule is
+ * served to.
+ *
+ * <p>Since a rule is a conjunction, its conditions can be tested in any order without changing whether it matches.
+ * The order is adapted to the users being evaluated: evaluations are sampled into {@link ConditionStatistics} and
+ * {@link #reorderConditions()}, called off the evaluation path, publishes a new order that tests the conditions most
+ * likely to fail at the least cost first. Only conditions that can't throw are moved, each within the run of such
+ * conditions it was authored in, so a condition that reports an error is reached by the same users as in authored
+ * order.</p>
+ *
+ * <p>If the plan is compiled with generated predicates, the conditions are tested by a {@link RulePredicate} generated
+ * by {@link RulePredicates} for the current order, instead of one by one through the operators. A new one is
+ * generated whenever the order changes.</p>
+ *
+ * @author umermansoor
+ */
+final class RulePlan {
+
+    private final long priority;
+    private final Condition[] conditions;
+    // Slot of each condition's attribute in the AttributeDictionary
+    private final int[] slots;
+    // Index of the AttributeMatcher that tests each condition, or -1 if the condition tests the value itself
+    private final int[] matchers;
+    // Operand of each condition encoded by its matcher
+    private final long[][] operands;
+    private final int numberOfSplits;
+    // Indexed by bucket number, 1 to 100 inclusive
+    private final UnlaunchFeature[] resultsByBucket;
+    // Result served to every bucket, or null if it depends on the bucket
+    private final UnlaunchFeature constantResult;
+    // Whether each condition can be moved, see #neverThrows
+    private final boolean[] reorderable;
+    // Null if no condition can be moved
+    private final ConditionStatistics statistics;
+    // Positions of the conditions in the order they are tested, replaced but never modified
+    private volatile int[] order;
+    // Tests the conditions in the current order, null if they are tested one by one
+    private volatile RulePredicate predicate;
+
+    /**
+     * @param flagKey    key of the flag the rule belongs to
+     * @param rule       rule to compile
+     * @param reasonCode reason of the results served by this rule
+     * @param dictionary slots of the attributes referenced by the conditions
+     * @param attributeMatchers matchers of the conditions of the flag, may be null
+     * @param generatePredicate whether to test the conditions with a generated predicate, see {@link RulePredicates}
+     * @throws IllegalArgumentException if the splits of the rule don't add up to 100 percent
+     * @throws IllegalStateException    if the predicate can't be generated
+     */
+    RulePlan(String flagKey, Rule rule, EvaluationReasonCode reasonCode, AttributeDictionary dictionary,
+             AttributeMatcher[] attributeMatchers, boolean generatePredicate) {
+        this.priority = rule.getPriority();
+
+        List<Condition> ruleConditions = rule.getConditions();
+        this.conditions = ruleConditions.toArray(new Condition[0]);
+        this.slots = new int[conditions.length];
+        for (int i = 0; i < conditions.length; i++) {
+            slots[i] = dictionary.getSlot(conditions[i].getAttribute());
+            if (slots[i] == -1) {
+                throw new IllegalArgumentException("attribute '" + conditions[i].getAttribute() +
+                        "' is missing from the dictionary");
+            }
+        }
+
+        this.matchers = new int[conditions.length];
+        this.operands = new long[conditions.length][];
+        for (int i = 0; i < conditions.length; i++) {
+            matchers[i] = -1;
+            for (int m = 0; attributeMatchers != null && m < attributeMatchers.length && matchers[i] < 0; m++) {
+                if (attributeMatchers[m].getSlot() == slots[i]) {
+                    operands[i] = attributeMatchers[m].encode(conditions[i]);
+                    matchers[i] = operands[i] == null ? -1 : m;
+                }
+            }
+        }
+
+        this.reorderable = new boolean[conditions.length];
+        this.order = new int[conditions.length];
+        boolean movable = false;
+        for (int i = 0; i < conditions.length; i++) {
+            order[i] = i;
+            reorderable[i] = neverThrows(conditions[i]);
+            movable |= i > 0 && reorderable[i] && reorderable[i - 1];
+        }
+        this.statistics = movable ? new ConditionStatistics(conditions.length) : null;
+
+        List<Variation> splits = rule.getVariations();
+        this.numberOfSplits = splits.size();
+
+        String reasonDetail = reasonCode == EvaluationReasonCode.TARGETING_RULE ? String.valueOf(priority) : null;
+        UnlaunchFeature[] results = new UnlaunchFeature[numberOfSplits];
+        long[] cumulativePercentages = new long[numberOfSplits];
+        long sum = 0;
+        for (int i = 0; i < numberOfSplits; i++) {
+            Variation variation = splits.get(i);
+            sum += variation.getRolloutPercentage();
+            cumulativePercentages[i] = sum;
+            results[i] = UnlaunchFeature.create(flagKey, variation.getKey(), variation.getProperties(), reasonCode,
+                    reasonDetail);
+        }
+
+        // A bucket is served by the first split whose cumulative percentage reaches it
+        this.resultsByBucket = new UnlaunchFeature[Bucketing.NUMBER_OF_BUCKETS + 1];
+        for (int bucket = 1; bucket <= Bucketing.NUMBER_OF_BUCKETS; bucket++) {
+            for (int i = 0; i < numberOfSplits; i++) {
+                if (bucket <= cumulativePercentages[i]) {
+                    resultsByBucket[bucket] = results[i];
+                    break;
+                }
+            }
+
+            if (resultsByBucket[bucket] == null) {
+                throw new IllegalArgumentException("rollout percentages of rule with priority " + priority +
+                        " of flag '" + flagKey + "' add up to " + sum + ", bucket " + bucket + " has no variation");
+            }
+        }
+
+        UnlaunchFeature sameResult = resultsByBucket[1];
+        for (int bucket = 2; bucket <= Bucketing.NUMBER_OF_BUCKETS && sameResult != null; bucket++) {
+            if (resultsByBucket[bucket] != sameResult) {
+                sameResult = null;
+            }
+        }
+        this.constantResult = sameResult;
+        this.predicate = generatePredicate ? RulePredicates.generate(this, order) : null;
+    }
+
+    /**
+     * Returns true if the operator never throws when testing the condition, whatever the user's value.
+     */
+    private static boolean neverThrows(Condition condition) {
+        if (condition.getOperator() == null) {
+            return false;
+        }
+
+        switch (condition.getOperator()) {
+            case IS_ONE_OF:
+            case HAS_ANY_OF:
+            case DOES_NOT_HAVE_ANY_OF:
+            case HAS_ALL_OF:
+            case DOES_NOT_HAVE_ALL_OF:
+            case IS_PART_OF:
+            case IS_NOT_PART_OF:
+                return true;
+            case STARTS_WITH:
+            case NOT_STARTS_WITH:
+            case ENDS_WITH:
+            case NOT_ENDS_WITH:
+            case CONTAINS:
+            case NOT_CONTAINS:
+                return condition.getValue() != null;
+            case MATCHES:
+            case NOT_MATCHES:
+                // Values that can't be matched fail the condition, only invalid patterns throw
+                return condition.getOperand().isPattern();
+            case EQUALS:
+            case NOT_EQUALS:
+                // Dates, sets, numbers and versions are converted and may be rejected
+                AttributeType type = condition.getType();
+                return type != AttributeType.DATE && type != AttributeType.SET && type != AttributeType.NUMBER
+                        && type != AttributeType.SEMVER;
+            default:
+                return false;
+        }
+    }
+
+    long getPriority() {
+        return priority;
+    }
+
+    int getConditionCount() {
+        return conditions.length;
+    }
+
+    /**
+     * Returns a condition in the order it was authored.
+     *
+     * @param i position of the condition
+     * @return condition
+     */
+    Condition getCondition(int i) {
+        return conditions[i];
+    }
+
+    /**
+     * Returns true if a condition is tested by an {@link AttributeMatcher} when it accepts the user's value.
+     *
+     * @param i position of the condition
+     * @return true if the condition has a matcher
+     */
+    boolean hasMatcher(int i) {
+        return matchers[i] >= 0;
+    }
+
+    /**
+     * Returns true if the conditions are tested by a generated {@link RulePredicate}.
+     *
+     * @return true if the rule has a generated predicate
+     */
+    boolean hasGeneratedPredicate() {
+        return predicate != null;
+    }
+
+    /**
+     * Returns the slot of the attribute of a condition.
+     *
+     * @param i position of the condition
+     * @return slot in the attribute dictionary
+     */
+    int getSlot(int i) {
+        return slots[i];
+    }
+
+    /**
+     * Returns the first condition in authored order.
+     *
+     * @return first condition, or null if the rule has no conditions
+     */
+    Condition getLeadingCondition() {
+        return conditions.length == 0 ? null : conditions[0];
+    }
+
+    /**
+     * Returns the slot of the attribute of the leading condition.
+     *
+     * @return slot, or -1 if the rule has no conditions
+     */
+    int getLeadingSlot() {
+        return slots.length == 0 ? -1 : slots[0];
+    }
+
+    /**
+     * Returns true if the user satisfies all the conditions of this rule.
+     *
+     * @param userValues attribute values of the user, read by slot
+     * @param matches    user's values projected by the matchers of the flag, may only be null if the flag has no
+     *                   {@link AttributeMatcher}s
+     * @return
+     */
+    boolean matches(SlotValues userValues, AttributeMatches matches) {
+        if (statistics != null && statistics.shouldSample()) {
+            sample(userValues, matches);
+        }
+
+        RulePredicate predicate = this.predicate;
+        if (predicate != null) {
+            return predicate.test(userValues, matches);
+        }
+
+        for (int i : order) {
+            if (!test(i, userValues, matches)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Tests one condition.
+     *
+     * @param i          position of the condition
+     * @param userValues attribute values of the user, read by slot
+     * @param matches    user's values projected by the matchers of the flag
+     * @return true if the user satisfies the condition
+     */
+    boolean test(int i, SlotValues userValues, AttributeMatches matches) {
+        UnlaunchValue userValue = userValues.get(slots[i]);
+        if (matchers[i] < 0 || userValue == null || !matches.accepts(matchers[i], userValue)) {
+            return conditions[i].match(userValue);
+        }
+        return matches.test(matchers[i], conditions[i].getOperator(), operands[i]);
+    }
+
+    /**
+     * Tests every condition that can be moved, whether or not an earlier condition fails, so each condition's pass
+     * rate is measured over all users. They can't throw, so testing them has no effect on the evaluation. The end of
+     * one test is the start of the next, so the clock is read once per condition.
+     */
+    private void sample(SlotValues userValues, AttributeMatches matches) {
+        long start = System.nanoTime();
+        for (int i = 0; i < conditions.length; i++) {
+            if (reorderable[i]) {
+                boolean passed = test(i, userValues, matches);
+                long end = System.nanoTime();
+                statistics.record(i, passed, end - start);
+                start = end;
+            }
+        }
+    }
+
+    /**
+     * Orders each run of conditions that can be moved by ascending {@link ConditionStatistics#rank}, once all its
+     * conditions have enough samples, and publishes the new order for the following evaluations. The statistics are
+     * then decayed, see {@link ConditionStatistics#decay()}. Must be called by one thread at a time.
+     *
+     * @return true if the order changed
+     */
+    boolean reorderConditions() {
+        if (statistics == null) {
+            return false;
+        }
+
+        int[] current = order;
+        int[] next = new int[conditions.length];
+        int start = 0;
+        while (start < conditions.length) {
+            int end = start + 1;
+            if (reorderable[start]) {
+                while (end < conditions.length && reorderable[end]) {
+                    end++;
+                }
+            }
+
+            // Positions of the run's conditions as currently tested, so conditions without a clear winner stay put
+            List<Integer> run = new ArrayList<>();
+            for (int i : current) {
+                if (i >= start && i < end) {
+                    run.add(i);
+                }
+            }
+
+            boolean sampled = true;
+            for (int i : run) {
+                sampled &= !reorderable[i] || statistics.hasEnoughSamples(i);
+            }
+            if (sampled && run.size() > 1) {
+                double[] ranks = new double[conditions.length];
+                for (int i : run) {
+                    ranks[i] = statistics.rank(i);
+                }
+                run.sort(Comparator.comparingDouble(i -> ranks[i]));
+            }
+
+            for (int i = 0; i < run.size(); i++) {
+                next[start + i] = run.get(i);
+            }
+            start = end;
+        }
+        statistics.decay();
+
+        if (Arrays.equals(current, next)) {
+            return false;
+        }
+        if (predicate != null) {
+            try {
+                predicate = RulePredicates.generate(this, next);
+            } catch (IllegalStateException e) {
+                // Test the conditions one by one from now on, as if the predicate couldn't be generated at all
+                predicate = null;
+            }
+        }
+        order = next;
+        return true;
+    }
+
+    /**
+     * Returns the positions of the conditions in the order they are currently tested.
+     *
+     * @return copy of the order
+     */
+    int[] getConditionOrder() {
+        return order.clone();
+    }
+
+    /**
+     * Returns the result of the split that contains the bucket.
+     *
+     * @param bucketNumber bucket of the user, 1 to 100 inclusive
+     * @return shared result to serve
+     */
+    UnlaunchFeature getResult(int bucketNumber) {
+        return resultsByBucket[bucketNumber];
+    }
+
+    /**
+     * Returns the result served to every bucket, e.g. when the rule has a single split of 100 percent.
+     *
+     * @return shared result, or null if the result depends on the user's bucket
+     */
+    UnlaunchFeature getConstantResult() {
+        return constantResult;
+    }
+
+    @Override
+    public String toString() {
+        return "RulePlan{" +
+                "priority=" + priority +
+                ", conditions=" + conditions.length +
+                ", variations=" + numberOfSplits +
+                '}';
+    }
+}
@@ -0,0 +1,46 @@
+package io.unlaunch.engine;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.ConstantCallSite;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Tests the conditions of one rule, see {@link RulePredicates}. Implementations are classes generated for a single
+ * rule, each defined by a class loader of its own so that it is unloaded with the rule's plan.
+ *
+ * <p>This interface is public only because the generated classes aren't in the runtime package of the engine and so
+ * can't implement or link to anything that isn't public. It isn't meant to be implemented or called by
+ * applications.</p>
+ *
+ * @author umermansoor
+ */
+public interface RulePredicate {
+
+    /**
+     * Returns true if the user satisfies all the conditions of the rule.
+     *
+     * @param userValues attribute values of the user, a {@code SlotValues}
+     * @param matches    user's values projected by the matchers of the flag, an {@code AttributeMatches}
+     * @return true if the rule matches
+     */
+    boolean test(Object userValues, Object matches);
+
+    /**
+     * Links the call site of a generated class to the predicate its class loader was created with. The call site is
+     * constant, so the JIT compiler inlines the predicate, and the operands bound into it, into the generated class.
+     *
+     * @param caller lookup of the generated class
+     * @param name   name of the call site, unused
+     * @param type   type of the call site, {@code boolean (Object, Object)}
+     * @return constant call site
+     * @throws IllegalArgumentException if the caller wasn't generated by {@link RulePredicates}
+     */
+    static CallSite bootstrap(MethodHandles.Lookup caller, String name, MethodType type) {
+        ClassLoader loader = caller.lookupClass().getClassLoader();
+        if (!(loader instanceof RulePredicates.Loader)) {
+            throw new IllegalArgumentException(caller.lookupClass().getName() + " is not a generated rule predicate");
+        }
+        return new ConstantCallSite(((RulePredicates.Loader) loader).getTarget().asType(type));
+    }
+}
@@ -0,0 +1,554 @@
+package io.unlaunch.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Generates the predicate of a {@link RulePlan}, see {@link PlanCompiler#PlanCompiler(boolean)}.
+ *
+ * <p>Each condition becomes a {@link MethodHandle} specialized for its operator and type, with its operand bound as a
+ * constant, so testing it doesn't go through {@link Operator#apply(Operand, UnlaunchValue, AttributeType)} and the
+ * type checks of the operators. The conditions are chained with {@link MethodHandles#guardWithTest}, which stops at
+ * the first condition that fails, like {@link RulePlan#matches}.</p>
+ *
+ * <p>The handle is then bound to a class generated for the rule, whose {@link RulePredicate#test} is a single
+ * {@code invokedynamic} instruction linked to a {@link java.lang.invoke.ConstantCallSite} by
+ * {@link RulePredicate#bootstrap}. The JIT compiler treats the target of a constant call site as a constant, so it
+ * inlines the whole tree into the generated method and folds the bound operands, which it can't do for a handle read
+ * from a field. Each class is defined by a {@link Loader} of its own that holds the handle, so it is unloaded once the
+ * plan is no longer used.</p>
+ *
+ * <p>Specialized handles call the same helpers as the operators, in the same order, so they throw the same errors.
+ * Conditions whose operand is invalid or whose operator isn't supported, and conditions tested by an
+ * {@link AttributeMatcher}, are bound to the interpreted path instead.</p>
+ *
+ * @author umermansoor
+ */
+final class RulePredicates {
+
+    /**
+     * Type of the handle of a rule: {@code boolean (SlotValues userValues, AttributeMatches matches)}.
+     */
+    static final MethodType PREDICATE_TYPE = MethodType.methodType(boolean.class, SlotValues.class,
+            AttributeMatches.class);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType VALUE_PREDICATE_TYPE = MethodType.methodType(boolean.class, UnlaunchValue.class);
+
+    private static final MethodHandle ALWAYS_TRUE = constant(true, PREDICATE_TYPE);
+    private static final MethodHandle ALWAYS_FALSE = constant(false, PREDICATE_TYPE);
+    private static final MethodHandle VALUE_FALSE = constant(false, VALUE_PREDICATE_TYPE);
+    private static final MethodHandle IS_NULL;
+    private static final MethodHandle NOT;
+    private static final MethodHandle USER_VALUE;
+    private static final MethodHandle MATCH;
+    private static final MethodHandle TEST;
+
+    // Internal name of the generated classes, each is defined by its own Loader so they all have the same name
+    private static final String CLASS_NAME = "io/unlaunch/engine/generated/GeneratedRulePredicate";
+    private static final byte[] CLASS_FILE = classFile();
+
+    static {
+        try {
+            IS_NULL = LOOKUP.findStatic(Objects.class, "isNull", MethodType.methodType(boolean.class, Object.class))
+                    .asType(VALUE_PREDICATE_TYPE);
+            NOT = LOOKUP.findStatic(RulePredicates.class, "not", MethodType.methodType(boolean.class, boolean.class));
+            USER_VALUE = LOOKUP.findVirtual(SlotValues.class, "get", MethodType.methodType(UnlaunchValue.class,
+                    int.class));
+            MATCH = LOOKUP.findVirtual(Condition.class, "match", VALUE_PREDICATE_TYPE);
+            TEST = LOOKUP.findVirtual(RulePlan.class, "test", MethodType.methodType(boolean.class, int.class,
+                    SlotValues.class, AttributeMatches.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private RulePredicates() {
+    }
+
+    /**
+     * Generates the predicate of a rule.
+     *
+     * @param rule  rule whose conditions are tested
+     * @param order positions of the conditions in the order they are tested
+     * @return instance of a class generated for the rule
+     * @throws IllegalStateException if the class can't be generated, e.g. if creating class loaders isn't allowed
+     */
+    static RulePredicate generate(RulePlan rule, int[] order) {
+        MethodHandle target = build(rule, order).asType(MethodType.methodType(boolean.class, Object.class,
+                Object.class));
+        try {
+            Loader loader = new Loader(target);
+            return (RulePredicate) loader.define(CLASS_FILE).getConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | SecurityException e) {
+            throw new IllegalStateException("unable to define the class of the predicate: " + e, e);
+        }
+    }
+
+    /**
+     * Builds the handle that tests the conditions of a rule.
+     *
+     * @param rule  rule whose conditions are tested
+     * @param order positions of the conditions in the order they are tested
+     * @return handle of type {@link #PREDICATE_TYPE}, true if the user satisfies every condition
+     */
+    static MethodHandle build(RulePlan rule, int[] order) {
+        MethodHandle predicate = ALWAYS_TRUE;
+        for (int i = order.length - 1; i >= 0; i--) {
+            predicate = MethodHandles.guardWithTest(condition(rule, order[i]), predicate, ALWAYS_FALSE);
+        }
+        return predicate;
+    }
+
+    private static MethodHandle condition(RulePlan rule, int i) {
+        if (rule.hasMatcher(i)) {
+            return MethodHandles.insertArguments(TEST.bindTo(rule), 0, i);
+        }
+
+        // A user without the attribute doesn't satisfy the condition, see Condition#match
+        MethodHandle predicate = MethodHandles.guardWithTest(IS_NULL, VALUE_FALSE,
+                valuePredicate(rule.getCondition(i)));
+        predicate = MethodHandles.filterArguments(predicate, 0,
+                MethodHandles.insertArguments(USER_VALUE, 1, rule.getSlot(i)));
+        return MethodHandles.dropArguments(predicate, 1, AttributeMatches.class);
+    }
+
+    /**
+     * Returns a handle of type {@code boolean (UnlaunchValue userValue)} that tests a non null value the way the
+     * condition's operator does.
+     */
+    private static MethodHandle valuePredicate(Condition condition) {
+        if (condition.getOperator() == null || condition.getOperand().getError() != null) {
+            return interpreted(condition);
+        }
+
+        MethodHandle versionPredicate = versionPredicate(condition);
+        if (versionPredicate != null) {
+            return versionPredicate;
+        }
+
+        Operand operand = condition.getOperand();
+        boolean isDate = condition.getType() == AttributeType.DATE || condition.getType() == AttributeType.DATE_TIME;
+
+        switch (condition.getOperator()) {
+            case EQUALS:
+                return equalsPredicate(condition);
+            case NOT_EQUALS:
+                return not(equalsPredicate(condition));
+            case GREATER_THAN:
+                return isDate ? dateComparison(condition, "greaterThan")
+                        : numberComparison(condition, "greaterThanNumber");
+            case GREATER_THAN_OR_EQUALS:
+                return not(isDate ? dateComparison(condition, "lessThan")
+                        : numberComparison(condition, "lessThanNumber"));
+            case LESS_THAN:
+                return isDate ? dateComparison(condition, "lessThan")
+                        : numberComparison(condition, "lessThanNumber");
+            case LESS_THAN_OR_EQUALS:
+                return not(isDate ? dateComparison(condition, "greaterThan")
+                        : numberComparison(condition, "greaterThanNumber"));
+            case IS_ONE_OF:
+                return bind("isOneOf", Set.class, operand.getValues());
+            case STARTS_WITH:
+                return stringPredicate(condition, "startsWith");
+            case NOT_STARTS_WITH:
+                return not(stringPredicate(condition, "startsWith"));
+            case ENDS_WITH:
+                return stringPredicate(condition, "endsWith");
+            case NOT_ENDS_WITH:
+                return not(stringPredicate(condition, "endsWith"));
+            case CONTAINS:
+                return stringPredicate(condition, "contains");
+            case NOT_CONTAINS:
+                return not(stringPredicate(condition, "contains"));
+            case IS_PART_OF:
+                return setPredicate(condition, "partOf");
+            case IS_NOT_PART_OF:
+                return not(setPredicate(condition, "partOf"));
+            case HAS_ANY_OF:
+                return setPredicate(condition, "hasAny");
+            case DOES_NOT_HAVE_ANY_OF:
+                return not(setPredicate(condition, "hasAny"));
+            case HAS_ALL_OF:
+                return setPredicate(condition, "allOf");
+            case DOES_NOT_HAVE_ALL_OF:
+                return not(setPredicate(condition, "allOf"));
+            case MATCHES:
+                return patternPredicate(condition, true);
+            case NOT_MATCHES:
+                return patternPredicate(condition, false);
+            default:
+                return interpreted(condition);
+        }
+    }
+
+    /**
+     * Returns the predicate of a semantic version operator, or of a comparison of {@link AttributeType#SEMVER}
+     * values.
+     *
+     * @return handle, or null if the condition doesn't compare versions
+     */
+    private static MethodHandle versionPredicate(Condition condition) {
+        boolean isVersion = condition.getType() == AttributeType.SEMVER;
+        switch (condition.getOperator()) {
+            case SEMVER_EQUALS:
+                return versionComparison(condition, "versionEquals", false);
+            case SEMVER_GREATER_THAN:
+                return versionComparison(condition, "versionGreaterThan", false);
+            case SEMVER_GREATER_THAN_OR_EQUALS:
+                return versionComparison(condition, "versionLessThan", true);
+            case SEMVER_LESS_THAN:
+                return versionComparison(condition, "versionLessThan", false);
+            case SEMVER_LESS_THAN_OR_EQUALS:
+                return versionComparison(condition, "versionGreaterThan", true);
+            case EQUALS:
+                return isVersion ? versionComparison(condition, "versionEquals", false) : null;
+            case NOT_EQUALS:
+                return isVersion ? versionComparison(condition, "versionEquals", true) : null;
+            case GREATER_THAN:
+                return isVersion ? versionComparison(condition, "versionGreaterThan", false) : null;
+            case GREATER_THAN_OR_EQUALS:
+                return isVersion ? versionComparison(condition, "versionLessThan", true) : null;
+            case LESS_THAN:
+                return isVersion ? versionComparison(condition, "versionLessThan", false) : null;
+            case LESS_THAN_OR_EQUALS:
+                return isVersion ? versionComparison(condition, "versionGreaterThan", true) : null;
+            default:
+                return null;
+        }
+    }
+
+    private static MethodHandle versionComparison(Condition condition, String name, boolean negate) {
+        Operand operand = condition.getOperand();
+        if (!operand.isVersion()) {
+            return interpreted(condition);
+        }
+        MethodHandle predicate = bind(name, SemanticVersion.class, operand.getVersion());
+        return negate ? not(predicate) : predicate;
+    }
+
+    private static MethodHandle equalsPredicate(Condition condition) {
+        Operand operand = condition.getOperand();
+        AttributeType type = condition.getType();
+
+        if (type == AttributeType.DATE) {
+            return operand.isEpochMillis() ? bind("equalsEpochDay", long.class, operand.getEpochDay())
+                    : interpreted(condition);
+        } else if (type == AttributeType.SET) {
+            return bind("equalsSet", Set.class, operand.getValues());
+        } else if (type == AttributeType.NUMBER) {
+            return operand.isNumber() ? bind("equalsNumber", double.class, operand.getNumber())
+                    : interpreted(condition);
+        } else if (type == AttributeType.BOOLEAN) {
+            return find("isTrue", VALUE_PREDICATE_TYPE);
+        }
+        return bind("equalsString", String.class, operand.getValue());
+    }
+
+    private static MethodHandle numberComparison(Condition condition, String name) {
+        Operand operand = condition.getOperand();
+        return operand.isNumber() ? bind(name, double.class, operand.getNumber()) : interpreted(condition);
+    }
+
+    private static MethodHandle dateComparison(Condition condition, String name) {
+        Operand operand = condition.getOperand();
+        if (!operand.isEpochMillis()) {
+            return interpreted(condition);
+        } else if (condition.getType() == AttributeType.DATE) {
+            return bind(name + "EpochDay", long.class, operand.getEpochDay());
+        }
+        return bind(name + "EpochMillis", long.class, operand.getEpochMillis());
+    }
+
+    private static MethodHandle stringPredicate(Condition condition, String name) {
+        String value = condition.getValue();
+        return value == null ? interpreted(condition) : bind(name, String.class, value);
+    }
+
+    /**
+     * Binds the condition's operand to the set helper of {@link Operator}.
+     */
+    private static MethodHandle setPredicate(Condition condition, String name) {
+        try {
+            MethodHandle predicate = LOOKUP.findStatic(Operator.class, name,
+                    MethodType.methodType(boolean.class, Operand.class, UnlaunchValue.class));
+            return MethodHandles.insertArguments(predicate, 0, condition.getOperand());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("operator helper " + name + " is missing", e);
+        }
+    }
+
+    /**
+     * Binds the condition's operand and whether it is expected to match to the pattern helper of {@link Operator}.
+     */
+    private static MethodHandle patternPredicate(Condition condition, boolean expected) {
+        try {
+            MethodHandle predicate = LOOKUP.findStatic(Operator.class, "matches",
+                    MethodType.methodType(boolean.class, Operand.class, UnlaunchValue.class, boolean.class));
+            return MethodHandles.insertArguments(MethodHandles.insertArguments(predicate, 2, expected), 0,
+                    condition.getOperand());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("operator helper matches is missing", e);
+        }
+    }
+
+    /**
+     * Binds the condition to {@link Condition#match(UnlaunchValue)}, which tests it through its operator.
+     */
+    private static MethodHandle interpreted(Condition condition) {
+        return MATCH.bindTo(condition);
+    }
+
+    private static MethodHandle bind(String name, Class<?> operandType, Object operand) {
+        MethodHandle predicate = find(name, MethodType.methodType(boolean.class, operandType, UnlaunchValue.class));
+        return MethodHandles.insertArguments(predicate, 0, operand);
+    }
+
+    private static MethodHandle find(String name, MethodType type) {
+        try {
+            return LOOKUP.findStatic(RulePredicates.class, name, type);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("predicate " + name + " is missing", e);
+        }
+    }
+
+    private static MethodHandle not(MethodHandle predicate) {
+        return MethodHandles.filterReturnValue(predicate, NOT);
+    }
+
+    private static MethodHandle constant(boolean value, MethodType type) {
+        return MethodHandles.dropArguments(MethodHandles.constant(boolean.class, value), 0, type.parameterList());
+    }
+
+    private static boolean not(boolean value) {
+        return !value;
+    }
+
+    // Specialized forms of the operators, see Operator
+
+    private static boolean equalsString(String value, UnlaunchValue userValue) {
+        return userValue.toString().equals(value);
+    }
+
+    private static boolean equalsNumber(double value, UnlaunchValue userValue) {
+        return Operator.getUserNumber(userValue) == value;
+    }
+
+    private static boolean equalsEpochDay(long epochDay, UnlaunchValue userValue) {
+        return Operator.getUserEpochDay(userValue) == epochDay;
+    }
+
+    private static boolean equalsSet(Set<String> values, UnlaunchValue userValue) {
+        return values.equals(Operator.getUserSet(userValue));
+    }
+
+    private static boolean isTrue(UnlaunchValue userValue) {
+        return "true".equalsIgnoreCase(userValue.toString());
+    }
+
+    private static boolean greaterThanNumber(double value, UnlaunchValue userValue) {
+        if (userValue instanceof UnlaunchStringValue || userValue instanceof UnlaunchBooleanValue) {
+            return false;
+        }
+        return Operator.getUserNumber(userValue) > value;
+    }
+
+    private static boolean lessThanNumber(double value, UnlaunchValue userValue) {
+        if (userValue instanceof UnlaunchStringValue || userValue instanceof UnlaunchBooleanValue) {
+            return false;
+        }
+        return Operator.getUserNumber(userValue) < value;
+    }
+
+    private static boolean greaterThanEpochDay(long epochDay, UnlaunchValue userValue) {
+        if (userValue instanceof UnlaunchStringValue || userValue instanceof UnlaunchBooleanValue) {
+            return false;
+        }
+        return Operator.getUserEpochDay(userValue) > epochDay;
+    }
+
+    private static boolean lessThanEpochDay(long epochDay, UnlaunchValue userValue) {
+        if (userValue instanceof UnlaunchStringValue || userValue instanceof UnlaunchBooleanValue) {
+            return false;
+        }
+        return Operator.getUserEpochDay(userValue) < epochDay;
+    }
+
+    private static boolean greaterThanEpochMillis(long epochMillis, UnlaunchValue userValue) {
+        if (userValue instanceof UnlaunchStringValue || userValue instanceof UnlaunchBooleanValue) {
+            return false;
+        }
+        return Operator.compareDateTime(Operator.getUserDateTime(userValue), epochMillis) > 0;
+    }
+
+    private static boolean lessThanEpochMillis(long epochMillis, UnlaunchValue userValue) {
+        if (userValue instanceof UnlaunchStringValue || userValue instanceof UnlaunchBooleanValue) {
+            return false;
+        }
+        return Operator.compareDateTime(Operator.getUserDateTime(userValue), epochMillis) < 0;
+    }
+
+    private static boolean versionEquals(SemanticVersion version, UnlaunchValue userValue) {
+        return Operator.getUserVersion(userValue).compareTo(version) == 0;
+    }
+
+    private static boolean versionGreaterThan(SemanticVersion version, UnlaunchValue userValue) {
+        return Operator.getUserVersion(userValue).compareTo(version) > 0;
+    }
+
+    private static boolean versionLessThan(SemanticVersion version, UnlaunchValue userValue) {
+        return Operator.getUserVersion(userValue).compareTo(version) < 0;
+    }
+
+    private static boolean isOneOf(Set<String> values, UnlaunchValue userValue) {
+        return values.contains(userValue.toString());
+    }
+
+    private static boolean startsWith(String value, UnlaunchValue userValue) {
+        return userValue instanceof UnlaunchStringValue && userValue.toString().startsWith(value);
+    }
+
+    private static boolean endsWith(String value, UnlaunchValue userValue) {
+        return userValue instanceof UnlaunchStringValue && userValue.toString().endsWith(value);
+    }
+
+    private static boolean contains(String value, UnlaunchValue userValue) {
+        return userValue instanceof UnlaunchStringValue && userValue.toString().contains(value);
+    }
+
+    /**
+     * Returns the class file of a generated predicate. It is the same for every rule, only the handle that
+     * {@link RulePredicate#bootstrap} links its call site to differs:
+     *
+     * <pre>
+     * public final class GeneratedRulePredicate implements RulePredicate {
+     *     public boolean test(Object userValues, Object matches) {
+     *         return invokedynamic test(userValues, matches) [RulePredicate.bootstrap];
+     *     }
+     * }
+     * </pre>
+     *
+     * The method has no branches, so the class file needs no stack map frames.
+     */
+    private static byte[] classFile() {
+        String bootstrapType = MethodType.methodType(CallSite.class, MethodHandles.Lookup.class, String.class,
+                MethodType.class).toMethodDescriptorString();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(52);
+
+            // Constant pool, the index of each entry is given in its comment
+            out.writeShort(22);
+            utf8(out, CLASS_NAME);                                          // 1
+            reference(out, 7, 1);                                           // 2: this class
+            utf8(out, "java/lang/Object");                                  // 3
+            reference(out, 7, 3);                                           // 4: super class
+            utf8(out, RulePredicate.class.getName().replace('.', '/'));     // 5
+            reference(out, 7, 5);                                           // 6: interface
+            utf8(out, "<init>");                                            // 7
+            utf8(out, "()V");                                               // 8
+            reference(out, 12, 7, 8);                                       // 9
+            reference(out, 10, 4, 9);                                       // 10: Object.<init>
+            utf8(out, "test");                                              // 11
+            utf8(out, "(Ljava/lang/Object;Ljava/lang/Object;)Z");           // 12
+            utf8(out, "bootstrap");                                         // 13
+            utf8(out, bootstrapType);                                       // 14
+            reference(out, 12, 13, 14);                                     // 15
+            reference(out, 11, 6, 15);                                      // 16: RulePredicate.bootstrap
+            out.writeByte(15);                                              // 17: REF_invokeStatic #16
+            out.writeByte(6);
+            out.writeShort(16);
+            reference(out, 12, 11, 12);                                     // 18
+            reference(out, 18, 0, 18);                                      // 19: invokedynamic, bootstrap 0
+            utf8(out, "Code");                                              // 20
+            utf8(out, "BootstrapMethods");                                  // 21
+
+            // public final, super
+            out.writeShort(0x0031);
+            out.writeShort(2);
+            out.writeShort(4);
+            out.writeShort(1);
+            out.writeShort(6);
+            out.writeShort(0);
+
+            out.writeShort(2);
+            // public GeneratedRulePredicate(): aload_0, invokespecial #10, return
+            method(out, 0x0001, 7, 8, 1, 1, new byte[]{0x2a, (byte) 0xb7, 0, 10, (byte) 0xb1});
+            // public final boolean test(Object, Object): aload_1, aload_2, invokedynamic #19, ireturn
+            method(out, 0x0011, 11, 12, 2, 3, new byte[]{0x2b, 0x2c, (byte) 0xba, 0, 19, 0, 0, (byte) 0xac});
+
+            // BootstrapMethods: RulePredicate.bootstrap (#17) without static arguments
+            out.writeShort(1);
+            out.writeShort(21);
+            out.writeInt(6);
+            out.writeShort(1);
+            out.writeShort(17);
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void utf8(DataOutputStream out, String value) throws IOException {
+        out.writeByte(1);
+        out.writeUTF(value);
+    }
+
+    private static void reference(DataOutputStream out, int tag, int... indexes) throws IOException {
+        out.writeByte(tag);
+        for (int index : indexes) {
+            out.writeShort(index);
+        }
+    }
+
+    private static void method(DataOutputStream out, int access, int name, int descriptor, int maxStack,
+                               int maxLocals, byte[] code) throws IOException {
+        out.writeShort(access);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+        out.writeShort(20);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0);
+        out.writeShort(0);
+    }
+
+    /**
+     * Defines the class of one rule's predicate and holds the handle its call site is linked to. The class is
+     * unloaded with its loader, once the predicate is no longer referenced.
+     */
+    static final class Loader extends ClassLoader {
+        private final MethodHandle target;
+
+        private Loader(MethodHandle target) {
+            super(RulePredicate.class.getClassLoader());
+            this.target = target;
+        }
+
+        /**
+         * Returns the handle of the rule, of type {@code boolean (Object userValues, Object matches)}.
+         */
+        MethodHandle getTarget() {
+            return target;
+        }
+
+        private Class<?> define(byte[] classFile) {
+            return defineClass(CLASS_NAME.replace('/', '.'), classFile, 0, classFile.length);
+        }
+    }
+}
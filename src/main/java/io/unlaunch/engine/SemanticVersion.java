@@ -0,0 +1,193 @@
+package io.unlaunch.engine;
+
+/**
+ * A version such as {@code 1.4.2} or {@code 2.0.0-beta.3+build.7}, ordered by the precedence rules of
+ * <a href="https://semver.org">Semantic Versioning 2.0.0</a>.
+ *
+ * <p>Parsing is lenient in the ways app and agent versions commonly differ from the specification: a leading
+ * {@code v} is ignored, missing minor and patch components are 0 (so {@code 1.2} equals {@code 1.2.0}) and numbers may
+ * have leading zeros. Build metadata is ignored when comparing.</p>
+ *
+ * <p>The major and minor components are packed into one long, so comparing released versions is two primitive
+ * comparisons.</p>
+ *
+ * <p>This class is immutable and hence thread-safe.</p>
+ *
+ * @author umermansoor
+ */
+final class SemanticVersion implements Comparable<SemanticVersion> {
+
+    private static final String[] NO_IDENTIFIERS = new String[0];
+
+    // Major in the high 32 bits, minor in the low 32 bits, both non negative
+    private final long majorMinor;
+    private final int patch;
+    private final String[] preRelease;
+
+    private SemanticVersion(int major, int minor, int patch, String[] preRelease) {
+        this.majorMinor = (long) major << 32 | minor;
+        this.patch = patch;
+        this.preRelease = preRelease;
+    }
+
+    /**
+     * Parses a version.
+     *
+     * @param value version, e.g. {@code 1.4.2}, {@code v2.1} or {@code 3.0.0-rc.1+20240101}
+     * @return version, or null if the value is not a version
+     */
+    static SemanticVersion parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+
+        int start = value.charAt(0) == 'v' || value.charAt(0) == 'V' ? 1 : 0;
+        int end = value.length();
+        int plus = value.indexOf('+', start);
+        if (plus >= 0) {
+            if (!isIdentifiers(value, plus + 1, end)) {
+                return null;
+            }
+            end = plus;
+        }
+
+        String[] preRelease = NO_IDENTIFIERS;
+        int hyphen = value.indexOf('-', start);
+        if (hyphen >= 0 && hyphen < end) {
+            if (!isIdentifiers(value, hyphen + 1, end)) {
+                return null;
+            }
+            preRelease = value.substring(hyphen + 1, end).split("\\.");
+            end = hyphen;
+        }
+
+        int[] core = new int[3];
+        int component = 0;
+        int from = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || value.charAt(i) == '.') {
+                if (component == core.length || i == from) {
+                    return null;
+                }
+                long number = 0;
+                for (int c = from; c < i; c++) {
+                    char digit = value.charAt(c);
+                    if (digit < '0' || digit > '9') {
+                        return null;
+                    }
+                    number = number * 10 + digit - '0';
+                    if (number > Integer.MAX_VALUE) {
+                        return null;
+                    }
+                }
+                core[component++] = (int) number;
+                from = i + 1;
+            }
+        }
+
+        return new SemanticVersion(core[0], core[1], core[2], preRelease);
+    }
+
+    /**
+     * Returns true if the range is a non empty, dot separated list of non empty identifiers of ASCII letters, digits
+     * and hyphens.
+     */
+    private static boolean isIdentifiers(String value, int from, int to) {
+        if (from >= to || value.charAt(from) == '.' || value.charAt(to - 1) == '.') {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            boolean valid = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                    || c == '-' || (c == '.' && value.charAt(i - 1) != '.');
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int compareTo(SemanticVersion other) {
+        if (majorMinor != other.majorMinor) {
+            return majorMinor < other.majorMinor ? -1 : 1;
+        }
+        if (patch != other.patch) {
+            return patch < other.patch ? -1 : 1;
+        }
+
+        // A pre-release has lower precedence than the release
+        if (preRelease.length == 0 || other.preRelease.length == 0) {
+            return preRelease.length == other.preRelease.length ? 0 : preRelease.length == 0 ? 1 : -1;
+        }
+
+        for (int i = 0; i < Math.min(preRelease.length, other.preRelease.length); i++) {
+            int result = compareIdentifiers(preRelease[i], other.preRelease[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(preRelease.length, other.preRelease.length);
+    }
+
+    /**
+     * Compares pre-release identifiers: numeric identifiers numerically, others in ASCII order, and numeric
+     * identifiers before the others.
+     */
+    private static int compareIdentifiers(String identifier, String other) {
+        boolean numeric = isNumeric(identifier);
+        boolean otherNumeric = isNumeric(other);
+        if (numeric && otherNumeric) {
+            String digits = stripLeadingZeros(identifier);
+            String otherDigits = stripLeadingZeros(other);
+            if (digits.length() != otherDigits.length()) {
+                return digits.length() < otherDigits.length() ? -1 : 1;
+            }
+            return Integer.signum(digits.compareTo(otherDigits));
+        } else if (numeric != otherNumeric) {
+            return numeric ? -1 : 1;
+        }
+        return Integer.signum(identifier.compareTo(other));
+    }
+
+    private static boolean isNumeric(String identifier) {
+        for (int i = 0; i < identifier.length(); i++) {
+            if (identifier.charAt(i) < '0' || identifier.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String stripLeadingZeros(String digits) {
+        int i = 0;
+        while (i < digits.length() - 1 && digits.charAt(i) == '0') {
+            i++;
+        }
+        return digits.substring(i);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof SemanticVersion && compareTo((SemanticVersion) o) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = Long.hashCode(majorMinor) * 31 + patch;
+        for (String identifier : preRelease) {
+            hash = hash * 31 + (isNumeric(identifier) ? stripLeadingZeros(identifier) : identifier).hashCode();
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder version = new StringBuilder()
+                .append(majorMinor >>> 32).append('.').append(majorMinor & 0xFFFFFFFFL).append('.').append(patch);
+        if (preRelease.length > 0) {
+            version.append('-').append(String.join(".", preRelease));
+        }
+        return version.toString();
+    }
+}
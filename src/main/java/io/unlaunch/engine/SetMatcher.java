@@ -0,0 +1,154 @@
+package io.unlaunch.engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tests the set conditions of a flag on one attribute ({@link Operator#HAS_ANY_OF}, {@link Operator#HAS_ALL_OF},
+ * {@link Operator#IS_PART_OF}, their negations and {@link Operator#EQUALS} / {@link Operator#NOT_EQUALS} of a
+ * {@link AttributeType#SET}) with bit sets.
+ *
+ * <p>Every member mentioned by the conditions gets an id, and each operand is encoded as the bit set of its members.
+ * The user's set is projected onto the same ids, with one extra bit that is set if the user's set has a member no
+ * condition mentions. No operand has that bit, so it makes the user's set neither part of nor equal to any
+ * operand.</p>
+ *
+ * <p>This class is immutable and hence thread-safe.</p>
+ *
+ * @author umermansoor
+ */
+final class SetMatcher extends AttributeMatcher {
+
+    private final Map<String, Integer> memberIds;
+    // Id of the bit set for members that are not in the dictionary
+    private final int unknownMember;
+
+    private SetMatcher(int slot, Map<String, Integer> memberIds) {
+        super(slot);
+        this.memberIds = memberIds;
+        this.unknownMember = memberIds.size();
+    }
+
+    /**
+     * Builds a matcher for every attribute that is tested by set conditions of the rules.
+     *
+     * @param rules      targeting rules of a flag
+     * @param dictionary slots of the attributes referenced by the conditions
+     * @return matchers
+     */
+    static List<SetMatcher> buildAll(List<Rule> rules, AttributeDictionary dictionary) {
+        Map<Integer, Set<String>> membersBySlot = new LinkedHashMap<>();
+        for (Rule rule : rules) {
+            for (Condition condition : rule.getConditions()) {
+                if (isSetCondition(condition)) {
+                    membersBySlot.computeIfAbsent(dictionary.getSlot(condition.getAttribute()),
+                            slot -> new LinkedHashSet<>()).addAll(condition.getOperand().getValues());
+                }
+            }
+        }
+
+        List<SetMatcher> matchers = new ArrayList<>();
+        for (Map.Entry<Integer, Set<String>> entry : membersBySlot.entrySet()) {
+            Map<String, Integer> memberIds = new HashMap<>(entry.getValue().size() * 2);
+            for (String member : entry.getValue()) {
+                memberIds.put(member, memberIds.size());
+            }
+            matchers.add(new SetMatcher(entry.getKey(), memberIds));
+        }
+        return matchers;
+    }
+
+    private static boolean isSetCondition(Condition condition) {
+        if (condition.getOperator() == null) {
+            return false;
+        }
+
+        switch (condition.getOperator()) {
+            case HAS_ANY_OF:
+            case DOES_NOT_HAVE_ANY_OF:
+            case HAS_ALL_OF:
+            case DOES_NOT_HAVE_ALL_OF:
+            case IS_PART_OF:
+            case IS_NOT_PART_OF:
+                return true;
+            case EQUALS:
+            case NOT_EQUALS:
+                return condition.getType() == AttributeType.SET;
+            default:
+                return false;
+        }
+    }
+
+    private int words() {
+        return (unknownMember + 1 + 63) >>> 6;
+    }
+
+    @Override
+    long[] encode(Condition condition) {
+        if (!isSetCondition(condition)) {
+            return null;
+        }
+
+        long[] members = new long[words()];
+        for (String member : condition.getOperand().getValues()) {
+            Integer id = memberIds.get(member);
+            if (id == null) {
+                return null;
+            }
+            members[id >>> 6] |= 1L << id;
+        }
+        return members;
+    }
+
+    @Override
+    boolean accepts(UnlaunchValue userValue) {
+        // Conditions on other values are rejected or reported as an error by the operators
+        return userValue instanceof UnlaunchSetValue;
+    }
+
+    @Override
+    long[] project(UnlaunchValue userValue) {
+        long[] members = new long[words()];
+        for (Object member : ((UnlaunchSetValue) userValue).get()) {
+            Integer id = member instanceof String ? memberIds.get(member) : null;
+            int bit = id == null ? unknownMember : id;
+            members[bit >>> 6] |= 1L << bit;
+        }
+        return members;
+    }
+
+    @Override
+    boolean test(Operator operator, long[] operand, long[] userValue) {
+        switch (operator) {
+            case HAS_ANY_OF:
+                return intersects(operand, userValue);
+            case DOES_NOT_HAVE_ANY_OF:
+                return !intersects(operand, userValue);
+            case HAS_ALL_OF:
+                return isSubset(operand, userValue);
+            case DOES_NOT_HAVE_ALL_OF:
+                return !isSubset(operand, userValue);
+            case IS_PART_OF:
+                return isSubset(userValue, operand);
+            case IS_NOT_PART_OF:
+                return !isSubset(userValue, operand);
+            case EQUALS:
+                return isSubset(userValue, operand) && isSubset(operand, userValue);
+            default:
+                return !(isSubset(userValue, operand) && isSubset(operand, userValue));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SetMatcher{" +
+                "slot=" + getSlot() +
+                ", members=" + memberIds.size() +
+                '}';
+    }
+}
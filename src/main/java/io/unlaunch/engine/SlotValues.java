@@ -0,0 +1,59 @@
+package io.unlaunch.engine;
+
+import java.util.Arrays;
+
+/**
+ * The values of a user's attributes in the slots of an {@link AttributeDictionary}. A slot is looked up the first
+ * time a condition reads it, so evaluating a flag only looks up the attributes its own conditions reference, however
+ * many attributes the other flags compiled with it reference.
+ *
+ * <p>This class is thread-safe. Threads that evaluate the same user at the same time may look up a slot more than
+ * once, but they store the same value.</p>
+ *
+ * @author umermansoor
+ */
+final class SlotValues {
+
+    // Marks a slot that hasn't been looked up yet, attributes the user doesn't have are null
+    private static final Object UNREAD = new Object();
+
+    private final UnlaunchUser user;
+    private final AttributeDictionary dictionary;
+    private final int version;
+    private final Object[] values;
+
+    /**
+     * @param user       user whose attributes are read
+     * @param dictionary slots of the attributes
+     * @param version    version of the user's attributes the slots are valid for
+     */
+    SlotValues(UnlaunchUser user, AttributeDictionary dictionary, int version) {
+        this.user = user;
+        this.dictionary = dictionary;
+        this.version = version;
+        this.values = new Object[dictionary.size()];
+        Arrays.fill(values, UNREAD);
+    }
+
+    /**
+     * Returns the user's value of the attribute in the slot.
+     *
+     * @param slot slot of the attribute
+     * @return value, or null if the user doesn't have the attribute
+     */
+    UnlaunchValue get(int slot) {
+        Object value = values[slot];
+        if (value == UNREAD) {
+            value = user.getAttributeValue(dictionary.getName(slot));
+            values[slot] = value;
+        }
+        return (UnlaunchValue) value;
+    }
+
+    /**
+     * Returns true if these slots are valid for the dictionary and the version of the user's attributes.
+     */
+    boolean isFor(AttributeDictionary dictionary, int version) {
+        return this.dictionary == dictionary && this.version == version;
+    }
+}
@@ -0,0 +1,337 @@
+package io.unlaunch.engine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Matches a user's string value against every {@link Operator#STARTS_WITH}, {@link Operator#ENDS_WITH} and
+ * {@link Operator#CONTAINS} condition (and their negations) of a flag on one attribute in a single pass, instead of
+ * one {@link String} scan per condition. Prefixes are matched with a trie, suffixes with a trie of the reversed
+ * patterns and substrings with an Aho-Corasick automaton.
+ *
+ * <p>Each distinct pattern gets an id. The user's value is projected into the bit set of the ids of the patterns found
+ * in it, and a condition is encoded as the bit of its pattern.</p>
+ *
+ * <p>This class is immutable and hence thread-safe.</p>
+ *
+ * @author umermansoor
+ */
+final class StringMatcher extends AttributeMatcher {
+
+    /**
+     * Below this number of patterns on an attribute, scanning the value once per condition is as cheap.
+     */
+    static final int MIN_PATTERNS = 4;
+
+    // Keyed by kind (operator without negation) and pattern
+    private final Map<String, Integer> patternIds;
+    private final Automaton prefixes;
+    private final Automaton suffixes;
+    private final Automaton substrings;
+
+    private StringMatcher(int slot, Map<String, Integer> patternIds, Automaton prefixes, Automaton suffixes,
+                          Automaton substrings) {
+        super(slot);
+        this.patternIds = patternIds;
+        this.prefixes = prefixes;
+        this.suffixes = suffixes;
+        this.substrings = substrings;
+    }
+
+    /**
+     * Builds a matcher for every attribute that is tested by enough string conditions of the rules.
+     *
+     * @param rules      targeting rules of a flag
+     * @param dictionary slots of the attributes referenced by the conditions
+     * @return matchers
+     */
+    static List<StringMatcher> buildAll(List<Rule> rules, AttributeDictionary dictionary) {
+        Map<Integer, Set<String>> patternsBySlot = new LinkedHashMap<>();
+        for (Rule rule : rules) {
+            for (Condition condition : rule.getConditions()) {
+                String key = patternKey(condition);
+                if (key != null) {
+                    patternsBySlot.computeIfAbsent(dictionary.getSlot(condition.getAttribute()),
+                            slot -> new LinkedHashSet<>()).add(key);
+                }
+            }
+        }
+
+        List<StringMatcher> matchers = new ArrayList<>();
+        for (Map.Entry<Integer, Set<String>> entry : patternsBySlot.entrySet()) {
+            if (entry.getValue().size() >= MIN_PATTERNS) {
+                matchers.add(build(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        return matchers;
+    }
+
+    private static StringMatcher build(int slot, Set<String> patternKeys) {
+        Map<String, Integer> patternIds = new HashMap<>(patternKeys.size() * 2);
+        Automaton.Builder prefixes = new Automaton.Builder();
+        Automaton.Builder suffixes = new Automaton.Builder();
+        Automaton.Builder substrings = new Automaton.Builder();
+
+        for (String key : patternKeys) {
+            int id = patternIds.size();
+            patternIds.put(key, id);
+
+            String pattern = key.substring(key.indexOf(':') + 1);
+            if (key.startsWith(Operator.STARTS_WITH.getKey() + ":")) {
+                prefixes.add(pattern, id);
+            } else if (key.startsWith(Operator.ENDS_WITH.getKey() + ":")) {
+                suffixes.add(new StringBuilder(pattern).reverse().toString(), id);
+            } else {
+                substrings.add(pattern, id);
+            }
+        }
+
+        return new StringMatcher(slot, patternIds, prefixes.build(false), suffixes.build(false),
+                substrings.build(true));
+    }
+
+    /**
+     * Returns the key of the pattern tested by the condition, shared by an operator and its negation.
+     *
+     * @return key, or null if the condition is not a string condition this class matches
+     */
+    private static String patternKey(Condition condition) {
+        if (condition.getValue() == null || condition.getOperator() == null) {
+            // Reported by the operator
+            return null;
+        }
+
+        switch (condition.getOperator()) {
+            case STARTS_WITH:
+            case NOT_STARTS_WITH:
+                return Operator.STARTS_WITH.getKey() + ":" + condition.getValue();
+            case ENDS_WITH:
+            case NOT_ENDS_WITH:
+                return Operator.ENDS_WITH.getKey() + ":" + condition.getValue();
+            case CONTAINS:
+            case NOT_CONTAINS:
+                return Operator.CONTAINS.getKey() + ":" + condition.getValue();
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    long[] encode(Condition condition) {
+        String key = patternKey(condition);
+        Integer id = key == null ? null : patternIds.get(key);
+        if (id == null) {
+            return null;
+        }
+
+        long[] pattern = new long[words()];
+        pattern[id >>> 6] = 1L << id;
+        return pattern;
+    }
+
+    @Override
+    boolean accepts(UnlaunchValue userValue) {
+        // Like the operators, only string values can start with, end with or contain a pattern
+        return userValue instanceof UnlaunchStringValue;
+    }
+
+    @Override
+    boolean test(Operator operator, long[] operand, long[] userValue) {
+        boolean found = intersects(operand, userValue);
+        switch (operator) {
+            case NOT_STARTS_WITH:
+            case NOT_ENDS_WITH:
+            case NOT_CONTAINS:
+                return !found;
+            default:
+                return found;
+        }
+    }
+
+    private int words() {
+        return (patternIds.size() + 63) >>> 6;
+    }
+
+    /**
+     * Finds every pattern in the value.
+     *
+     * @param userValue user's value of the attribute
+     * @return bit set of the ids of the patterns found
+     */
+    @Override
+    long[] project(UnlaunchValue userValue) {
+        String value = userValue.toString();
+        long[] found = new long[words()];
+        int length = value.length();
+
+        int node = 0;
+        prefixes.report(node, found);
+        for (int i = 0; i < length && (node = prefixes.next(node, value.charAt(i))) >= 0; i++) {
+            prefixes.report(node, found);
+        }
+
+        node = 0;
+        suffixes.report(node, found);
+        for (int i = length - 1; i >= 0 && (node = suffixes.next(node, value.charAt(i))) >= 0; i--) {
+            suffixes.report(node, found);
+        }
+
+        node = 0;
+        substrings.report(node, found);
+        for (int i = 0; i < length; i++) {
+            node = substrings.step(node, value.charAt(i));
+            substrings.report(node, found);
+        }
+
+        return found;
+    }
+
+    @Override
+    public String toString() {
+        return "StringMatcher{" +
+                "slot=" + getSlot() +
+                ", patterns=" + patternIds.size() +
+                '}';
+    }
+
+    /**
+     * A trie, optionally with the failure links of an Aho-Corasick automaton. Node 0 is the root.
+     */
+    private static final class Automaton {
+        private static final int[] NO_OUTPUTS = new int[0];
+
+        // Sorted edge labels of each node and the node each edge leads to
+        private final char[][] labels;
+        private final int[][] targets;
+        private final int[] failures;
+        // Ids of the patterns that end at each node (with failure links, also at the nodes of its failure chain)
+        private final int[][] outputs;
+
+        private Automaton(char[][] labels, int[][] targets, int[] failures, int[][] outputs) {
+            this.labels = labels;
+            this.targets = targets;
+            this.failures = failures;
+            this.outputs = outputs;
+        }
+
+        /**
+         * Follows the edge labeled with the character.
+         *
+         * @return next node, or -1 if there is no such edge
+         */
+        int next(int node, char c) {
+            int i = Arrays.binarySearch(labels[node], c);
+            return i < 0 ? -1 : targets[node][i];
+        }
+
+        /**
+         * Advances the Aho-Corasick automaton by one character.
+         *
+         * @return node of the longest pattern prefix the text read so far ends with
+         */
+        int step(int node, char c) {
+            int next;
+            while ((next = next(node, c)) < 0 && node != 0) {
+                node = failures[node];
+            }
+            return next < 0 ? 0 : next;
+        }
+
+        void report(int node, long[] found) {
+            for (int id : outputs[node]) {
+                found[id >>> 6] |= 1L << id;
+            }
+        }
+
+        private static final class Builder {
+            private final List<TreeMap<Character, Integer>> edges = new ArrayList<>();
+            private final List<List<Integer>> outputs = new ArrayList<>();
+
+            Builder() {
+                addNode();
+            }
+
+            private int addNode() {
+                edges.add(new TreeMap<>());
+                outputs.add(new ArrayList<>());
+                return edges.size() - 1;
+            }
+
+            void add(String pattern, int id) {
+                int node = 0;
+                for (int i = 0; i < pattern.length(); i++) {
+                    Integer next = edges.get(node).get(pattern.charAt(i));
+                    if (next == null) {
+                        next = addNode();
+                        edges.get(node).put(pattern.charAt(i), next);
+                    }
+                    node = next;
+                }
+                outputs.get(node).add(id);
+            }
+
+            Automaton build(boolean withFailureLinks) {
+                int size = edges.size();
+                char[][] labels = new char[size][];
+                int[][] targets = new int[size][];
+                for (int node = 0; node < size; node++) {
+                    labels[node] = new char[edges.get(node).size()];
+                    targets[node] = new int[labels[node].length];
+                    int i = 0;
+                    for (Map.Entry<Character, Integer> edge : edges.get(node).entrySet()) {
+                        labels[node][i] = edge.getKey();
+                        targets[node][i] = edge.getValue();
+                        i++;
+                    }
+                }
+
+                int[] failures = new int[size];
+                if (withFailureLinks) {
+                    // Breadth first, so the failure of a node is known before its children are visited
+                    Deque<Integer> queue = new ArrayDeque<>();
+                    queue.add(0);
+                    while (!queue.isEmpty()) {
+                        int node = queue.poll();
+                        for (Map.Entry<Character, Integer> edge : edges.get(node).entrySet()) {
+                            int child = edge.getValue();
+                            if (node != 0) {
+                                int failure = failures[node];
+                                int next;
+                                while ((next = nextNode(failure, edge.getKey())) < 0 && failure != 0) {
+                                    failure = failures[failure];
+                                }
+                                failures[child] = next < 0 ? 0 : next;
+                            }
+                            outputs.get(child).addAll(outputs.get(failures[child]));
+                            queue.add(child);
+                        }
+                    }
+                }
+
+                int[][] nodeOutputs = new int[size][];
+                for (int node = 0; node < size; node++) {
+                    List<Integer> ids = outputs.get(node);
+                    nodeOutputs[node] = ids.isEmpty() ? NO_OUTPUTS : ids.stream().mapToInt(Integer::intValue)
+                            .distinct().toArray();
+                }
+
+                return new Automaton(labels, targets, failures, nodeOutputs);
+            }
+
+            private int nextNode(int node, char c) {
+                Integer next = edges.get(node).get(c);
+                return next == null ? -1 : next;
+            }
+        }
+    }
+}
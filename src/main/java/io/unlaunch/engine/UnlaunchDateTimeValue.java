@@ -1,30 +1,58 @@
 package io.unlaunch.engine;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
 /**
  * This class is a wrapper class for Java LocalDateTime type.  
+ * The date time (in UTC) is converted to milliseconds and days since epoch once, when the attribute is set, so date
+ * and date time conditions compare primitives.
  *
  * @author jawad
  */
 final class UnlaunchDateTimeValue implements UnlaunchValue<LocalDateTime> {
 
     private final LocalDateTime dateTime;
+    private final long epochMillis;
+    private final boolean hasSubMillis;
+    private final long epochDay;
 
     public UnlaunchDateTimeValue(LocalDateTime dateTime) {
         this.dateTime = dateTime;
+        this.epochMillis = dateTime.toEpochSecond(ZoneOffset.UTC) * 1000 + dateTime.getNano() / 1_000_000;
+        this.hasSubMillis = dateTime.getNano() % 1_000_000 != 0;
+        this.epochDay = dateTime.toLocalDate().toEpochDay();
     }
-            
+
     @Override
     public LocalDateTime get() {
         return dateTime; 
     }
-    
+
+    /**
+     * Returns the date time as milliseconds since epoch, truncated to the millisecond.
+     *
+     * @return epoch millis
+     */
+    long getEpochMillis() {
+        return epochMillis;
+    }
+
+    /**
+     * Returns true if the date time has a fraction of a millisecond, which {@link #getEpochMillis()} leaves out.
+     *
+     * @return true if the nanoseconds are not a whole number of milliseconds
+     */
+    boolean hasSubMillis() {
+        return hasSubMillis;
+    }
+
+    long getEpochDay() {
+        return epochDay;
+    }
 
     @Override
     public String toString() {
         return dateTime.toString();
     }
-    
-    
 }
@@ -2,26 +2,58 @@ package io.unlaunch.engine;
 
 /**
  * This class is a wrapper class for Java Integer type.  
+ * The value is converted to a double once, when the attribute is set, so number conditions compare primitives
+ * instead of parsing the number on every evaluation.
  *
  * @author jawad
  */
 final class UnlaunchNumberValue implements UnlaunchValue<Number> {
 
     private final Number number;
+    private final String string;
+    private final boolean isDouble;
+    private final double doubleValue;
 
     public UnlaunchNumberValue(Number number) {
         this.number = number;
+        this.string = String.valueOf(number);
+
+        // Same conversion as parsing the string, e.g. 0.1f is 0.1 and not the float widened to a double
+        double parsed = 0;
+        boolean valid = false;
+        try {
+            parsed = Double.parseDouble(string);
+            valid = true;
+        } catch (NumberFormatException e) {
+            // Reported if a condition needs the number
+        }
+        this.doubleValue = parsed;
+        this.isDouble = valid;
     }
-    
+
     @Override
     public Number get() {
         return number;
     }
 
+    /**
+     * Returns true if the number can be compared as a double, in which case {@link #doubleValue()} doesn't throw.
+     *
+     * @return true if the number could be converted
+     */
+    boolean isDouble() {
+        return isDouble;
+    }
+
+    double doubleValue() {
+        if (!isDouble) {
+            throw new NumberFormatException("For input string: \"" + string + "\"");
+        }
+        return doubleValue;
+    }
+
     @Override
     public String toString() {
-        return String.valueOf(number);
+        return string;
     }
-    
-    
 }
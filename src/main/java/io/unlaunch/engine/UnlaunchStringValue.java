@@ -2,12 +2,20 @@ package io.unlaunch.engine;
 
 /**
  * This class is a wrapper class for Java String type.  
+ * The string is parsed as a {@link SemanticVersion} the first time a version condition reads it, so version
+ * conditions don't parse it on every evaluation and other attributes are never parsed.
  *
  * @author jawad
  */
 final class UnlaunchStringValue implements UnlaunchValue<String> {
 
+    // Marks a string that was parsed but is not a version
+    private static final Object NOT_A_VERSION = new Object();
+
     private final String string;
+    // The parsed SemanticVersion or NOT_A_VERSION, null until getVersion() is called. Threads that race may each
+    // parse the string, which is harmless since SemanticVersion is immutable.
+    private Object version;
 
     public UnlaunchStringValue(String string) {
         this.string = string;
@@ -18,6 +26,21 @@ final class UnlaunchStringValue implements UnlaunchValue<String> {
         return string;
     }
 
+    /**
+     * Returns the string as a version.
+     *
+     * @return version, or null if the string is not a version
+     */
+    SemanticVersion getVersion() {
+        Object parsed = version;
+        if (parsed == null) {
+            SemanticVersion semanticVersion = SemanticVersion.parse(string);
+            parsed = semanticVersion != null ? semanticVersion : NOT_A_VERSION;
+            version = parsed;
+        }
+        return parsed != NOT_A_VERSION ? (SemanticVersion) parsed : null;
+    }
+
     @Override
     public String toString() {
         return string;
@@ -5,6 +5,7 @@ import io.unlaunch.UnlaunchAttribute;
 import java.time.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 /**
@@ -16,6 +17,9 @@ public class UnlaunchUser {
     private final String id;
     private final boolean anon;
     private Map<String, UnlaunchValue> attributes = new ConcurrentHashMap<>();
+    // Incremented after every change to the attributes, invalidates the cached slot values
+    private final AtomicInteger attributesVersion = new AtomicInteger();
+    private volatile SlotValues slotValues;
 
     UnlaunchUser(String id) {
        this(id, false);
@@ -88,6 +92,7 @@ public class UnlaunchUser {
                 throw new IllegalArgumentException("Unsupported value type for key `" + k + "`.", e);
             }
         });
+        attributesVersion.incrementAndGet();
     }
 
     /**
@@ -99,6 +104,16 @@ public class UnlaunchUser {
         return new HashMap<>(attributes);
     }
 
+    /**
+     * Returns the value of the attribute without copying the attributes map. Used by the evaluation engine.
+     *
+     * @param key attribute key
+     * @return the value, or {@code null} if the user doesn't have the attribute
+     */
+    UnlaunchValue getAttributeValue(String key) {
+        return attributes.get(key);
+    }
+
     public void setAttributes(Map<String, Object> attributes) {
         resetAndSetAttributesMap(attributes);
     }
@@ -118,6 +133,7 @@ public class UnlaunchUser {
         UnlaunchValue v = getUnlaunchAttributeFromJavaObject(value);
 
         attributes.put(key, v);
+        attributesVersion.incrementAndGet();
     }
 
     /**
@@ -171,6 +187,27 @@ public class UnlaunchUser {
 
     public void clearAllAttributes() {
         this.attributes.clear();
+        attributesVersion.incrementAndGet();
+    }
+
+    /**
+     * Returns the values of the attributes in the dictionary, read by slot. Each slot is looked up the first time it
+     * is read, so attributes of the user that no condition reads are never looked up. The slots are cached until the
+     * attributes of the user change.
+     *
+     * @param dictionary attributes referenced by the compiled flags
+     * @return attribute values of the user, read by slot
+     */
+    SlotValues getSlotValues(AttributeDictionary dictionary) {
+        SlotValues cached = slotValues;
+        int version = attributesVersion.get();
+        if (cached != null && cached.isFor(dictionary, version)) {
+            return cached;
+        }
+
+        SlotValues values = new SlotValues(this, dictionary, version);
+        slotValues = values;
+        return values;
     }
 
     /**
@@ -0,0 +1,101 @@
+package io.unlaunch.engine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rule index for equality tests. Rules whose leading condition is an equality ({@link Operator#EQUALS} on a string)
+ * or a membership ({@link Operator#IS_ONE_OF}) test on the attribute are indexed by the values they accept. A user can
+ * only match those rules whose index entry contains their value.
+ *
+ * @author umermansoor
+ */
+final class ValueRuleIndex extends RuleIndex {
+
+    // Positions (in priority order) of the indexed rules that accept each value
+    private final Map<String, int[]> candidatesByValue;
+
+    private ValueRuleIndex(RulePlan[] rules, int slot, boolean[] indexed, Map<String, int[]> candidatesByValue) {
+        super(rules, slot, indexed);
+        this.candidatesByValue = candidatesByValue;
+    }
+
+    /**
+     * Builds an index on the attribute that leads the most indexable rules.
+     *
+     * @param rules rules of the flag in priority order
+     * @return index, or null if too few rules can be indexed for it to pay off
+     */
+    static ValueRuleIndex build(RulePlan[] rules) {
+        Map<Integer, Integer> indexableRulesBySlot = new HashMap<>();
+        int slot = -1;
+        int indexableRules = 0;
+        for (RulePlan rule : rules) {
+            if (dispatchValues(rule) != null) {
+                int count = indexableRulesBySlot.merge(rule.getLeadingSlot(), 1, Integer::sum);
+                if (count > indexableRules) {
+                    indexableRules = count;
+                    slot = rule.getLeadingSlot();
+                }
+            }
+        }
+
+        if (indexableRules < MIN_INDEXED_RULES) {
+            return null;
+        }
+
+        Map<String, List<Integer>> positionsByValue = new HashMap<>();
+        boolean[] indexed = new boolean[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            Collection<String> values = dispatchValues(rules[i]);
+            if (values != null && rules[i].getLeadingSlot() == slot) {
+                indexed[i] = true;
+                for (String value : values) {
+                    positionsByValue.computeIfAbsent(value, v -> new ArrayList<>()).add(i);
+                }
+            }
+        }
+
+        Map<String, int[]> candidatesByValue = new HashMap<>(positionsByValue.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : positionsByValue.entrySet()) {
+            candidatesByValue.put(entry.getKey(), toArray(entry.getValue()));
+        }
+
+        return new ValueRuleIndex(rules, slot, indexed, candidatesByValue);
+    }
+
+    /**
+     * Returns the values accepted by the leading condition of the rule.
+     *
+     * @return values, or null if the leading condition can't be dispatched on by value
+     */
+    private static Collection<String> dispatchValues(RulePlan rule) {
+        Condition condition = rule.getLeadingCondition();
+        if (condition == null) {
+            return null;
+        }
+
+        if (condition.getOperator() == Operator.IS_ONE_OF) {
+            return condition.getOperand().getValues();
+        }
+
+        if (condition.getOperator() == Operator.EQUALS && condition.getType() == AttributeType.STRING) {
+            String value = condition.getOperand().getValue();
+            return value == null ? Collections.emptySet() : Collections.singleton(value);
+        }
+
+        return null;
+    }
+
+    @Override
+    int[] getCandidates(UnlaunchValue userValue) {
+        if (userValue == null) {
+            return NO_RULES;
+        }
+        return candidatesByValue.getOrDefault(userValue.toString(), NO_RULES);
+    }
+}
@@ -37,10 +37,10 @@ final class CountAggregatorEventHandler implements EventHandler, Closeable {
     }
 
 
-    private void incrementFlagVariation(String flagId, String variationId) {
+    private void incrementFlagVariation(String flagId, String variationId, int count) {
         Strings.isNullOrEmpty(flagId);
         Strings.isNullOrEmpty(variationId);
-        logger.debug("Incrementing variation {} for flag {}", variationId, flagId);
+        logger.debug("Incrementing variation {} for flag {} by {}", variationId, flagId, count);
 
         String key = flagId + ":" + variationId;
         synchronized (variationsCountMap) {
@@ -48,7 +48,7 @@ final class CountAggregatorEventHandler implements EventHandler, Closeable {
                 variationsCountMap.put(key, new AtomicInteger(0));
             }
         }
-        variationsCountMap.get(key).incrementAndGet();
+        variationsCountMap.get(key).addAndGet(count);
     }
 
     /**
@@ -87,14 +87,22 @@ final class CountAggregatorEventHandler implements EventHandler, Closeable {
     }
 
     /**
-     * This method aggregates {@link Event#getSecondaryKey()} using the {@link Event#getKey()} as the key.
+     * This method aggregates {@link Event#getSecondaryKey()} using the {@link Event#getKey()} as the key. An event of
+     * type {@link UnlaunchConstants#FLAG_INVOCATIONS_COUNT_EVENT_TYPE}, e.g. the summary of a bulk evaluation, adds
+     * the count of each variation in its {@link Event#getProperties()} instead.
      *
      * @param event
      * @return
      */
     @Override
     public boolean handle(Event event) {
-        incrementFlagVariation(event.getKey(), event.getSecondaryKey());
+        if (UnlaunchConstants.FLAG_INVOCATIONS_COUNT_EVENT_TYPE.equals(event.getType())) {
+            event.getProperties().forEach((variationId, count) -> incrementFlagVariation(event.getKey(), variationId,
+                    (int) Math.min(((Number) count).longValue(), Integer.MAX_VALUE)));
+            return true;
+        }
+
+        incrementFlagVariation(event.getKey(), event.getSecondaryKey(), 1);
         return true;
     }
 
@@ -3,6 +3,7 @@ package io.unlaunch.store;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.unlaunch.UnlaunchGenericRestWrapper;
 import io.unlaunch.UnlaunchRestWrapper;
+import io.unlaunch.engine.PlanCompiler;
 import io.unlaunch.exceptions.UnlaunchRuntimeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,6 +24,7 @@ public final class RefreshableDataStoreProvider implements Closeable {
     private final UnlaunchGenericRestWrapper s3BucketRestWrapper;
 
     private final long delay;
+    private final boolean generatePredicates;
 
     private final AtomicReference<UnlaunchHttpDataStore> refreshableUnlaunchFetcherRef = new AtomicReference<>();
     private final CountDownLatch initialDownloadDoneLatch;
@@ -37,7 +39,23 @@ public final class RefreshableDataStoreProvider implements Closeable {
             CountDownLatch initialDownloadDoneLatch,
             AtomicBoolean downloadSuccessful,
             long dataStoreRefreshDelayInSeconds) {
+        this(restWrapper, s3BucketRestWrapper, initialDownloadDoneLatch, downloadSuccessful,
+                dataStoreRefreshDelayInSeconds, false);
+    }
+
+    /**
+     * @param generatePredicates whether flags are compiled with generated rule predicates, see
+     *                           {@link PlanCompiler#PlanCompiler(boolean)}
+     */
+    public RefreshableDataStoreProvider(
+            UnlaunchRestWrapper restWrapper,
+            UnlaunchGenericRestWrapper s3BucketRestWrapper,
+            CountDownLatch initialDownloadDoneLatch,
+            AtomicBoolean downloadSuccessful,
+            long dataStoreRefreshDelayInSeconds,
+            boolean generatePredicates) {
         this.restWrapper = restWrapper;
+        this.generatePredicates = generatePredicates;
         this.delay = dataStoreRefreshDelayInSeconds;
         this.initialDownloadDoneLatch = initialDownloadDoneLatch;
         this.downloadSuccessful = downloadSuccessful;
@@ -61,7 +79,8 @@ public final class RefreshableDataStoreProvider implements Closeable {
 
         UnlaunchHttpDataStore dataStore = new UnlaunchHttpDataStore(restWrapper, s3BucketRestWrapper,
                 initialDownloadDoneLatch,
-                downloadSuccessful);
+                downloadSuccessful,
+                new PlanCompiler(generatePredicates));
 
         try {
             scheduledExecutorService.scheduleWithFixedDelay(dataStore, 0L, delay, TimeUnit.SECONDS);
@@ -1,9 +1,11 @@
 package io.unlaunch.store;
 
+import io.unlaunch.engine.EvaluationPlan;
 import io.unlaunch.engine.FeatureFlag;
 
 import java.io.Closeable;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interface specifying objects which holds feature flags and related data retrieved from the Unlaunch service.
@@ -16,8 +18,52 @@ public interface UnlaunchDataStore extends Closeable {
 
     FeatureFlag getFlag(String flagKey);
 
+    /**
+     * Returns the compiled {@link EvaluationPlan} of the flag.
+     *
+     * @param flagKey key of the flag
+     * @return the plan, or null if the flag doesn't exist or this store doesn't compile flags
+     */
+    default EvaluationPlan getEvaluationPlan(String flagKey) {
+        return null;
+    }
+
+    /**
+     * Returns the compiled {@link EvaluationPlan}s of all flags. The plans are from the same download, so evaluating
+     * several flags with them is consistent even if the store is refreshed in the meantime.
+     *
+     * @return unmodifiable map of flag key to plan, or null if this store doesn't compile flags
+     */
+    default Map<String, EvaluationPlan> getAllEvaluationPlans() {
+        return null;
+    }
+
     List<FeatureFlag> getAllFlags();
 
+    /**
+     * Returns the version of the flags held by this store, which changes every time new flags are swapped in.
+     * Results computed from the flags can be cached until the version changes. The version is only changed after the
+     * new flags are visible, so a result computed after reading a version is never older than that version.
+     *
+     * @return version of the flags, or a negative number if this store doesn't track versions, in which case results
+     * are never cached
+     */
+    default long getVersion() {
+        return -1;
+    }
+
+    /**
+     * Adds a listener that is called after new flags are swapped in and the version is changed, on the thread that
+     * refreshes the store (for stores provided by {@link RefreshableDataStoreProvider}, its fetcher thread). Listeners
+     * are held until the store is closed and must not block. Stores that don't notify listeners ignore them, so
+     * {@link io.unlaunch.FlagHandle}s of clients using them keep their first result.
+     *
+     * @param listener listener
+     */
+    default void addFlagsUpdatedListener(Runnable listener) {
+        // Not notified
+    }
+
     boolean isFlagExist(String flagKey);
 
     String getProjectName();
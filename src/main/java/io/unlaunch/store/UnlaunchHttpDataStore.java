@@ -2,9 +2,11 @@ package io.unlaunch.store;
 
 import com.google.common.annotations.VisibleForTesting;
 import io.unlaunch.UnlaunchGenericRestWrapper;
+import io.unlaunch.engine.EvaluationPlan;
 import io.unlaunch.engine.FeatureFlag;
 import io.unlaunch.UnlaunchRestWrapper;
 import io.unlaunch.engine.JsonObjectConversionHelper;
+import io.unlaunch.engine.PlanCompiler;
 import io.unlaunch.exceptions.UnlaunchHttpException;
 import io.unlaunch.utils.UnlaunchConstants;
 import org.json.simple.JSONArray;
@@ -15,19 +17,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.core.Response;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * This class is responsible for fetching feature flags using the HTTP API and maintain a {@link ConcurrentHashMap} of
- * feature flags that are downloaded from the server in memory.
+ * feature flags that are downloaded from the server in memory. Each flag is compiled into an {@link EvaluationPlan}
+ * as soon as it is downloaded.
  * <p>
  * This class is not mutable and hence it is thread-safe.
  * <p>
@@ -35,13 +41,17 @@ import java.util.concurrent.atomic.AtomicReference;
  */
 final class UnlaunchHttpDataStore implements UnlaunchDataStore, Runnable {
 
-    private final AtomicReference<Map<String, FeatureFlag>> refFlagsMap;
+    private final AtomicReference<Map<String, EvaluationPlan>> refFlagsMap;
+    // Incremented after every swap of refFlagsMap
+    private final AtomicLong version = new AtomicLong();
+    private final List<Runnable> flagsUpdatedListeners = new CopyOnWriteArrayList<>();
     private AtomicReference<String> projectNameRef = new AtomicReference<>();
     private AtomicReference<String> environmentNameRef = new AtomicReference<>();
     private final UnlaunchRestWrapper restWrapper;
     private final UnlaunchGenericRestWrapper s3BucketRestWrapper;
     private final CountDownLatch gate;
     private final JsonObjectConversionHelper flagService = new JsonObjectConversionHelper();
+    private final PlanCompiler planCompiler;
     private final JSONParser parser = new JSONParser();
     private final AtomicBoolean initialSyncSuccessful;
     private final AtomicBoolean sync0Complete = new AtomicBoolean(false);
@@ -50,6 +60,13 @@ final class UnlaunchHttpDataStore implements UnlaunchDataStore, Runnable {
 
     protected UnlaunchHttpDataStore(UnlaunchRestWrapper restWrapper, UnlaunchGenericRestWrapper s3BucketRestWrapper,
                                     CountDownLatch gate, AtomicBoolean initialSyncSuccessful) {
+        this(restWrapper, s3BucketRestWrapper, gate, initialSyncSuccessful, new PlanCompiler());
+    }
+
+    protected UnlaunchHttpDataStore(UnlaunchRestWrapper restWrapper, UnlaunchGenericRestWrapper s3BucketRestWrapper,
+                                    CountDownLatch gate, AtomicBoolean initialSyncSuccessful,
+                                    PlanCompiler planCompiler) {
+        this.planCompiler = planCompiler;
         this.restWrapper = restWrapper;
         this.s3BucketRestWrapper = s3BucketRestWrapper;
         this.gate = gate;
@@ -131,10 +148,10 @@ final class UnlaunchHttpDataStore implements UnlaunchDataStore, Runnable {
 
         List<FeatureFlag> unlaunchFlags = flagService.toUnlaunchFlags(flags);
 
-        Map<String, FeatureFlag> newFlagsMap = new HashMap<>(unlaunchFlags.size());
-        unlaunchFlags.forEach(flag -> newFlagsMap.put(flag.getKey(), flag));
+        Map<String, EvaluationPlan> newFlagsMap = planCompiler.compile(unlaunchFlags);
 
         refFlagsMap.set(newFlagsMap); //  Update  the main flag store's reference
+        version.incrementAndGet();
 
         if (!initialSyncSuccessful.get()) {
             logger.info("Initial sync was successful and the client is ready. Synced {} flags", refFlagsMap.get().size());
@@ -144,9 +161,20 @@ final class UnlaunchHttpDataStore implements UnlaunchDataStore, Runnable {
         }
 
         logger.info("downloaded {} features from the server", unlaunchFlags.size());
+        notifyFlagsUpdated();
         return unlaunchFlags.size();
     }
 
+    private void notifyFlagsUpdated() {
+        for (Runnable listener : flagsUpdatedListeners) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                logger.warn("an error occurred when notifying a listener of updated flags {}", e.toString());
+            }
+        }
+    }
+
     @Override
     public void run() {
         try {
@@ -159,6 +187,7 @@ final class UnlaunchHttpDataStore implements UnlaunchDataStore, Runnable {
                 regularServerSync();
             }
 
+            reorderConditions();
         } catch (UnlaunchHttpException ex) {
             logger.warn("unable to fetch flags {}", ex.toString());
         } catch (ParseException pex) {
@@ -170,14 +199,50 @@ final class UnlaunchHttpDataStore implements UnlaunchDataStore, Runnable {
         }
     }
 
+    /**
+     * Reorders the conditions of the flags' rules from the statistics sampled since the last run, on this background
+     * thread rather than during evaluations.
+     */
+    private void reorderConditions() {
+        int reordered = 0;
+        for (EvaluationPlan plan : refFlagsMap.get().values()) {
+            reordered += plan.reorderConditions();
+        }
+
+        if (reordered > 0) {
+            logger.debug("reordered the conditions of {} rules", reordered);
+        }
+    }
+
     @Override
     public FeatureFlag getFlag(String flagKey) {
+        EvaluationPlan plan = refFlagsMap.get().get(flagKey);
+        return plan == null ? null : plan.getFlag();
+    }
+
+    @Override
+    public EvaluationPlan getEvaluationPlan(String flagKey) {
         return refFlagsMap.get().get(flagKey);
     }
 
+    @Override
+    public Map<String, EvaluationPlan> getAllEvaluationPlans() {
+        return Collections.unmodifiableMap(refFlagsMap.get());
+    }
+
     @Override
     public List<FeatureFlag> getAllFlags() {
-        return new ArrayList<>(refFlagsMap.get().values());
+        return refFlagsMap.get().values().stream().map(EvaluationPlan::getFlag).collect(Collectors.toList());
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public void addFlagsUpdatedListener(Runnable listener) {
+        flagsUpdatedListeners.add(listener);
     }
 
     @Override
@@ -207,6 +272,8 @@ final class UnlaunchHttpDataStore implements UnlaunchDataStore, Runnable {
         projectNameRef.set(null);
         environmentNameRef.set(null);
         refFlagsMap.set(new HashMap<>());
+        version.incrementAndGet();
+        flagsUpdatedListeners.clear();
     }
 
     @VisibleForTesting
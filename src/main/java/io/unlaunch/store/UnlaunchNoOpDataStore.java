@@ -1,9 +1,11 @@
 package io.unlaunch.store;
 
+import io.unlaunch.engine.EvaluationPlan;
 import io.unlaunch.engine.FeatureFlag;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 final class UnlaunchNoOpDataStore implements UnlaunchDataStore {
 
@@ -12,11 +14,31 @@ final class UnlaunchNoOpDataStore implements UnlaunchDataStore {
         return null;
     }
 
+    @Override
+    public EvaluationPlan getEvaluationPlan(String flagKey) {
+        return null;
+    }
+
+    @Override
+    public Map<String, EvaluationPlan> getAllEvaluationPlans() {
+        return null;
+    }
+
     @Override
     public List<FeatureFlag> getAllFlags() {
         return null;
     }
 
+    @Override
+    public long getVersion() {
+        return 0;
+    }
+
+    @Override
+    public void addFlagsUpdatedListener(Runnable listener) {
+        // Flags are never updated
+    }
+
     @Override
     public boolean isFlagExist(String flagKey) {
         return false;
@@ -162,6 +162,154 @@ public final class MurmurHash3 {
         return h1 & 0xFFFFFFFFL;
     }
 
+    /**
+     * Intermediate state of a MurmurHash3_x86_32 hash, saved after hashing a prefix with
+     * {@link #murmurhash3_x86_32_prefix(CharSequence, int, PrefixState)}. The same prefix can then be completed with
+     * any number of suffixes using {@link #murmurhash3_x86_32(PrefixState, CharSequence)} without hashing it again.
+     * Completing a hash doesn't modify the state.
+     */
+    public static final class PrefixState {
+        private int h1;
+        private int k1;
+        private int shift;
+        private int nBytes;
+        // A trailing high surrogate can only be encoded once we know whether a low surrogate follows it
+        private int pendingChar = -1;
+    }
+
+    /**
+     * Returns the MurmurHash3_x86_32 hash of the UTF-8 bytes of <code>first</code> followed by <code>second</code>.
+     * The result is identical to hashing the concatenated String, without creating it.
+     */
+    public static long murmurhash3_x86_32(CharSequence first, CharSequence second, int seed) {
+        return murmurhash3_x86_32(seed, 0, 0, 0, -1, first, second, null);
+    }
+
+    /**
+     * Hashes <code>data</code> as the prefix of a longer key and saves the intermediate state in <code>state</code>.
+     */
+    public static void murmurhash3_x86_32_prefix(CharSequence data, int seed, PrefixState state) {
+        murmurhash3_x86_32(seed, 0, 0, 0, -1, data, "", state);
+    }
+
+    /**
+     * Returns the MurmurHash3_x86_32 hash of the prefix saved in <code>prefix</code> followed by <code>suffix</code>.
+     * The result is identical to hashing the concatenated String.
+     */
+    public static long murmurhash3_x86_32(PrefixState prefix, CharSequence suffix) {
+        return murmurhash3_x86_32(prefix.h1, prefix.k1, prefix.shift, prefix.nBytes, prefix.pendingChar, suffix, "",
+                null);
+    }
+
+    /**
+     * Hashes the chars of <code>pendingChar</code> (if not -1), <code>first</code> and <code>second</code> as if they
+     * were one CharSequence, starting from the given intermediate state. This is the same loop as
+     * {@link #murmurhash3_x86_32(CharSequence, int, int, int)}. If <code>save</code> is not null, the intermediate
+     * state is saved into it instead of finalizing the hash.
+     */
+    private static long murmurhash3_x86_32(int h1, int k1, int shift, int nBytes, int pendingChar,
+                                           CharSequence first, CharSequence second, PrefixState save) {
+
+        final int c1 = 0xcc9e2d51;
+        final int c2 = 0x1b873593;
+
+        final int pendingLen = pendingChar == -1 ? 0 : 1;
+        final int firstLen = first.length();
+        int pos = 0;
+        int end = pendingLen + firstLen + second.length();
+        int k2;
+        int bits;
+        int unsavedChar = -1;
+
+        while (pos < end) {
+            int code = charAt(pendingChar, pendingLen, first, firstLen, second, pos++);
+            if (code < 0x80) {
+                k2 = code;
+                bits = 8;
+
+            } else if (code < 0x800) {
+                k2 = (0xC0 | (code >> 6))
+                        | ((0x80 | (code & 0x3F)) << 8);
+                bits = 16;
+            } else if (save != null && pos >= end && code >= 0xD800 && code <= 0xDFFF) {
+                // can't tell yet if this is half of a surrogate pair
+                unsavedChar = code;
+                break;
+            } else if (code < 0xD800 || code > 0xDFFF || pos >= end) {
+                // we check for pos>=end to encode an unpaired surrogate as 3 bytes.
+                k2 = (0xE0 | (code >> 12))
+                        | ((0x80 | ((code >> 6) & 0x3F)) << 8)
+                        | ((0x80 | (code & 0x3F)) << 16);
+                bits = 24;
+            } else {
+                // surrogate pair
+                int utf32 = charAt(pendingChar, pendingLen, first, firstLen, second, pos++);
+                utf32 = ((code - 0xD7C0) << 10) + (utf32 & 0x3FF);
+                k2 = (0xff & (0xF0 | (utf32 >> 18)))
+                        | ((0x80 | ((utf32 >> 12) & 0x3F))) << 8
+                        | ((0x80 | ((utf32 >> 6) & 0x3F))) << 16
+                        | (0x80 | (utf32 & 0x3F)) << 24;
+                bits = 32;
+            }
+
+            k1 |= k2 << shift;
+
+            shift += bits;
+            if (shift >= 32) {
+                // mix after we have a complete word
+
+                k1 *= c1;
+                k1 = (k1 << 15) | (k1 >>> 17);  // ROTL32(k1,15);
+                k1 *= c2;
+
+                h1 ^= k1;
+                h1 = (h1 << 13) | (h1 >>> 19);  // ROTL32(h1,13);
+                h1 = h1 * 5 + 0xe6546b64;
+
+                shift -= 32;
+                // unfortunately, java won't let you shift 32 bits off, so we need to check for 0
+                if (shift != 0) {
+                    k1 = k2 >>> (bits - shift);   // bits used == bits - newshift
+                } else {
+                    k1 = 0;
+                }
+                nBytes += 4;
+            }
+        }
+
+        if (save != null) {
+            save.h1 = h1;
+            save.k1 = k1;
+            save.shift = shift;
+            save.nBytes = nBytes;
+            save.pendingChar = unsavedChar;
+            return 0;
+        }
+
+        // handle tail
+        if (shift > 0) {
+            nBytes += shift >> 3;
+            k1 *= c1;
+            k1 = (k1 << 15) | (k1 >>> 17);  // ROTL32(k1,15);
+            k1 *= c2;
+            h1 ^= k1;
+        }
+
+        // finalization
+        h1 ^= nBytes;
+
+        return fmix32(h1) & 0xFFFFFFFFL;
+    }
+
+    private static int charAt(int pendingChar, int pendingLen, CharSequence first, int firstLen, CharSequence second,
+                              int pos) {
+        if (pos < pendingLen) {
+            return pendingChar;
+        }
+        pos -= pendingLen;
+        return pos < firstLen ? first.charAt(pos) : second.charAt(pos - firstLen);
+    }
+
     // The following set of methods and constants are borrowed from:
     // `This method is borrowed from `org.apache.commons.codec.digest.MurmurHash3`
 
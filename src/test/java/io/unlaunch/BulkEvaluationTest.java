@@ -0,0 +1,142 @@
+package io.unlaunch;
+
+import io.unlaunch.event.Event;
+import io.unlaunch.utils.UnlaunchConstants;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+public class BulkEvaluationTest {
+
+    private final InMemoryDataStore dataStore = new InMemoryDataStore();
+    private final RecordingEventHandler variationCounts = new RecordingEventHandler();
+    private final RecordingEventHandler impressions = new RecordingEventHandler();
+    private final AtomicBoolean ready = new AtomicBoolean(true);
+    private final DefaultUnlaunchClient client = DefaultUnlaunchClient.create(dataStore, new RecordingEventHandler(),
+            variationCounts, impressions, new CountDownLatch(0), ready, Boolean.TRUE::booleanValue);
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @After
+    public void shutdownPool() {
+        pool.shutdownNow();
+    }
+
+    private static Iterator<EvaluationContext> contexts(int count) {
+        return IntStream.range(0, count).mapToObj(i -> EvaluationContext.create("user" + i)).iterator();
+    }
+
+    @Test
+    public void testEveryContextIsEvaluatedAndCounted() {
+        dataStore.setFlags(InMemoryDataStore.disabledFlag("pricing", "off"));
+        ConcurrentHashMap<String, String> variations = new ConcurrentHashMap<>();
+
+        BulkEvaluationResult result = client.evaluateBulk("pricing", contexts(10000),
+                (context, feature) -> variations.put(context.getIdentity(), feature.getVariation()),
+                BulkEvaluationOptions.defaults().withPool(pool).withBatchSize(100));
+
+        Assert.assertEquals(10000, variations.size());
+        Assert.assertEquals("off", variations.get("user9999"));
+        Assert.assertEquals(10000, result.getEvaluatedCount());
+        Assert.assertEquals(Long.valueOf(10000), result.getVariationCounts().get("off"));
+        Assert.assertEquals(10000, impressions.getEvents().size());
+    }
+
+    @Test
+    public void testImpressionsCanBeSuppressed() {
+        dataStore.setFlags(InMemoryDataStore.disabledFlag("pricing", "off"));
+
+        BulkEvaluationResult result = client.evaluateBulk("pricing", contexts(1000), (context, feature) -> { },
+                BulkEvaluationOptions.defaults().withPool(pool).withoutImpressions());
+
+        Assert.assertEquals(1000, result.getEvaluatedCount());
+        Assert.assertEquals(0, impressions.getEvents().size());
+    }
+
+    @Test
+    public void testVariationsAreCountedOnceWithoutImpressions() {
+        dataStore.setFlags(InMemoryDataStore.disabledFlag("pricing", "off"));
+
+        client.evaluateBulk("pricing", contexts(1000), (context, feature) -> { },
+                BulkEvaluationOptions.defaults().withPool(pool).withoutImpressions());
+
+        Assert.assertEquals(1, variationCounts.getEvents().size());
+        Event counts = variationCounts.getEvents().get(0);
+        Assert.assertEquals(UnlaunchConstants.FLAG_INVOCATIONS_COUNT_EVENT_TYPE, counts.getType());
+        Assert.assertEquals("pricing", counts.getKey());
+        Assert.assertEquals(Long.valueOf(1000), counts.getProperties().get("off"));
+
+        client.evaluateBulk("missing", contexts(10), (context, feature) -> { },
+                BulkEvaluationOptions.defaults().withPool(pool).withoutImpressions());
+
+        Assert.assertEquals(1, variationCounts.getEvents().size());
+    }
+
+    @Test
+    public void testFlagIsPinnedForTheWholeEvaluation() {
+        dataStore.setFlags(InMemoryDataStore.disabledFlag("pricing", "off"));
+        AtomicBoolean updated = new AtomicBoolean();
+
+        BulkEvaluationResult result = client.evaluateBulk("pricing", contexts(1000), (context, feature) -> {
+            if (updated.compareAndSet(false, true)) {
+                dataStore.setFlags(InMemoryDataStore.disabledFlag("pricing", "on"));
+            }
+        }, BulkEvaluationOptions.defaults().withPool(pool).withBatchSize(10));
+
+        Assert.assertTrue(updated.get());
+        Assert.assertEquals(Long.valueOf(1000), result.getVariationCounts().get("off"));
+        Assert.assertEquals(1, result.getVariationCounts().size());
+        Assert.assertEquals("on", client.getVariation("pricing", "user0"));
+    }
+
+    @Test
+    public void testMissingFlagIsCountedAsControl() {
+        BulkEvaluationResult result = client.evaluateBulk("pricing", contexts(10), (context, feature) -> { },
+                BulkEvaluationOptions.defaults().withPool(pool));
+
+        Assert.assertEquals(Long.valueOf(10), result.getVariationCounts().get("control"));
+    }
+
+    @Test
+    public void testClientThatIsNotReadyReturnsControl() {
+        ready.set(false);
+        List<String> variations = new ArrayList<>();
+
+        client.evaluateBulk("pricing", contexts(3), (context, feature) -> {
+            synchronized (variations) {
+                variations.add(feature.getVariation());
+            }
+        }, BulkEvaluationOptions.defaults().withPool(pool));
+
+        Assert.assertEquals(Arrays.asList("control", "control", "control"), variations);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testConsumerExceptionIsThrown() {
+        dataStore.setFlags(InMemoryDataStore.disabledFlag("pricing", "off"));
+
+        client.evaluateBulk("pricing", contexts(1000), (context, feature) -> {
+            throw new IllegalStateException("full");
+        }, BulkEvaluationOptions.defaults().withPool(pool));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullContextIsRejected() {
+        client.evaluateBulk("pricing", Arrays.asList(EvaluationContext.create("user"), null).iterator(),
+                (context, feature) -> { }, BulkEvaluationOptions.defaults().withPool(pool));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchSizeMustBePositive() {
+        BulkEvaluationOptions.defaults().withBatchSize(0);
+    }
+}
@@ -226,4 +226,67 @@ public class DefaultUnlaunchClientTest {
         Assert.assertFalse(client.isReady());
     }
 
+    @Test
+    public void testFlagIsEvaluatedForContext() {
+        DefaultUnlaunchClient client = DefaultUnlaunchClient.create(refreshableDataStoreProvider.getDataStore(),
+                eventHandler, flagInvocationMetricHandler, impressionsEventHandler, downLatch, new AtomicBoolean(true),
+                Boolean.TRUE::booleanValue);
+
+        final String flagKey = "flag123";
+        FeatureFlag flag  = Mockito.mock(FeatureFlag.class);
+        when(unlaunchHttpDataStore.getFlag(flagKey)).thenReturn(flag);
+        when(flag.isEnabled()).thenReturn(false);
+
+        Variation variation = Mockito.mock(Variation.class);
+        when(variation.getKey()).thenReturn("off");
+        when(flag.getOffVariation()).thenReturn(variation);
+
+        EvaluationContext context = EvaluationContext.create("user123",
+                UnlaunchAttribute.newString("country", "USA"));
+
+        Assert.assertEquals("off", client.getVariation(flagKey, context));
+        Assert.assertEquals("off", client.getFeature(flagKey, context).getVariation());
+        Assert.assertEquals(client.getFeature(flagKey, "user123").getEvaluationReason(),
+                client.getFeature(flagKey, context).getEvaluationReason());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWhen_GetVariationIsCalledWithoutContext_ItThrowsException() {
+        DefaultUnlaunchClient client = DefaultUnlaunchClient.create(refreshableDataStoreProvider.getDataStore(),
+                eventHandler, flagInvocationMetricHandler, impressionsEventHandler, downLatch, atomicBoolean,
+                Boolean.TRUE::booleanValue);
+
+        client.getVariation(UUID.randomUUID().toString(), (EvaluationContext) null);
+    }
+
+    @Test
+    public void testCachedResultIsTrackedAndInvalidatedByNewFlags() {
+        DefaultUnlaunchClient client = DefaultUnlaunchClient.create(refreshableDataStoreProvider.getDataStore(),
+                eventHandler, flagInvocationMetricHandler, impressionsEventHandler, downLatch, new AtomicBoolean(true),
+                Boolean.TRUE::booleanValue, 64);
+
+        final String flagKey = "flag123";
+        FeatureFlag flag  = Mockito.mock(FeatureFlag.class);
+        when(unlaunchHttpDataStore.getFlag(flagKey)).thenReturn(flag);
+        when(unlaunchHttpDataStore.getVersion()).thenReturn(1L);
+        when(flag.isEnabled()).thenReturn(false);
+
+        Variation variation = Mockito.mock(Variation.class);
+        when(variation.getKey()).thenReturn("off");
+        when(flag.getOffVariation()).thenReturn(variation);
+
+        Assert.assertEquals("off", client.getVariation(flagKey, "user123"));
+        Assert.assertEquals("off", client.getVariation(flagKey, "user123"));
+        Assert.assertEquals("off", client.getVariation(flagKey, EvaluationContext.create("user123")));
+        Assert.assertEquals(2, client.evaluationCacheStats().getHitCount());
+        Assert.assertEquals(1, client.evaluationCacheStats().getMissCount());
+        Mockito.verify(unlaunchHttpDataStore, Mockito.times(1)).getFlag(flagKey);
+        Mockito.verify(flagInvocationMetricHandler, Mockito.times(3)).handle(any());
+
+        when(unlaunchHttpDataStore.getVersion()).thenReturn(2L);
+        Assert.assertEquals("off", client.getVariation(flagKey, "user123"));
+        Assert.assertEquals(2, client.evaluationCacheStats().getMissCount());
+        Mockito.verify(unlaunchHttpDataStore, Mockito.times(2)).getFlag(flagKey);
+    }
+
 }
@@ -0,0 +1,186 @@
+package io.unlaunch;
+
+import io.unlaunch.engine.FeatureFlag;
+import io.unlaunch.store.UnlaunchDataStore;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EvaluationCacheTest {
+
+    private final UnlaunchFeature feature = UnlaunchFeature.create("flag", "on", null, "rule matched");
+
+    @Test
+    public void testCachedResultIsReturnedForSameFlagAndUser() {
+        EvaluationCache cache = new EvaluationCache(16);
+        cache.put("flag", key("user1", "USA"), 1, feature, true);
+
+        EvaluationCache.Entry entry = cache.get("flag", key("user1", "USA"), 1);
+
+        Assert.assertSame(feature, entry.getFeature());
+        Assert.assertTrue(entry.isFlagEnabled());
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void testResultIsNotReturnedForOtherFlagOrUser() {
+        EvaluationCache cache = new EvaluationCache(16);
+        cache.put("flag", key("user1", "USA"), 1, feature, true);
+
+        Assert.assertNull(cache.get("other", key("user1", "USA"), 1));
+        Assert.assertNull(cache.get("flag", key("user2", "USA"), 1));
+        Assert.assertNull(cache.get("flag", key("user1", "CAN"), 1));
+        Assert.assertNull(cache.get("flag", EvaluationCache.UserKey.of("user1"), 1));
+        Assert.assertEquals(0, cache.getHitCount());
+        Assert.assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    public void testNewVersionInvalidatesResults() {
+        EvaluationCache cache = new EvaluationCache(16);
+        cache.put("flag", key("user1", "USA"), 1, feature, true);
+
+        Assert.assertNull(cache.get("flag", key("user1", "USA"), 2));
+    }
+
+    @Test
+    public void testOrderOfRepeatedAttributesMatters() {
+        EvaluationCache cache = new EvaluationCache(16);
+        cache.put("flag", EvaluationCache.UserKey.of("user1", UnlaunchAttribute.newString("country", "USA"),
+                UnlaunchAttribute.newString("country", "CAN")), 1, feature, true);
+
+        Assert.assertNull(cache.get("flag", EvaluationCache.UserKey.of("user1",
+                UnlaunchAttribute.newString("country", "CAN"), UnlaunchAttribute.newString("country", "USA")), 1));
+    }
+
+    @Test
+    public void testChangingSetAfterCachingDoesNotChangeKey() {
+        Set<String> groups = new HashSet<>();
+        groups.add("beta");
+        EvaluationCache cache = new EvaluationCache(16);
+        cache.put("flag", EvaluationCache.UserKey.of("user1", UnlaunchAttribute.newSet("groups", groups)), 1,
+                feature, true);
+
+        groups.add("staff");
+
+        Assert.assertNull(cache.get("flag", EvaluationCache.UserKey.of("user1",
+                UnlaunchAttribute.newSet("groups", groups)), 1));
+    }
+
+    @Test
+    public void testAttributesAreLookedUpWithoutKey() {
+        Set<String> groups = new HashSet<>();
+        groups.add("beta");
+        UnlaunchAttribute[] attributes = {UnlaunchAttribute.newString("country", "USA"),
+                UnlaunchAttribute.newSet("groups", groups)};
+        EvaluationCache cache = new EvaluationCache(16);
+        cache.put("flag", EvaluationCache.UserKey.of("user1", attributes), 1, feature, true);
+
+        Assert.assertNotNull(cache.get("flag", "user1", attributes, 1));
+        Assert.assertNull(cache.get("flag", "user1", null, 1));
+
+        groups.add("staff");
+
+        Assert.assertNull(cache.get("flag", "user1", attributes, 1));
+    }
+
+    @Test
+    public void testUserWithMutableValueIsNotKeyed() {
+        Assert.assertNull(EvaluationCache.UserKey.of("user1", UnlaunchAttribute.newNumber("visits",
+                new AtomicInteger(3))));
+        Assert.assertNull(EvaluationCache.UserKey.of("user1", new UnlaunchAttribute("signup", new Date())));
+        Assert.assertNull(EvaluationCache.UserKey.of("user1", new UnlaunchAttribute("tags",
+                new ArrayList<>(Collections.singletonList("beta")))));
+        Assert.assertNotNull(EvaluationCache.UserKey.of("user1", UnlaunchAttribute.newNumber("visits", 3),
+                UnlaunchAttribute.newDate("signup", 0), UnlaunchAttribute.newBoolean("staff", true)));
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        EvaluationCache cache = new EvaluationCache(100);
+        Assert.assertEquals(128, cache.getCapacity());
+
+        for (int i = 0; i < 1000; i++) {
+            cache.put("flag", key("user" + i, "USA"), 1, feature, true);
+        }
+
+        int cached = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (cache.get("flag", key("user" + i, "USA"), 1) != null) {
+                cached++;
+            }
+        }
+        Assert.assertTrue(cached > 0 && cached <= 128);
+    }
+
+    @Test
+    public void testResultsOfStoreWithoutVersionsAreNotCached() {
+        InMemoryDataStore flags = new InMemoryDataStore();
+        // Only implements the methods a data store had to implement before plans and versions were added
+        UnlaunchDataStore dataStore = new UnlaunchDataStore() {
+            @Override
+            public FeatureFlag getFlag(String flagKey) {
+                return flags.getFlag(flagKey);
+            }
+
+            @Override
+            public List<FeatureFlag> getAllFlags() {
+                return flags.getAllFlags();
+            }
+
+            @Override
+            public boolean isFlagExist(String flagKey) {
+                return flags.isFlagExist(flagKey);
+            }
+
+            @Override
+            public String getProjectName() {
+                return flags.getProjectName();
+            }
+
+            @Override
+            public String getEnvironmentName() {
+                return flags.getEnvironmentName();
+            }
+
+            @Override
+            public void refreshNow() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        DefaultUnlaunchClient client = DefaultUnlaunchClient.create(dataStore, new RecordingEventHandler(),
+                new RecordingEventHandler(), new RecordingEventHandler(), new CountDownLatch(0),
+                new AtomicBoolean(true), Boolean.TRUE::booleanValue, 16);
+
+        flags.setFlags(InMemoryDataStore.disabledFlag("flag", "off"));
+        Assert.assertEquals("off", client.getVariation("flag", "user1"));
+        flags.setFlags(InMemoryDataStore.disabledFlag("flag", "new"));
+        Assert.assertEquals("new", client.getVariation("flag", "user1"));
+
+        Assert.assertEquals(0, client.evaluationCacheStats().getHitCount());
+        Assert.assertEquals(0, client.evaluationCacheStats().getMissCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSizeMustBePositive() {
+        new EvaluationCache(0);
+    }
+
+    private static EvaluationCache.UserKey key(String identity, String country) {
+        return EvaluationCache.UserKey.of(identity, UnlaunchAttribute.newString("country", country),
+                UnlaunchAttribute.newNumber("age", 30));
+    }
+}
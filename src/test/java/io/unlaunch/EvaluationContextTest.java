@@ -0,0 +1,84 @@
+package io.unlaunch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+public class EvaluationContextTest {
+
+    @Test
+    public void testContextHoldsConvertedAttributes() {
+        EvaluationContext context = EvaluationContext.create("user123",
+                UnlaunchAttribute.newString("country", "USA"),
+                UnlaunchAttribute.newNumber("age", 30),
+                UnlaunchAttribute.newBoolean("subscriber", true));
+
+        Assert.assertEquals("user123", context.getIdentity());
+        Assert.assertEquals("USA", context.getUser().getAttribute("country"));
+        Assert.assertEquals(30.0, ((Number) context.getUser().getAttribute("age")).doubleValue(), 0);
+        Assert.assertEquals(true, context.getUser().getAttribute("subscriber"));
+    }
+
+    @Test
+    public void testLastValueOfRepeatedAttributeIsUsed() {
+        EvaluationContext context = EvaluationContext.create("user123",
+                UnlaunchAttribute.newString("country", "USA"),
+                UnlaunchAttribute.newString("country", "CAN"));
+
+        Assert.assertEquals("CAN", context.getUser().getAttribute("country"));
+    }
+
+    @Test
+    public void testChangingSetAfterCreateDoesNotChangeContext() {
+        Set<String> tags = new HashSet<>(Arrays.asList("beta", "mobile"));
+        EvaluationContext context = EvaluationContext.create("user123", UnlaunchAttribute.newSet("tags", tags));
+
+        tags.add("admin");
+        tags.remove("beta");
+
+        Set<String> expected = new HashSet<>(Arrays.asList("beta", "mobile"));
+        Assert.assertEquals(expected, context.getUser().getAttribute("tags"));
+        Assert.assertEquals(EvaluationCache.UserKey.of("user123", UnlaunchAttribute.newSet("tags", expected)),
+                context.getCacheKey());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSetOfContextCantBeChanged() {
+        EvaluationContext context = EvaluationContext.create("user123",
+                UnlaunchAttribute.newSet("tags", new HashSet<>(Arrays.asList("beta", "mobile"))));
+
+        ((Set<String>) context.getUser().getAttribute("tags")).add("admin");
+    }
+
+    @Test
+    public void testContextWithoutAttributes() {
+        Assert.assertTrue(EvaluationContext.create("user123").getUser().getAllAttributes().isEmpty());
+        Assert.assertTrue(EvaluationContext.create("user123", (UnlaunchAttribute[]) null).getUser()
+                .getAllAttributes().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIdentityWithWhitespaceIsRejected() {
+        EvaluationContext.create("invalid identity");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullIdentityIsRejected() {
+        EvaluationContext.create(null);
+    }
+
+    @Test
+    public void testOfflineClientAcceptsContext() {
+        UnlaunchClient client = new OfflineUnlaunchClient();
+        EvaluationContext context = EvaluationContext.create("user123");
+
+        Assert.assertEquals("control", client.getVariation("flag", context));
+        Assert.assertEquals("control", client.getFeatures(Collections.singleton("flag"), context)
+                .get("flag").getVariation());
+        Assert.assertTrue(client.getAllFeatures(context).isEmpty());
+    }
+}
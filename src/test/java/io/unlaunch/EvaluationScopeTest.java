@@ -0,0 +1,128 @@
+package io.unlaunch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class EvaluationScopeTest {
+
+    private final InMemoryDataStore dataStore = new InMemoryDataStore();
+    private final RecordingEventHandler impressions = new RecordingEventHandler();
+    private final DefaultUnlaunchClient client = DefaultUnlaunchClient.create(dataStore, new RecordingEventHandler(),
+            new RecordingEventHandler(), impressions, new CountDownLatch(0), new AtomicBoolean(true),
+            Boolean.TRUE::booleanValue);
+
+    @Test
+    public void testFlagIsEvaluatedOncePerUserInScope() {
+        dataStore.setFlags(InMemoryDataStore.disabledFlag("flag", "off"));
+
+        try (EvaluationScope scope = client.openScope()) {
+            Assert.assertEquals("off", client.getVariation("flag", "user1"));
+            Assert.assertEquals("off", client.getVariation("flag", "user1"));
+            Assert.assertEquals("off", scope.getVariation("flag", EvaluationContext.create("user1")));
+            Assert.assertEquals(1, impressions.getEvents().size());
+
+            Assert.assertEquals("off", client.getVariation("flag", "user1",
+                    UnlaunchAttribute.newString("country", "USA")));
+            Assert.assertEquals(2, impressions.getEvents().size());
+        }
+
+        Assert.assertEquals("off", client.getVariation("flag", "user1"));
+        Assert.assertEquals(3, impressions.getEvents().size());
+    }
+
+    @Test
+    public void testFlagsArePinnedWhenScopeIsFirstUsed() {
+        dataStore.setFlags(InMemoryDataStore.disabledFlag("flag", "off"), InMemoryDataStore.disabledFlag("other", "off"));
+
+        try (EvaluationScope scope = client.openScope()) {
+            Assert.assertEquals("off", client.getVariation("flag", "user1"));
+
+            dataStore.setFlags(InMemoryDataStore.disabledFlag("flag", "new"), InMemoryDataStore.disabledFlag("other", "new"));
+
+            Assert.assertEquals("off", client.getVariation("other", "user1"));
+            Assert.assertEquals("off", client.getVariation("flag", "user2"));
+            Assert.assertEquals("off", client.getAllFeatures("user1").get("other").getVariation());
+        }
+
+        Assert.assertEquals("new", client.getVariation("flag", "user1"));
+    }
+
+    @Test
+    public void testAllFeaturesAreEvaluatedOncePerUserInScope() {
+        dataStore.setFlags(InMemoryDataStore.disabledFlag("flag", "off"), InMemoryDataStore.disabledFlag("other", "off"));
+
+        try (EvaluationScope scope = client.openScope()) {
+            Assert.assertEquals(2, client.getAllFeatures("user1").size());
+            Assert.assertEquals(2, client.getAllFeatures("user1").size());
+            Assert.assertEquals("off", client.getVariation("flag", "user1"));
+            Assert.assertEquals("off", client.getFeatures(Collections.singletonList("other"),
+                    EvaluationContext.create("user1")).get("other").getVariation());
+            Assert.assertEquals(2, impressions.getEvents().size());
+        }
+
+        client.getAllFeatures("user1");
+        Assert.assertEquals(4, impressions.getEvents().size());
+    }
+
+    @Test
+    public void testScopesNest() {
+        dataStore.setFlags(InMemoryDataStore.disabledFlag("flag", "off"));
+
+        EvaluationScope outer = client.openScope();
+        client.getVariation("flag", "user1");
+        try (EvaluationScope inner = client.openScope()) {
+            client.getVariation("flag", "user1");
+            client.getVariation("flag", "user1");
+        }
+        Assert.assertEquals(2, impressions.getEvents().size());
+
+        client.getVariation("flag", "user1");
+        Assert.assertEquals(2, impressions.getEvents().size());
+
+        outer.close();
+        client.getVariation("flag", "user1");
+        Assert.assertEquals(3, impressions.getEvents().size());
+    }
+
+    @Test
+    public void testScopeClosedOnOtherThreadIsUnbound() throws InterruptedException {
+        dataStore.setFlags(InMemoryDataStore.disabledFlag("flag", "off"));
+
+        EvaluationScope scope = client.openScope();
+        client.getVariation("flag", "user1");
+
+        Thread thread = new Thread(scope::close);
+        thread.start();
+        thread.join();
+
+        client.getVariation("flag", "user1");
+        Assert.assertEquals(2, impressions.getEvents().size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClosedScopeCanNotBeUsed() {
+        EvaluationScope scope = client.openScope();
+        scope.close();
+
+        scope.getVariation("flag", "user1");
+    }
+
+    @Test
+    public void testErrorsAreNotRemembered() {
+        try (EvaluationScope scope = client.openScope()) {
+            try {
+                client.getVariation("flag", (String) null);
+                Assert.fail("IllegalArgumentException expected");
+            } catch (IllegalArgumentException expected) {
+                // The user can't be created without an identity
+            }
+
+            dataStore.setFlags(InMemoryDataStore.disabledFlag("flag", "off"));
+            Assert.assertEquals("off", scope.getVariation("flag", "user1"));
+        }
+    }
+}
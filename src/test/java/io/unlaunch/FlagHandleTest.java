@@ -0,0 +1,74 @@
+package io.unlaunch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class FlagHandleTest {
+
+    private final InMemoryDataStore dataStore = new InMemoryDataStore();
+    private final RecordingEventHandler impressions = new RecordingEventHandler();
+    private final AtomicBoolean ready = new AtomicBoolean(true);
+    private final DefaultUnlaunchClient client = DefaultUnlaunchClient.create(dataStore, new RecordingEventHandler(),
+            new RecordingEventHandler(), impressions, new CountDownLatch(0), ready, Boolean.TRUE::booleanValue);
+
+    @Test
+    public void testHandleIsEvaluatedOnlyWhenFlagsAreUpdated() {
+        dataStore.setFlags(InMemoryDataStore.disabledFlag("kill_switch", "off"));
+        FlagHandle handle = client.getFlagHandle("kill_switch", EvaluationContext.create("service"));
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals("off", handle.getVariation());
+        }
+        Assert.assertEquals(1, impressions.getEvents().size());
+
+        dataStore.setFlags(InMemoryDataStore.disabledFlag("kill_switch", "on"));
+
+        Assert.assertEquals("on", handle.get().getVariation());
+        Assert.assertEquals(2, impressions.getEvents().size());
+    }
+
+    @Test
+    public void testHandleCreatedBeforeClientIsReadyIsEvaluatedOnDownload() {
+        ready.set(false);
+        FlagHandle handle = client.getFlagHandle("kill_switch", EvaluationContext.create("service"));
+        Assert.assertEquals("control", handle.getVariation());
+
+        ready.set(true);
+        dataStore.setFlags(InMemoryDataStore.disabledFlag("kill_switch", "on"));
+
+        Assert.assertEquals("on", handle.getVariation());
+    }
+
+    @Test
+    public void testHandleReturnsControlAfterShutdown() {
+        dataStore.setFlags(InMemoryDataStore.disabledFlag("kill_switch", "on"));
+        FlagHandle handle = client.getFlagHandle("kill_switch", EvaluationContext.create("service"));
+
+        client.shutdown();
+
+        Assert.assertEquals("control", handle.getVariation());
+    }
+
+    @Test
+    public void testAbandonedHandleIsCollected() throws InterruptedException {
+        dataStore.setFlags(InMemoryDataStore.disabledFlag("kill_switch", "on"));
+        WeakReference<FlagHandle> handle =
+                new WeakReference<>(client.getFlagHandle("kill_switch", EvaluationContext.create("service")));
+
+        for (int i = 0; i < 50 && handle.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        Assert.assertNull(handle.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHandleRequiresContext() {
+        client.getFlagHandle("kill_switch", null);
+    }
+}
@@ -0,0 +1,112 @@
+package io.unlaunch;
+
+import io.unlaunch.engine.EvaluationPlan;
+import io.unlaunch.engine.FeatureFlag;
+import io.unlaunch.engine.JsonObjectConversionHelper;
+import io.unlaunch.engine.PlanCompiler;
+import io.unlaunch.store.UnlaunchDataStore;
+import org.json.simple.JSONArray;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Data store whose flags are set by the test, for testing clients without a server.
+ */
+class InMemoryDataStore implements UnlaunchDataStore {
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private volatile Map<String, EvaluationPlan> plans = Collections.emptyMap();
+    private volatile long version;
+
+    /**
+     * Replaces the flags and notifies the listeners, like a download of new flags.
+     */
+    void setFlags(FeatureFlag... flags) {
+        List<FeatureFlag> list = new ArrayList<>();
+        Collections.addAll(list, flags);
+        plans = new PlanCompiler().compile(list);
+        version++;
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Returns a disabled flag, which serves its off variation to every user.
+     */
+    static FeatureFlag disabledFlag(String key, String offVariation) {
+        String json = "[{\"key\": \"" + key + "\", \"name\": \"" + key + "\", \"type\": \"string\", " +
+                "\"state\": \"INACTIVE\", \"offVariation\": 1, \"prerequisiteFlags\": {}, " +
+                "\"variations\": [{\"id\": 1, \"key\": \"" + offVariation + "\", \"name\": \"Off\"}], " +
+                "\"rules\": [{\"id\": 1, \"isDefault\": true, \"priority\": 0, \"conditions\": [], " +
+                "\"splits\": [{\"variationId\": 1, \"rolloutPercentage\": 100}]}]}]";
+        try {
+            return new JsonObjectConversionHelper().toUnlaunchFlags((JSONArray) new JSONParser().parse(json)).get(0);
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public FeatureFlag getFlag(String flagKey) {
+        EvaluationPlan plan = plans.get(flagKey);
+        return plan == null ? null : plan.getFlag();
+    }
+
+    @Override
+    public EvaluationPlan getEvaluationPlan(String flagKey) {
+        return plans.get(flagKey);
+    }
+
+    @Override
+    public Map<String, EvaluationPlan> getAllEvaluationPlans() {
+        return Collections.unmodifiableMap(plans);
+    }
+
+    @Override
+    public List<FeatureFlag> getAllFlags() {
+        List<FeatureFlag> flags = new ArrayList<>();
+        for (EvaluationPlan plan : plans.values()) {
+            flags.add(plan.getFlag());
+        }
+        return flags;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void addFlagsUpdatedListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public boolean isFlagExist(String flagKey) {
+        return plans.containsKey(flagKey);
+    }
+
+    @Override
+    public String getProjectName() {
+        return "project";
+    }
+
+    @Override
+    public String getEnvironmentName() {
+        return "test";
+    }
+
+    @Override
+    public void refreshNow() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -4,6 +4,7 @@ import io.unlaunch.utils.UnlaunchConstants;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.UUID;
 
@@ -79,4 +80,35 @@ public class OfflineUnlaunchClientTest {
         offlineClient.getFeature("featureA", UUID.randomUUID().toString()).getVariationConfig().getBoolean("is_paid", false);
         Assert.assertEquals(true, is_paid);
     }
+
+    @Test
+    public void testGetFeaturesReturnsLocalFeaturesAndDefaultValues() {
+        String filePath = "src/test/resources/flags.yaml";
+        UnlaunchClient offlineClient = UnlaunchClient.builder().offlineModeWithLocalFeatures(filePath).build();
+
+        Map<String, UnlaunchFeature> features = offlineClient.getFeatures(Arrays.asList("featureA", "unknown"),
+                UUID.randomUUID().toString());
+
+        Assert.assertEquals(2, features.size());
+        Assert.assertEquals("on", features.get("featureA").getVariation());
+        Assert.assertEquals(UnlaunchConstants.FLAG_DEFAULT_RETURN_TYPE, features.get("unknown").getVariation());
+    }
+
+    @Test
+    public void testGetAllFeaturesReturnsNothingWithoutLocalFeatures() {
+        UnlaunchClient offlineClient = UnlaunchClient.builder().offlineMode().build();
+
+        Assert.assertTrue(offlineClient.getAllFeatures(UUID.randomUUID().toString()).isEmpty());
+
+        offlineClient.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testContextIsRequired() {
+        UnlaunchClient offlineClient = UnlaunchClient.builder().offlineMode().build();
+
+        Assert.assertEquals(UnlaunchConstants.FLAG_DEFAULT_RETURN_TYPE,
+                offlineClient.getFlagHandle("flag", EvaluationContext.create("user1")).getVariation());
+        offlineClient.getFlagHandle("flag", null);
+    }
 }
@@ -0,0 +1,32 @@
+package io.unlaunch;
+
+import io.unlaunch.event.Event;
+import io.unlaunch.event.EventHandler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Event handler that keeps the events it handles, for verifying the impressions of evaluations.
+ */
+class RecordingEventHandler implements EventHandler {
+    private final List<Event> events = Collections.synchronizedList(new ArrayList<>());
+
+    List<Event> getEvents() {
+        return events;
+    }
+
+    @Override
+    public boolean handle(Event event) {
+        return events.add(event);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
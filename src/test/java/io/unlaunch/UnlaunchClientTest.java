@@ -0,0 +1,131 @@
+package io.unlaunch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the default methods of {@link UnlaunchClient} with a client that only implements evaluating one flag.
+ */
+public class UnlaunchClientTest {
+
+    private final PerFlagClient client = new PerFlagClient();
+
+    @Test
+    public void testFeaturesAreEvaluatedOneByOne() {
+        Map<String, UnlaunchFeature> features = client.getFeatures(Arrays.asList("a", "b"), "user123",
+                UnlaunchAttribute.newString("country", "USA"));
+
+        Assert.assertEquals(2, features.size());
+        Assert.assertEquals("on", features.get("a").getVariation());
+        Assert.assertEquals("on", features.get("b").getVariation());
+        Assert.assertEquals(Arrays.asList("a:user123", "b:user123"), client.evaluations);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testAllFeaturesAreNotSupported() {
+        client.getAllFeatures("user123");
+    }
+
+    @Test
+    public void testContextIsPassedAsIdentityAndAttributes() {
+        EvaluationContext withAttributes = EvaluationContext.create("user123",
+                UnlaunchAttribute.newString("country", "USA"));
+        EvaluationContext withoutAttributes = EvaluationContext.create("user456");
+
+        Assert.assertEquals("on", client.getVariation("a", withAttributes));
+        Assert.assertEquals("off", client.getFeature("b", withoutAttributes).getVariation());
+        Assert.assertEquals("on", client.getFeatures(Arrays.asList("c"), withAttributes).get("c").getVariation());
+        Assert.assertEquals(Arrays.asList("a:user123", "b:user456", "c:user123"), client.evaluations);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testContextIsRequired() {
+        client.getFeature("a", (EvaluationContext) null);
+    }
+
+    @Test
+    public void testCacheStatsAreZero() {
+        Assert.assertEquals(0, client.evaluationCacheStats().getHitCount());
+        Assert.assertEquals(0, client.evaluationCacheStats().getMissCount());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testScopesAreNotSupported() {
+        client.openScope();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testFlagHandlesAreNotSupported() {
+        client.getFlagHandle("a", EvaluationContext.create("user123"));
+    }
+
+    @Test
+    public void testContextsAreEvaluatedInBulkOneByOne() {
+        List<EvaluationContext> contexts = Arrays.asList(
+                EvaluationContext.create("user1", UnlaunchAttribute.newString("country", "USA")),
+                EvaluationContext.create("user2"),
+                EvaluationContext.create("user3"));
+        List<String> consumed = new ArrayList<>();
+
+        BulkEvaluationResult result = client.evaluateBulk("a", contexts.iterator(),
+                (context, feature) -> consumed.add(context.getIdentity() + "=" + feature.getVariation()),
+                BulkEvaluationOptions.defaults());
+
+        Assert.assertEquals(3, result.getEvaluatedCount());
+        Assert.assertEquals(Long.valueOf(1), result.getVariationCounts().get("on"));
+        Assert.assertEquals(Long.valueOf(2), result.getVariationCounts().get("off"));
+        Assert.assertEquals(Arrays.asList("user1=on", "user2=off", "user3=off"), consumed);
+    }
+
+    /**
+     * A client written before the methods with default implementations were added.
+     */
+    private static final class PerFlagClient implements UnlaunchClient {
+        private final List<String> evaluations = new ArrayList<>();
+
+        @Override
+        public AccountDetails accountDetails() {
+            return null;
+        }
+
+        @Override
+        public String getVariation(String flagKey, String identity) {
+            return getFeature(flagKey, identity).getVariation();
+        }
+
+        @Override
+        public String getVariation(String flagKey, String identity, UnlaunchAttribute... attributes) {
+            return getFeature(flagKey, identity, attributes).getVariation();
+        }
+
+        @Override
+        public UnlaunchFeature getFeature(String flagKey, String identity) {
+            return getFeature(flagKey, identity, new UnlaunchAttribute[0]);
+        }
+
+        @Override
+        public UnlaunchFeature getFeature(String flagKey, String identity, UnlaunchAttribute... attributes) {
+            evaluations.add(flagKey + ":" + identity);
+            return UnlaunchFeature.create(flagKey, attributes == null || attributes.length == 0 ? "off" : "on", null);
+        }
+
+        @Override
+        public void awaitUntilReady(long timeout, TimeUnit unit) {
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+}
@@ -18,6 +18,7 @@ import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
 import org.mockito.Mockito;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -88,7 +89,7 @@ public class AttributeTypeTest {
         
         UnlaunchUser user = Mockito.mock(UnlaunchUser.class);
         when(user.getId()).thenReturn(userId);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
         
         Condition condition = new Condition("locale", Operator.EQUALS, AttributeType.STRING, "en-US");
         List<Condition> conditions = new ArrayList<>();
@@ -121,7 +122,7 @@ public class AttributeTypeTest {
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("locale", stringValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("locale", Operator.NOT_EQUALS, AttributeType.STRING, "en-US");
         
@@ -156,7 +157,7 @@ public class AttributeTypeTest {
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("locale", stringValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("locale", Operator.STARTS_WITH, AttributeType.STRING, "en");
         
@@ -191,7 +192,7 @@ public class AttributeTypeTest {
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("locale", stringValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("locale", Operator.ENDS_WITH, AttributeType.STRING, "US");
         
@@ -226,7 +227,7 @@ public class AttributeTypeTest {
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("locale", stringValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("locale", Operator.NOT_STARTS_WITH, AttributeType.STRING, "en-US");
         
@@ -261,7 +262,7 @@ public class AttributeTypeTest {
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("locale", stringValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("locale", Operator.NOT_ENDS_WITH, AttributeType.STRING, "en-US");
         
@@ -294,7 +295,7 @@ public class AttributeTypeTest {
 
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("locale", stringValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("locale", Operator.CONTAINS, AttributeType.STRING, "n-U");
 
@@ -327,7 +328,7 @@ public class AttributeTypeTest {
 
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("locale", stringValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("locale", Operator.NOT_CONTAINS, AttributeType.STRING, "n-1");
 
@@ -359,12 +360,11 @@ public class AttributeTypeTest {
         UnlaunchUser user = Mockito.mock(UnlaunchUser.class);
         when(user.getId()).thenReturn(userId);
         
-        UnlaunchNumberValue numberValue = Mockito.mock(UnlaunchNumberValue.class);
-        when(numberValue.toString()).thenReturn("123");
+        UnlaunchNumberValue numberValue = new UnlaunchNumberValue(123);
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("epoch", numberValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("epoch", Operator.EQUALS, AttributeType.NUMBER, "123");
         
@@ -394,12 +394,11 @@ public class AttributeTypeTest {
         UnlaunchUser user = Mockito.mock(UnlaunchUser.class);
         when(user.getId()).thenReturn(userId);
         
-        UnlaunchNumberValue numberValue = Mockito.mock(UnlaunchNumberValue.class);
-        when(numberValue.toString()).thenReturn("312");
+        UnlaunchNumberValue numberValue = new UnlaunchNumberValue(312);
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("epoch", numberValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("epoch", Operator.NOT_EQUALS, AttributeType.NUMBER, "123");
         
@@ -429,12 +428,11 @@ public class AttributeTypeTest {
         UnlaunchUser user = Mockito.mock(UnlaunchUser.class);
         when(user.getId()).thenReturn(userId);
         
-        UnlaunchNumberValue numberValue = Mockito.mock(UnlaunchNumberValue.class);
-        when(numberValue.toString()).thenReturn("233");
+        UnlaunchNumberValue numberValue = new UnlaunchNumberValue(233);
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("epoch", numberValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("epoch", Operator.GREATER_THAN, AttributeType.NUMBER, "123");
         
@@ -464,12 +462,11 @@ public class AttributeTypeTest {
         UnlaunchUser user = Mockito.mock(UnlaunchUser.class);
         when(user.getId()).thenReturn(userId);
         
-        UnlaunchNumberValue numberValue = Mockito.mock(UnlaunchNumberValue.class);
-        when(numberValue.toString()).thenReturn("2983");
+        UnlaunchNumberValue numberValue = new UnlaunchNumberValue(2983);
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("epoch", numberValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("epoch", Operator.GREATER_THAN_OR_EQUALS, AttributeType.NUMBER, "123");
         
@@ -499,12 +496,11 @@ public class AttributeTypeTest {
         UnlaunchUser user = Mockito.mock(UnlaunchUser.class);
         when(user.getId()).thenReturn(userId);
         
-        UnlaunchNumberValue numberValue = Mockito.mock(UnlaunchNumberValue.class);
-        when(numberValue.toString()).thenReturn("32");
+        UnlaunchNumberValue numberValue = new UnlaunchNumberValue(32);
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("epoch", numberValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("epoch", Operator.LESS_THAN, AttributeType.NUMBER, "123");
         
@@ -534,12 +530,11 @@ public class AttributeTypeTest {
         UnlaunchUser user = Mockito.mock(UnlaunchUser.class);
         when(user.getId()).thenReturn(userId);
         
-        UnlaunchNumberValue numberValue = Mockito.mock(UnlaunchNumberValue.class);
-        when(numberValue.toString()).thenReturn("23");
+        UnlaunchNumberValue numberValue = new UnlaunchNumberValue(23);
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("epoch", numberValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("epoch", Operator.LESS_THAN_OR_EQUALS, AttributeType.NUMBER, "123");
         
@@ -571,12 +566,11 @@ public class AttributeTypeTest {
         UnlaunchUser user = Mockito.mock(UnlaunchUser.class);
         when(user.getId()).thenReturn(userId);
         
-        UnlaunchDateTimeValue dateValue = Mockito.mock(UnlaunchDateTimeValue.class);
-        when(dateValue.get()).thenReturn(LocalDateTime.now(ZoneId.of("UTC")));
+        UnlaunchDateTimeValue dateValue = new UnlaunchDateTimeValue(LocalDateTime.now(ZoneId.of("UTC")));
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("start_date", dateValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("start_date", Operator.EQUALS, AttributeType.DATE, String.valueOf(new Date().getTime()));
         
@@ -606,12 +600,11 @@ public class AttributeTypeTest {
         UnlaunchUser user = Mockito.mock(UnlaunchUser.class);
         when(user.getId()).thenReturn(userId);
         
-        UnlaunchDateTimeValue dateValue = Mockito.mock(UnlaunchDateTimeValue.class);
-        when(dateValue.get()).thenReturn(LocalDateTime.now(ZoneId.of("UTC")).minusDays(1));
+        UnlaunchDateTimeValue dateValue = new UnlaunchDateTimeValue(LocalDateTime.now(ZoneId.of("UTC")).minusDays(1));
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("start_date", dateValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("start_date", Operator.NOT_EQUALS, AttributeType.DATE, String.valueOf(new Date().getTime()));
         
@@ -641,12 +634,11 @@ public class AttributeTypeTest {
         UnlaunchUser user = Mockito.mock(UnlaunchUser.class);
         when(user.getId()).thenReturn(userId);
         
-        UnlaunchDateTimeValue dateValue = Mockito.mock(UnlaunchDateTimeValue.class);
-        when(dateValue.get()).thenReturn(LocalDateTime.now(ZoneOffset.UTC).plusDays(1));
+        UnlaunchDateTimeValue dateValue = new UnlaunchDateTimeValue(LocalDateTime.now(ZoneOffset.UTC).plusDays(1));
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("start_date", dateValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("start_date", Operator.GREATER_THAN, AttributeType.DATE, String.valueOf(new Date().getTime()));
         
@@ -676,12 +668,11 @@ public class AttributeTypeTest {
         UnlaunchUser user = Mockito.mock(UnlaunchUser.class);
         when(user.getId()).thenReturn(userId);
         
-        UnlaunchDateTimeValue dateValue = Mockito.mock(UnlaunchDateTimeValue.class);
-        when(dateValue.get()).thenReturn(LocalDateTime.now().minusWeeks(1));
+        UnlaunchDateTimeValue dateValue = new UnlaunchDateTimeValue(LocalDateTime.now().minusWeeks(1));
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("start_date", dateValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("start_date", Operator.LESS_THAN, AttributeType.DATE, String.valueOf(new Date().getTime()));
         
@@ -711,12 +702,11 @@ public class AttributeTypeTest {
         UnlaunchUser user = Mockito.mock(UnlaunchUser.class);
         when(user.getId()).thenReturn(userId);
         
-        UnlaunchDateTimeValue dateValue = Mockito.mock(UnlaunchDateTimeValue.class);
-        when(dateValue.get()).thenReturn(LocalDateTime.now(ZoneOffset.UTC));
+        UnlaunchDateTimeValue dateValue = new UnlaunchDateTimeValue(LocalDateTime.now(ZoneOffset.UTC));
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("start_date", dateValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("start_date", Operator.GREATER_THAN_OR_EQUALS, AttributeType.DATE, String.valueOf(new Date().getTime()));
         
@@ -746,12 +736,11 @@ public class AttributeTypeTest {
         UnlaunchUser user = Mockito.mock(UnlaunchUser.class);
         when(user.getId()).thenReturn(userId);
         
-        UnlaunchDateTimeValue dateValue = Mockito.mock(UnlaunchDateTimeValue.class);
-        when(dateValue.get()).thenReturn(LocalDateTime.now().minusDays(2));
+        UnlaunchDateTimeValue dateValue = new UnlaunchDateTimeValue(LocalDateTime.now().minusDays(2));
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("start_date", dateValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("start_date", Operator.LESS_THAN_OR_EQUALS, AttributeType.DATE, String.valueOf(new Date().getTime()));
         
@@ -783,12 +772,11 @@ public class AttributeTypeTest {
         UnlaunchUser user = Mockito.mock(UnlaunchUser.class);
         when(user.getId()).thenReturn(userId);
         
-        UnlaunchDateTimeValue dateValue = Mockito.mock(UnlaunchDateTimeValue.class);
-        when(dateValue.get()).thenReturn(LocalDateTime.now().minusDays(2));
+        UnlaunchDateTimeValue dateValue = new UnlaunchDateTimeValue(LocalDateTime.now().minusDays(2));
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("start_date", dateValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("start_date", Operator.LESS_THAN, AttributeType.DATE, String.valueOf(new Date().getTime()));
         
@@ -818,12 +806,11 @@ public class AttributeTypeTest {
         UnlaunchUser user = Mockito.mock(UnlaunchUser.class);
         when(user.getId()).thenReturn(userId);
         
-        UnlaunchDateTimeValue dateValue = Mockito.mock(UnlaunchDateTimeValue.class);
-        when(dateValue.get()).thenReturn(LocalDateTime.now(ZoneId.of("UTC")));
+        UnlaunchDateTimeValue dateValue = new UnlaunchDateTimeValue(LocalDateTime.now(ZoneId.of("UTC")));
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("start_date", dateValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("start_date", Operator.LESS_THAN_OR_EQUALS, AttributeType.DATE, String.valueOf(new Date().getTime()));
         
@@ -853,12 +840,11 @@ public class AttributeTypeTest {
         UnlaunchUser user = Mockito.mock(UnlaunchUser.class);
         when(user.getId()).thenReturn(userId);
         
-        UnlaunchDateTimeValue dateValue = Mockito.mock(UnlaunchDateTimeValue.class);
-        when(dateValue.get()).thenReturn(LocalDateTime.now(ZoneOffset.UTC));
+        UnlaunchDateTimeValue dateValue = new UnlaunchDateTimeValue(LocalDateTime.now(ZoneOffset.UTC));
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("start_date", dateValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("start_date", Operator.GREATER_THAN_OR_EQUALS, AttributeType.DATE, String.valueOf(new Date().getTime()));
         
@@ -888,12 +874,11 @@ public class AttributeTypeTest {
         UnlaunchUser user = Mockito.mock(UnlaunchUser.class);
         when(user.getId()).thenReturn(userId);
         
-        UnlaunchDateTimeValue dateValue = Mockito.mock(UnlaunchDateTimeValue.class);
-        when(dateValue.get()).thenReturn(LocalDateTime.now().plusDays(2));
+        UnlaunchDateTimeValue dateValue = new UnlaunchDateTimeValue(LocalDateTime.now().plusDays(2));
         
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("start_date", dateValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition("start_date", Operator.GREATER_THAN, AttributeType.DATE, String.valueOf(new Date().getTime()));
         
@@ -11,6 +11,7 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.mockito.Mockito;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -325,6 +326,6 @@ public class EvaluatorTest {
         Map<String, UnlaunchValue> map = new HashMap();
         map.put("gender", stringValue);
 
-        when(percentRolloutUser.getAllAttributes()).thenReturn(map);
+        when(percentRolloutUser.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
     }
 }
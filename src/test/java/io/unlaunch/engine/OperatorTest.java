@@ -6,8 +6,13 @@
 package io.unlaunch.engine;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 
 import io.unlaunch.exceptions.UnlaunchAttributeCastException;
 import org.junit.Assert;
@@ -21,30 +26,30 @@ public class OperatorTest {
     
     @Test
     public void testEquals(){
-        boolean result = Operator.EQUALS.apply("java, csharp,    node", new UnlaunchStringValue("java, csharp,    node"), AttributeType.STRING);
+        boolean result = apply(Operator.EQUALS, "java, csharp,    node", new UnlaunchStringValue("java, csharp,    node"), AttributeType.STRING);
         
         Assert.assertEquals("Result EQ: true", true, result);
     }
 
     @Test(expected = UnlaunchAttributeCastException.class)
     public void testEqualsWrongDateAttribute(){
-        Operator.EQUALS.apply("1612314129000", new UnlaunchStringValue("invalidDate"), AttributeType.DATE);
+        apply(Operator.EQUALS, "1612314129000", new UnlaunchStringValue("invalidDate"), AttributeType.DATE);
     }
 
     @Test(expected = UnlaunchAttributeCastException.class)
     public void testEqualsWrongSetAttribute(){
-        Operator.EQUALS.apply("value", new UnlaunchBooleanValue(true), AttributeType.SET);
+        apply(Operator.EQUALS, "value", new UnlaunchBooleanValue(true), AttributeType.SET);
     }
 
     @Test(expected = UnlaunchAttributeCastException.class)
     public void testEqualsWrongNumberAttribute(){
-        Operator.EQUALS.apply("value", new UnlaunchBooleanValue(true), AttributeType.NUMBER);
+        apply(Operator.EQUALS, "value", new UnlaunchBooleanValue(true), AttributeType.NUMBER);
     }
 
     @Test
     public void testNotEquals(){
     
-        boolean result = Operator.NOT_EQUALS.apply("Canada", new UnlaunchStringValue("USA"), AttributeType.STRING);
+        boolean result = apply(Operator.NOT_EQUALS, "Canada", new UnlaunchStringValue("USA"), AttributeType.STRING);
         
         Assert.assertEquals("Result NEQ: true", true, result);
     }
@@ -53,7 +58,7 @@ public class OperatorTest {
     public void testEqualsInNumberAttribute(){
     
         Number userValue = 10.5;
-        boolean result = Operator.EQUALS.apply(String.valueOf(userValue), new UnlaunchNumberValue(userValue), AttributeType.NUMBER);
+        boolean result = apply(Operator.EQUALS, String.valueOf(userValue), new UnlaunchNumberValue(userValue), AttributeType.NUMBER);
         
         Assert.assertEquals("Result EQ: true", true, result);
     }
@@ -61,35 +66,35 @@ public class OperatorTest {
     @Test
     public void testNotEqualsInNumberAttribute(){
 
-        boolean result = Operator.NOT_EQUALS.apply(String.valueOf(10.7), new UnlaunchNumberValue(10.5), AttributeType.NUMBER);
+        boolean result = apply(Operator.NOT_EQUALS, String.valueOf(10.7), new UnlaunchNumberValue(10.5), AttributeType.NUMBER);
         
         Assert.assertEquals("Result NEQ: true", true, result);
     }
     
     @Test
     public void testGreaterThan(){
-        boolean result = Operator.GREATER_THAN.apply(String.valueOf(10), new UnlaunchNumberValue(15), AttributeType.STRING);
+        boolean result = apply(Operator.GREATER_THAN, String.valueOf(10), new UnlaunchNumberValue(15), AttributeType.STRING);
         
         Assert.assertEquals("Result GT: true", true, result);
     }
     
     @Test
     public void testGreaterThanOrEquals(){
-        boolean result = Operator.GREATER_THAN_OR_EQUALS.apply(String.valueOf(18), new UnlaunchNumberValue(18), AttributeType.STRING);
+        boolean result = apply(Operator.GREATER_THAN_OR_EQUALS, String.valueOf(18), new UnlaunchNumberValue(18), AttributeType.STRING);
         
         Assert.assertEquals("Result GTE: true.", true, result);
     }
     
     @Test
     public void testLT(){
-        boolean result = Operator.LESS_THAN.apply(String.valueOf(1800), new UnlaunchNumberValue(1500), AttributeType.STRING);
+        boolean result = apply(Operator.LESS_THAN, String.valueOf(1800), new UnlaunchNumberValue(1500), AttributeType.STRING);
         
         Assert.assertEquals("Result LT: true", true, result);
     }
     
     @Test
     public void testLTE() {
-        boolean result = Operator.LESS_THAN_OR_EQUALS.apply(String.valueOf(1800), new UnlaunchNumberValue(1800), AttributeType.STRING);
+        boolean result = apply(Operator.LESS_THAN_OR_EQUALS, String.valueOf(1800), new UnlaunchNumberValue(1800), AttributeType.STRING);
 
         Assert.assertEquals("Result LTE: true", true, result);
     }
@@ -104,7 +109,7 @@ public class OperatorTest {
         LocalDateTime dayBeforeDateTime = localDateTime.minusDays(1l);
         long dayBeforeEpoch = dayBeforeDateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
         
-        boolean result = Operator.LESS_THAN_OR_EQUALS.apply(String.valueOf(dayBeforeEpoch), new UnlaunchDateTimeValue(localDateTime), AttributeType.DATE_TIME);
+        boolean result = apply(Operator.LESS_THAN_OR_EQUALS, String.valueOf(dayBeforeEpoch), new UnlaunchDateTimeValue(localDateTime), AttributeType.DATE_TIME);
 
         Assert.assertEquals("Result LEQ: False", false, result);
     }
@@ -118,7 +123,7 @@ public class OperatorTest {
         LocalDateTime tomorrowDateTime = localDateTime.plusDays(1l);
         long tomorrowEpoch = tomorrowDateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
 
-        boolean result = Operator.GREATER_THAN_OR_EQUALS.apply(String.valueOf(tomorrowEpoch), new UnlaunchDateTimeValue(localDateTime), AttributeType.DATE_TIME);
+        boolean result = apply(Operator.GREATER_THAN_OR_EQUALS, String.valueOf(tomorrowEpoch), new UnlaunchDateTimeValue(localDateTime), AttributeType.DATE_TIME);
 
         Assert.assertEquals("Result GTE: false", false, result);
     }
@@ -133,7 +138,7 @@ public class OperatorTest {
         LocalDateTime yesterdayDateTime = localDateTime.minusDays(1l);
         long dayBeforeEpoch = yesterdayDateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
 
-        boolean result = Operator.GREATER_THAN.apply(String.valueOf(dayBeforeEpoch), new UnlaunchDateTimeValue(localDateTime), AttributeType.DATE_TIME);
+        boolean result = apply(Operator.GREATER_THAN, String.valueOf(dayBeforeEpoch), new UnlaunchDateTimeValue(localDateTime), AttributeType.DATE_TIME);
 
         Assert.assertEquals("Result GT: True", true, result);
     }
@@ -141,43 +146,262 @@ public class OperatorTest {
     
     @Test
     public void testSW(){
-        boolean result = Operator.STARTS_WITH.apply("java", new UnlaunchStringValue("java-sdk"), AttributeType.STRING);
+        boolean result = apply(Operator.STARTS_WITH, "java", new UnlaunchStringValue("java-sdk"), AttributeType.STRING);
         
         Assert.assertEquals("Result SW: true", true, result);
     }
     
     @Test
     public void testNSW(){
-        boolean result = Operator.NOT_STARTS_WITH.apply("sdk", new UnlaunchStringValue("java-sdk"), AttributeType.STRING);
+        boolean result = apply(Operator.NOT_STARTS_WITH, "sdk", new UnlaunchStringValue("java-sdk"), AttributeType.STRING);
         
         Assert.assertEquals("Result NSW: true.", true, result);
     }
     
     @Test
     public void testEW(){
-        boolean result = Operator.ENDS_WITH.apply("sdk", new UnlaunchStringValue("java-sdk"), AttributeType.STRING);
+        boolean result = apply(Operator.ENDS_WITH, "sdk", new UnlaunchStringValue("java-sdk"), AttributeType.STRING);
         
         Assert.assertEquals("Result EW: true", true, result);
     }
     
     @Test
     public void testNEW(){
-        boolean result = Operator.NOT_ENDS_WITH.apply("java", new UnlaunchStringValue("java-sdk"), AttributeType.STRING);
+        boolean result = apply(Operator.NOT_ENDS_WITH, "java", new UnlaunchStringValue("java-sdk"), AttributeType.STRING);
         
         Assert.assertEquals("Result NEW: true.", true, result);
     }
     
     @Test
     public void testContains(){
-        boolean result = Operator.CONTAINS.apply("java", new UnlaunchStringValue("sdk, java"), AttributeType.STRING);
+        boolean result = apply(Operator.CONTAINS, "java", new UnlaunchStringValue("sdk, java"), AttributeType.STRING);
         
         Assert.assertEquals("Result Contains: true.", true, result);
     }
     
     @Test
     public void testIsOneOf() {
-        boolean result = Operator.IS_ONE_OF.apply("java-sdk", new UnlaunchStringValue("java-sdk"), AttributeType.STRING);
+        boolean result = apply(Operator.IS_ONE_OF, "java-sdk", new UnlaunchStringValue("java-sdk"), AttributeType.STRING);
 
         Assert.assertEquals("Result IOF: true", true, result);
     }
+
+    @Test
+    public void testOperandIsParsedOnlyForItsOperator() {
+        Operand date = Operand.of(Operator.EQUALS, AttributeType.DATE, "1612314129000");
+
+        Assert.assertEquals(1612314129000L, date.getEpochMillis());
+        Assert.assertEquals(LocalDate.of(2021, 2, 3).toEpochDay(), date.getEpochDay());
+        Assert.assertFalse(date.isNumber());
+        Assert.assertTrue(Operator.EQUALS.apply(date,
+                new UnlaunchDateTimeValue(LocalDateTime.of(2021, 2, 3, 23, 59)), AttributeType.DATE));
+
+        Operand number = Operand.of(Operator.GREATER_THAN, AttributeType.NUMBER, "1612314129000");
+
+        Assert.assertEquals(1612314129000d, number.getNumber(), 0);
+        Assert.assertFalse(number.isEpochMillis());
+        Assert.assertTrue(Operator.GREATER_THAN.apply(number, new UnlaunchNumberValue(1612314129001L), AttributeType.NUMBER));
+
+        Operand text = Operand.of(Operator.STARTS_WITH, AttributeType.STRING, "1.2.3");
+
+        Assert.assertNull(text.getError());
+        Assert.assertFalse(text.isNumber());
+        Assert.assertFalse(text.isVersion());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testOperandCantBeReadByAnotherOperator() {
+        Operand operand = Operand.of(Operator.GREATER_THAN, AttributeType.NUMBER, "10");
+
+        operand.getValues();
+    }
+
+    @Test
+    public void testInvalidOperandIsReportedOnce() {
+        Assert.assertEquals("\"not a number\" is not a number",
+                Operand.of(Operator.GREATER_THAN, AttributeType.NUMBER, "not a number").getError());
+        Assert.assertEquals("\"today\" is not a date in milliseconds since epoch",
+                Operand.of(Operator.LESS_THAN, AttributeType.DATE_TIME, "today").getError());
+        Assert.assertEquals("\"latest\" is not a semantic version",
+                Operand.of(Operator.SEMVER_EQUALS, AttributeType.SEMVER, "latest").getError());
+        Assert.assertEquals("the value is missing",
+                Operand.of(Operator.STARTS_WITH, AttributeType.STRING, null).getError());
+        Assert.assertNull(Operand.of(Operator.IS_ONE_OF, AttributeType.STRING, "not a number").getError());
+        Assert.assertNull(Operand.of(Operator.EQUALS, AttributeType.STRING, null).getError());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidNumberOperandFailsWhenEvaluated() {
+        apply(Operator.GREATER_THAN, "not a number", new UnlaunchNumberValue(10), AttributeType.NUMBER);
+    }
+
+    @Test
+    public void testDateTimeComparisonKeepsSubMillisecondPrecision() {
+        LocalDateTime dateTime = LocalDateTime.of(2021, 2, 3, 1, 2, 9);
+        long epochMillis = dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+
+        Assert.assertFalse(apply(Operator.GREATER_THAN, String.valueOf(epochMillis),
+                new UnlaunchDateTimeValue(dateTime), AttributeType.DATE_TIME));
+        Assert.assertTrue(apply(Operator.GREATER_THAN, String.valueOf(epochMillis),
+                new UnlaunchDateTimeValue(dateTime.plusNanos(1)), AttributeType.DATE_TIME));
+        Assert.assertTrue(apply(Operator.LESS_THAN, String.valueOf(epochMillis),
+                new UnlaunchDateTimeValue(dateTime.minusNanos(1)), AttributeType.DATE_TIME));
+    }
+
+    @Test
+    public void testNumberValueIsComparedAsItsDecimalString() {
+        UnlaunchNumberValue userValue = new UnlaunchNumberValue(0.1f);
+
+        Assert.assertEquals("0.1", userValue.toString());
+        Assert.assertEquals(0.1, userValue.doubleValue(), 0);
+        Assert.assertTrue(apply(Operator.EQUALS, "0.1", userValue, AttributeType.NUMBER));
+    }
+
+    @Test
+    public void testDateTimeValueIsConvertedOnce() {
+        LocalDateTime dateTime = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_999);
+        UnlaunchDateTimeValue userValue = new UnlaunchDateTimeValue(dateTime);
+
+        Assert.assertEquals(-1, userValue.getEpochMillis());
+        Assert.assertTrue(userValue.hasSubMillis());
+        Assert.assertEquals(-1, userValue.getEpochDay());
+        Assert.assertTrue(apply(Operator.GREATER_THAN, "-1", userValue, AttributeType.DATE_TIME));
+    }
+
+    @Test
+    public void testSetOperatorsWithParsedOperand() {
+        Operand operand = Operand.of(Operator.IS_PART_OF, AttributeType.SET, "java,node,go");
+        UnlaunchSetValue userSet = new UnlaunchSetValue(new HashSet<>(Arrays.asList("java", "go")));
+
+        Assert.assertTrue(Operator.IS_PART_OF.apply(operand, userSet, AttributeType.SET));
+        Assert.assertTrue(Operator.HAS_ANY_OF.apply(operand, userSet, AttributeType.SET));
+        Assert.assertFalse(Operator.HAS_ALL_OF.apply(operand, userSet, AttributeType.SET));
+        Assert.assertFalse(Operator.EQUALS.apply(operand, userSet, AttributeType.SET));
+        Assert.assertTrue(Operator.IS_ONE_OF.apply(operand, new UnlaunchStringValue("node"), AttributeType.STRING));
+    }
+
+    @Test
+    public void testMatches() {
+        Condition condition = new Condition("email", Operator.MATCHES, AttributeType.STRING, "[a-z.]+@acme\\.(com|io)");
+
+        Assert.assertTrue(condition.match(new UnlaunchStringValue("jane.doe@acme.io")));
+        Assert.assertFalse(condition.match(new UnlaunchStringValue("jane.doe@acme.io.example.com")));
+        Assert.assertFalse(condition.match(new UnlaunchStringValue("Jane@acme.com")));
+        Assert.assertFalse(condition.match(new UnlaunchNumberValue(1)));
+        Assert.assertFalse(condition.match((UnlaunchValue) null));
+    }
+
+    @Test
+    public void testNotMatches() {
+        Condition condition = new Condition("email", Operator.NOT_MATCHES, AttributeType.STRING, ".*@acme\\.com");
+
+        Assert.assertTrue(condition.match(new UnlaunchStringValue("jane@example.com")));
+        Assert.assertFalse(condition.match(new UnlaunchStringValue("jane@acme.com")));
+        Assert.assertFalse(condition.match((UnlaunchValue) null));
+    }
+
+    @Test
+    public void testMatchesPatternIsCompiledOnceWhenConditionIsCreated() {
+        Condition condition = new Condition("email", Operator.MATCHES, AttributeType.STRING, "a+");
+
+        Assert.assertTrue(condition.getOperand().isPattern());
+        Assert.assertSame(condition.getOperand().getPattern(), condition.getOperand().getPattern());
+        Assert.assertFalse(new Condition("email", Operator.EQUALS, AttributeType.STRING, "a+").getOperand()
+                .isPattern());
+    }
+
+    @Test
+    public void testMatchesInvalidPatternMakesOperandInvalid() {
+        Condition condition = new Condition("email", Operator.NOT_MATCHES, AttributeType.STRING, "([a-z]");
+
+        Assert.assertFalse(condition.getOperand().isPattern());
+        Assert.assertTrue(condition.getOperand().getError().startsWith("\"([a-z]\" is not a regular expression"));
+        try {
+            condition.match(new UnlaunchStringValue("abc"));
+            Assert.fail("invalid pattern must be rejected");
+        } catch (IllegalArgumentException expected) {
+            Assert.assertTrue(expected.getMessage().contains("is not a regular expression"));
+        }
+    }
+
+    @Test
+    public void testMatchesValueLongerThanLimitDoesNotMatch() {
+        Condition condition = new Condition("name", Operator.MATCHES, AttributeType.STRING, "a*");
+        String value = String.join("", Collections.nCopies(Operator.MAX_PATTERN_INPUT_LENGTH, "a"));
+
+        Assert.assertTrue(condition.match(new UnlaunchStringValue(value)));
+        Assert.assertFalse(condition.match(new UnlaunchStringValue(value + "a")));
+
+        Condition negated = new Condition("name", Operator.NOT_MATCHES, AttributeType.STRING, "b*");
+
+        Assert.assertTrue(negated.match(new UnlaunchStringValue(value)));
+        Assert.assertFalse(negated.match(new UnlaunchStringValue(value + "a")));
+    }
+
+    @Test
+    public void testMatchesCatastrophicBacktrackingIsStopped() {
+        // Each repetition can end at any of the characters, so there are millions of ways to try
+        String value = String.join("", Collections.nCopies(30, "a"));
+        UnlaunchStringValue userValue = new UnlaunchStringValue(value + "b");
+
+        Assert.assertFalse(new Condition("name", Operator.MATCHES, AttributeType.STRING, "(.*a){20}").match(userValue));
+        Assert.assertFalse(new Condition("name", Operator.NOT_MATCHES, AttributeType.STRING, "(.*a){20}")
+                .match(userValue));
+        Assert.assertTrue(new Condition("name", Operator.NOT_MATCHES, AttributeType.STRING, "(.*a){20}")
+                .match(new UnlaunchStringValue("b")));
+    }
+
+    @Test
+    public void testSemverOperators() {
+        UnlaunchStringValue userValue = new UnlaunchStringValue("2.10.1");
+
+        Assert.assertTrue(apply(Operator.SEMVER_GREATER_THAN, "2.9.12", userValue, AttributeType.SEMVER));
+        Assert.assertTrue(apply(Operator.SEMVER_GREATER_THAN_OR_EQUALS, "2.10.1", userValue, AttributeType.SEMVER));
+        Assert.assertTrue(apply(Operator.SEMVER_LESS_THAN, "2.10.1-rc.1+x", new UnlaunchStringValue("2.10.1-beta"),
+                AttributeType.SEMVER));
+        Assert.assertFalse(apply(Operator.SEMVER_LESS_THAN_OR_EQUALS, "2.10.0", userValue, AttributeType.SEMVER));
+        Assert.assertTrue(apply(Operator.SEMVER_EQUALS, "v2.10.1+build.3", userValue, AttributeType.SEMVER));
+        Assert.assertTrue(apply(Operator.SEMVER_EQUALS, "2.0.0", new UnlaunchNumberValue(2), AttributeType.SEMVER));
+        Assert.assertFalse(apply(Operator.SEMVER_EQUALS, "2.0.0", null, AttributeType.SEMVER));
+    }
+
+    @Test
+    public void testComparisonOfSemverAttributeComparesVersions() {
+        UnlaunchStringValue userValue = new UnlaunchStringValue("1.10.0");
+
+        Assert.assertTrue(apply(Operator.GREATER_THAN, "1.9.0", userValue, AttributeType.SEMVER));
+        Assert.assertFalse(apply(Operator.LESS_THAN, "1.9.0", userValue, AttributeType.SEMVER));
+        Assert.assertTrue(apply(Operator.EQUALS, "1.10", userValue, AttributeType.SEMVER));
+        Assert.assertFalse(apply(Operator.NOT_EQUALS, "1.10", userValue, AttributeType.SEMVER));
+    }
+
+    @Test
+    public void testUserVersionIsParsedOnce() {
+        UnlaunchStringValue userValue = new UnlaunchStringValue("3.1.4");
+
+        Assert.assertSame(userValue.getVersion(), Operator.getUserVersion(userValue));
+        Assert.assertSame(userValue.getVersion(), userValue.getVersion());
+
+        UnlaunchStringValue notAVersion = new UnlaunchStringValue("latest");
+
+        Assert.assertNull(notAVersion.getVersion());
+        Assert.assertNull(notAVersion.getVersion());
+    }
+
+    @Test(expected = UnlaunchAttributeCastException.class)
+    public void testSemverWrongAttribute() {
+        apply(Operator.SEMVER_GREATER_THAN, "1.0.0", new UnlaunchStringValue("latest"), AttributeType.SEMVER);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSemverWrongValue() {
+        apply(Operator.SEMVER_GREATER_THAN, "latest", new UnlaunchStringValue("1.0.0"), AttributeType.SEMVER);
+    }
+
+    /**
+     * Applies the operator to a raw condition value, parsed the way a condition parses it.
+     */
+    private static boolean apply(Operator operator, String value, UnlaunchValue userValue, AttributeType type) {
+        return operator.apply(Operand.of(operator, type, value), userValue, type);
+    }
 }
@@ -0,0 +1,1043 @@
+package io.unlaunch.engine;
+
+import io.unlaunch.EvaluationReasonCode;
+import io.unlaunch.UnlaunchFeature;
+import io.unlaunch.utils.UnlaunchTestHelper;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+
+public class PlanEvaluatorTest {
+
+    final String flagKey = "flag123";
+
+    private final PlanCompiler compiler = new PlanCompiler();
+    private final PlanEvaluator planEvaluator = new PlanEvaluator();
+    private final Evaluator evaluator = new Evaluator();
+
+    @Test
+    public void testWhen_FlagIsDisabled_Then_OffVariationIsServed() {
+        FeatureFlag flag = flag(false, Collections.emptyList(), defaultRule(split("ON", 100)), null);
+
+        UnlaunchFeature result = planEvaluator.evaluate(compiler.compile(flag), UnlaunchUser.create("user1"));
+
+        Assert.assertEquals("OFF", result.getVariation());
+        Assert.assertEquals("Default Variation served. Because the flag is disabled.", result.getEvaluationReason());
+    }
+
+    @Test
+    public void testWhen_UserIsInAllowList_Then_AllowListVariationIsServed() {
+        Variation on = variation("ON");
+        on.setAllowList("user 123,user26");
+        FeatureFlag flag = new FeatureFlag(flagKey, flagKey, listOf(on, variation("OFF")), null,
+                listOf(defaultRule(split("OFF", 100))), true, variation("OFF"), defaultRule(split("OFF", 100)),
+                null, "boolean");
+
+        UnlaunchFeature result = planEvaluator.evaluate(compiler.compile(flag), UnlaunchUser.create("user26"));
+
+        Assert.assertEquals("ON", result.getVariation());
+        Assert.assertEquals("Target User rules matched for identity: user26", result.getEvaluationReason());
+    }
+
+    @Test
+    public void testWhen_UserIsInMultipleAllowLists_Then_FirstVariationIsServed() {
+        Variation on = variation("ON");
+        on.setAllowList("user1,user2");
+        Variation off = variation("OFF");
+        off.setAllowList("user2,user3");
+        FeatureFlag flag = new FeatureFlag(flagKey, flagKey, listOf(on, off), null,
+                listOf(defaultRule(split("OFF", 100))), true, variation("OFF"), defaultRule(split("OFF", 100)),
+                null, "boolean");
+        EvaluationPlan plan = compiler.compile(flag);
+
+        for (String userId : new String[]{"user1", "user2", "user3", "user4"}) {
+            UnlaunchUser user = UnlaunchUser.create(userId);
+            UnlaunchFeature expected = evaluator.evaluate(flag, user);
+            UnlaunchFeature actual = planEvaluator.evaluate(plan, user);
+
+            Assert.assertEquals(expected.getVariation(), actual.getVariation());
+            Assert.assertEquals(expected.getEvaluationReason(), actual.getEvaluationReason());
+        }
+        Assert.assertEquals("ON", planEvaluator.evaluate(plan, UnlaunchUser.create("user2")).getVariation());
+    }
+
+    @Test
+    public void testWhen_RuleMatches_Then_RuleVariationIsServed() {
+        Rule rule = new Rule(false, 1,
+                listOf(new Condition("country", Operator.EQUALS, AttributeType.STRING, "USA")),
+                listOf(split("ON", 100)));
+        FeatureFlag flag = flag(true, listOf(rule), defaultRule(split("OFF", 100)), null);
+        EvaluationPlan plan = compiler.compile(flag);
+
+        UnlaunchUser user = UnlaunchUser.create("user1");
+        user.putAttribute("country", "USA");
+        UnlaunchFeature result = planEvaluator.evaluate(plan, user);
+        Assert.assertEquals("ON", result.getVariation());
+        Assert.assertEquals("Targeting Rule (priority #1) matched.", result.getEvaluationReason());
+
+        user.putAttribute("country", "Canada");
+        Assert.assertEquals("OFF", planEvaluator.evaluate(plan, user).getVariation());
+    }
+
+    @Test
+    public void testWhen_RulesAreIndexed_Then_FirstMatchingRuleIsServedSameAsEvaluator() {
+        String[] countries = {"US", "CA", "MX", "UK", "FR", "DE", "PK", "IN"};
+        List<Rule> rules = new ArrayList<>();
+        int priority = 1;
+        for (int i = 0; i < countries.length; i++) {
+            // Overlapping values, the rule with the higher priority must win
+            String values = countries[i] + "," + countries[(i + 1) % countries.length];
+            rules.add(new Rule(false, priority++,
+                    listOf(new Condition("country", Operator.IS_ONE_OF, AttributeType.STRING, values)),
+                    listOf(split(i % 2 == 0 ? "ON" : "OFF", 100))));
+
+            if (i == 2) {
+                // Not indexed, tested between the indexed rules
+                rules.add(new Rule(false, priority++,
+                        listOf(new Condition("plan", Operator.STARTS_WITH, AttributeType.STRING, "gold")),
+                        listOf(split("ON", 100))));
+            }
+        }
+        rules.add(new Rule(false, priority++,
+                listOf(new Condition("country", Operator.EQUALS, AttributeType.STRING, "UK"),
+                        new Condition("plan", Operator.EQUALS, AttributeType.STRING, "silver")),
+                listOf(split("ON", 100))));
+        rules.add(new Rule(false, priority,
+                listOf(new Condition("country", Operator.EQUALS, AttributeType.STRING, "JP")),
+                listOf(split("ON", 100))));
+
+        FeatureFlag flag = flag(true, rules, defaultRule(split("OFF", 50), split("ON", 50)), null);
+        EvaluationPlan plan = compiler.compile(flag);
+        Assert.assertTrue(plan.hasRuleIndex());
+
+        String[] userCountries = {"US", "CA", "MX", "UK", "FR", "DE", "PK", "IN", "JP", "BR", null};
+        String[] userPlans = {"gold", "silver", "bronze", null};
+        for (int i = 0; i < 200; i++) {
+            UnlaunchUser user = UnlaunchUser.create("user" + i);
+            String country = userCountries[i % userCountries.length];
+            String userPlan = userPlans[i % userPlans.length];
+            if (country != null) {
+                user.putAttribute("country", country);
+            }
+            if (userPlan != null) {
+                user.putAttribute("plan", userPlan);
+            }
+
+            UnlaunchFeature expected = evaluator.evaluate(flag, user);
+            UnlaunchFeature actual = planEvaluator.evaluate(plan, user);
+            Assert.assertEquals(expected.getVariation(), actual.getVariation());
+            Assert.assertEquals(expected.getEvaluationReason(), actual.getEvaluationReason());
+        }
+    }
+
+    @Test
+    public void testWhen_NumberBandsAreIndexed_Then_FirstMatchingRuleIsServedSameAsEvaluator() {
+        List<Rule> rules = new ArrayList<>();
+        int priority = 1;
+        for (int lower = 0; lower < 100; lower += 10) {
+            // Bands [lower, lower + 10), every other one also overlaps the next band
+            int upper = lower % 20 == 0 ? lower + 15 : lower + 10;
+            rules.add(new Rule(false, priority++,
+                    listOf(new Condition("amount", Operator.GREATER_THAN_OR_EQUALS, AttributeType.NUMBER,
+                                    String.valueOf(lower)),
+                            new Condition("amount", Operator.LESS_THAN, AttributeType.NUMBER, String.valueOf(upper))),
+                    listOf(split(lower % 20 == 0 ? "ON" : "OFF", 100))));
+        }
+        rules.add(new Rule(false, priority++,
+                listOf(new Condition("amount", Operator.GREATER_THAN, AttributeType.NUMBER, "200"),
+                        new Condition("country", Operator.EQUALS, AttributeType.STRING, "US")),
+                listOf(split("ON", 100))));
+        rules.add(new Rule(false, priority++,
+                listOf(new Condition("amount", Operator.LESS_THAN_OR_EQUALS, AttributeType.NUMBER, "-5")),
+                listOf(split("ON", 100))));
+        // Not indexed, tested between the indexed rules
+        rules.add(3, new Rule(false, priority,
+                listOf(new Condition("country", Operator.EQUALS, AttributeType.STRING, "CA")),
+                listOf(split("ON", 100))));
+
+        FeatureFlag flag = flag(true, rules, defaultRule(split("OFF", 50), split("ON", 50)), null);
+        EvaluationPlan plan = compiler.compile(flag);
+        Assert.assertTrue(plan.hasRuleIndex());
+
+        Object[] amounts = {-10, -5, -4.5, 0, -0.0, 5, 10, 14.999, 15, 20, 55, 99.5, 100, 200, 200.5, 1000,
+                Double.NaN, "text", null};
+        String[] countries = {"US", "CA", null};
+        for (int i = 0; i < amounts.length * countries.length; i++) {
+            UnlaunchUser user = UnlaunchUser.create("user" + i);
+            Object amount = amounts[i % amounts.length];
+            String country = countries[i / amounts.length];
+            if (amount != null) {
+                user.putAttribute("amount", amount);
+            }
+            if (country != null) {
+                user.putAttribute("country", country);
+            }
+
+            UnlaunchFeature expected = evaluator.evaluate(flag, user);
+            UnlaunchFeature actual = planEvaluator.evaluate(plan, user);
+            Assert.assertEquals(amount + " " + country, expected.getEvaluationReason(), actual.getEvaluationReason());
+            Assert.assertEquals(expected.getVariation(), actual.getVariation());
+        }
+    }
+
+    @Test
+    public void testWhen_DateTimeRangesAreIndexed_Then_FirstMatchingRuleIsServedSameAsEvaluator() {
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        List<Rule> rules = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            long millis = start.plusDays(i).toEpochSecond(ZoneOffset.UTC) * 1000;
+            rules.add(new Rule(false, i + 1,
+                    listOf(new Condition("signup", i % 2 == 0 ? Operator.LESS_THAN : Operator.GREATER_THAN,
+                            AttributeType.DATE_TIME, String.valueOf(millis))),
+                    listOf(split(i % 3 == 0 ? "ON" : "OFF", 100))));
+        }
+
+        FeatureFlag flag = flag(true, rules, defaultRule(split("OFF", 100)), null);
+        EvaluationPlan plan = compiler.compile(flag);
+        Assert.assertTrue(plan.hasRuleIndex());
+
+        for (int hours = -12; hours < 24 * 7; hours += 6) {
+            for (long nanos : new long[]{0, 1, 1_000_000}) {
+                UnlaunchUser user = UnlaunchUser.create("user1");
+                user.putAttribute("signup", start.plusHours(hours).plusNanos(nanos));
+
+                Assert.assertEquals(evaluator.evaluate(flag, user).getEvaluationReason(),
+                        planEvaluator.evaluate(plan, user).getEvaluationReason());
+            }
+        }
+    }
+
+    @Test
+    public void testWhen_StringConditionsAreMatchedTogether_Then_FirstMatchingRuleIsServedSameAsEvaluator() {
+        Object[][] conditions = {
+                {Operator.ENDS_WITH, "@gmail.com"},
+                {Operator.ENDS_WITH, "mail.com"},
+                {Operator.STARTS_WITH, "admin"},
+                {Operator.STARTS_WITH, "ad"},
+                {Operator.CONTAINS, "he"},
+                {Operator.CONTAINS, "she"},
+                {Operator.CONTAINS, "hers"},
+                {Operator.NOT_CONTAINS, "his"},
+                {Operator.NOT_STARTS_WITH, "a"},
+                {Operator.NOT_ENDS_WITH, ".org"},
+                {Operator.CONTAINS, ""},
+        };
+        List<Rule> rules = new ArrayList<>();
+        for (int i = 0; i < conditions.length; i++) {
+            Condition condition = new Condition("email", (Operator) conditions[i][0], AttributeType.STRING,
+                    (String) conditions[i][1]);
+            List<Condition> ruleConditions = i % 3 == 0 ?
+                    listOf(condition, new Condition("email", Operator.NOT_CONTAINS, AttributeType.STRING, "x")) :
+                    listOf(condition);
+            rules.add(new Rule(false, i + 1, ruleConditions, listOf(split(i % 2 == 0 ? "ON" : "OFF", 100))));
+        }
+
+        FeatureFlag flag = flag(true, rules, defaultRule(split("OFF", 100)), null);
+        EvaluationPlan plan = compiler.compile(flag);
+
+        Object[] emails = {"bob@gmail.com", "bob@hotmail.com", "admin@example.org", "adam@example.org",
+                "ushers@example.org", "this@example.org", "xshe@example.org", "a", "", 42, true, null};
+        for (int i = 0; i < emails.length; i++) {
+            UnlaunchUser user = UnlaunchUser.create("user" + i);
+            if (emails[i] != null) {
+                user.putAttribute("email", emails[i]);
+            }
+
+            Assert.assertEquals(String.valueOf(emails[i]), evaluator.evaluate(flag, user).getEvaluationReason(),
+                    planEvaluator.evaluate(plan, user).getEvaluationReason());
+        }
+    }
+
+    @Test
+    public void testWhen_SubstringsOverlap_Then_AllAreFound() {
+        Rule rule = new Rule(false, 1, listOf(
+                new Condition("text", Operator.CONTAINS, AttributeType.STRING, "he"),
+                new Condition("text", Operator.CONTAINS, AttributeType.STRING, "she"),
+                new Condition("text", Operator.CONTAINS, AttributeType.STRING, "hers"),
+                new Condition("text", Operator.NOT_CONTAINS, AttributeType.STRING, "his")),
+                listOf(split("ON", 100)));
+        EvaluationPlan plan = compiler.compile(flag(true, listOf(rule), defaultRule(split("OFF", 100)), null));
+
+        UnlaunchUser user = UnlaunchUser.create("user1");
+        user.putAttribute("text", "ushers");
+        Assert.assertEquals("ON", planEvaluator.evaluate(plan, user).getVariation());
+
+        user.putAttribute("text", "ushershis");
+        Assert.assertEquals("OFF", planEvaluator.evaluate(plan, user).getVariation());
+
+        user.putAttribute("text", "usher");
+        Assert.assertEquals("OFF", planEvaluator.evaluate(plan, user).getVariation());
+    }
+
+    @Test
+    public void testWhen_SetConditionsAreTestedAsBitSets_Then_FirstMatchingRuleIsServedSameAsEvaluator() {
+        Object[][] conditions = {
+                {Operator.HAS_ALL_OF, "read,write,admin"},
+                {Operator.EQUALS, "read,write"},
+                {Operator.IS_PART_OF, "read,write,billing"},
+                {Operator.HAS_ANY_OF, "billing,export"},
+                {Operator.DOES_NOT_HAVE_ANY_OF, "read"},
+                {Operator.DOES_NOT_HAVE_ALL_OF, "read,export"},
+                {Operator.IS_NOT_PART_OF, "read,export"},
+                {Operator.NOT_EQUALS, "export"},
+        };
+        List<Rule> rules = new ArrayList<>();
+        for (int i = 0; i < conditions.length; i++) {
+            rules.add(new Rule(false, i + 1,
+                    listOf(new Condition("permissions", (Operator) conditions[i][0], AttributeType.SET,
+                            (String) conditions[i][1])),
+                    listOf(split(i % 2 == 0 ? "ON" : "OFF", 100))));
+        }
+
+        // Every rule is also tested on its own, as the first matching rule hides the ones after it
+        List<FeatureFlag> flags = new ArrayList<>();
+        flags.add(flag(true, rules, defaultRule(split("OFF", 100)), null));
+        for (Rule rule : rules) {
+            flags.add(flag(true, listOf(rule), defaultRule(split("OFF", 100)), null));
+        }
+
+        List<Set<Object>> permissions = listOf(
+                setOf("read", "write", "admin", "extra"),
+                setOf("read", "write"),
+                setOf("write", "billing"),
+                setOf("write", "unknown"),
+                setOf("export"),
+                setOf("read", "export"),
+                setOf("read", 1),
+                setOf(),
+                null);
+        for (FeatureFlag flag : flags) {
+            EvaluationPlan plan = compiler.compile(flag);
+            for (int i = 0; i < permissions.size(); i++) {
+                UnlaunchUser user = UnlaunchUser.create("user" + i);
+                if (permissions.get(i) != null) {
+                    user.putAttribute("permissions", permissions.get(i));
+                }
+
+                Assert.assertEquals(String.valueOf(permissions.get(i)),
+                        evaluator.evaluate(flag, user).getEvaluationReason(),
+                        planEvaluator.evaluate(plan, user).getEvaluationReason());
+            }
+        }
+    }
+
+    @Test
+    public void testWhen_FewRulesCanBeIndexed_Then_RulesAreTestedOneByOne() {
+        Rule rule = new Rule(false, 1,
+                listOf(new Condition("country", Operator.EQUALS, AttributeType.STRING, "USA")),
+                listOf(split("ON", 100)));
+        EvaluationPlan plan = compiler.compile(flag(true, listOf(rule), defaultRule(split("OFF", 100)), null));
+
+        Assert.assertFalse(plan.hasRuleIndex());
+    }
+
+    @Test
+    public void testWhen_ConditionsAreReordered_Then_SelectiveConditionIsTestedFirstSameAsEvaluator() {
+        Rule rule = new Rule(false, 1,
+                listOf(new Condition("country", Operator.IS_ONE_OF, AttributeType.STRING, "US,CA"),
+                        new Condition("email", Operator.ENDS_WITH, AttributeType.STRING, ".com"),
+                        new Condition("plan", Operator.EQUALS, AttributeType.STRING, "gold")),
+                listOf(split("ON", 100)));
+        FeatureFlag flag = flag(true, listOf(rule), defaultRule(split("OFF", 100)), null);
+        EvaluationPlan plan = compiler.compile(flag);
+        RulePlan rulePlan = plan.getRules()[0];
+
+        List<UnlaunchUser> users = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            UnlaunchUser user = UnlaunchUser.create("user" + i);
+            user.putAttribute("country", i % 2 == 0 ? "US" : "CA");
+            user.putAttribute("email", "user" + i + ".com");
+            user.putAttribute("plan", i % 50 == 0 ? "gold" : "silver");
+            users.add(user);
+        }
+
+        for (int i = 0; i < 200 * ConditionStatistics.SAMPLE_INTERVAL; i++) {
+            planEvaluator.evaluate(plan, users.get(i % users.size()));
+        }
+        Assert.assertEquals(1, plan.reorderConditions());
+        Assert.assertEquals(2, rulePlan.getConditionOrder()[0]);
+
+        for (UnlaunchUser user : users) {
+            UnlaunchFeature expected = evaluator.evaluate(flag, user);
+            UnlaunchFeature actual = planEvaluator.evaluate(plan, user);
+            Assert.assertEquals(expected.getVariation(), actual.getVariation());
+            Assert.assertEquals(expected.getEvaluationReason(), actual.getEvaluationReason());
+        }
+    }
+
+    @Test
+    public void testWhen_SelectivityChanges_Then_ConditionsAreReorderedAgain() {
+        Rule rule = new Rule(false, 1,
+                listOf(new Condition("country", Operator.EQUALS, AttributeType.STRING, "US"),
+                        new Condition("plan", Operator.EQUALS, AttributeType.STRING, "gold")),
+                listOf(split("ON", 100)));
+        FeatureFlag flag = flag(true, listOf(rule), defaultRule(split("OFF", 100)), null);
+        EvaluationPlan plan = compiler.compile(flag);
+        RulePlan rulePlan = plan.getRules()[0];
+
+        // At first few users are in the US and all are on the gold plan, later it is the other way around
+        List<UnlaunchUser> before = new ArrayList<>();
+        List<UnlaunchUser> after = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            UnlaunchUser user = UnlaunchUser.create("user" + i);
+            user.putAttribute("country", i % 50 == 0 ? "US" : "CA");
+            user.putAttribute("plan", "gold");
+            before.add(user);
+
+            user = UnlaunchUser.create("user" + i);
+            user.putAttribute("country", "US");
+            user.putAttribute("plan", i % 50 == 0 ? "gold" : "silver");
+            after.add(user);
+        }
+
+        int period = 200 * ConditionStatistics.SAMPLE_INTERVAL;
+        for (int i = 0; i < 20 * period; i++) {
+            planEvaluator.evaluate(plan, before.get(i % before.size()));
+            if ((i + 1) % period == 0) {
+                plan.reorderConditions();
+            }
+        }
+        Assert.assertArrayEquals(new int[]{0, 1}, rulePlan.getConditionOrder());
+
+        // Older samples are outweighed after a few periods, without waiting for as many as were recorded before
+        for (int i = 0; i < 8 * period; i++) {
+            planEvaluator.evaluate(plan, after.get(i % after.size()));
+            if ((i + 1) % period == 0) {
+                plan.reorderConditions();
+            }
+        }
+        Assert.assertArrayEquals(new int[]{1, 0}, rulePlan.getConditionOrder());
+    }
+
+    @Test
+    public void testWhen_ConditionCanThrow_Then_ItIsNotReordered() {
+        Rule rule = new Rule(false, 1,
+                listOf(new Condition("country", Operator.EQUALS, AttributeType.STRING, "US"),
+                        new Condition("age", Operator.EQUALS, AttributeType.NUMBER, "30"),
+                        new Condition("email", Operator.CONTAINS, AttributeType.STRING, "@"),
+                        new Condition("plan", Operator.EQUALS, AttributeType.STRING, "gold")),
+                listOf(split("ON", 100)));
+        FeatureFlag flag = flag(true, listOf(rule), defaultRule(split("OFF", 100)), null);
+        EvaluationPlan plan = compiler.compile(flag);
+        RulePlan rulePlan = plan.getRules()[0];
+
+        for (int i = 0; i < 200 * ConditionStatistics.SAMPLE_INTERVAL; i++) {
+            UnlaunchUser user = UnlaunchUser.create("user" + i);
+            user.putAttribute("country", i % 10 == 0 ? "US" : "CA");
+            user.putAttribute("age", 30);
+            user.putAttribute("email", "user" + i + "@example.com");
+            user.putAttribute("plan", i % 50 == 0 ? "gold" : "silver");
+            planEvaluator.evaluate(plan, user);
+        }
+        plan.reorderConditions();
+
+        // The number condition stays second, the conditions after it are tested by selectivity
+        Assert.assertArrayEquals(new int[]{0, 1, 3, 2}, rulePlan.getConditionOrder());
+
+        UnlaunchUser user = UnlaunchUser.create("user1");
+        user.putAttribute("country", "US");
+        user.putAttribute("age", "thirty");
+        user.putAttribute("plan", "silver");
+        try {
+            evaluator.evaluate(flag, user);
+            Assert.fail("number condition must reject the value");
+        } catch (RuntimeException expected) {
+            try {
+                planEvaluator.evaluate(plan, user);
+                Assert.fail("number condition must reject the value");
+            } catch (RuntimeException actual) {
+                Assert.assertEquals(expected.getClass(), actual.getClass());
+                Assert.assertEquals(expected.getMessage(), actual.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testWhen_ConditionsAreCompiled_Then_ResultsAndErrorsAreSameAsEvaluator() {
+        assertSameOutcomesAsEvaluator(compiler);
+    }
+
+    @Test
+    public void testWhen_PredicatesAreGenerated_Then_ResultsAndErrorsAreSameAsEvaluator() {
+        EvaluationPlan plan = assertSameOutcomesAsEvaluator(new PlanCompiler(true));
+
+        for (RulePlan rule : plan.getRules()) {
+            Assert.assertTrue(rule.hasGeneratedPredicate());
+        }
+    }
+
+    @Test
+    public void testWhen_PredicatesAreGeneratedAndConditionsAreReordered_Then_ResultsAreSameAsEvaluator() {
+        Rule rule = new Rule(false, 1,
+                listOf(new Condition("country", Operator.IS_ONE_OF, AttributeType.STRING, "US,CA"),
+                        new Condition("plan", Operator.EQUALS, AttributeType.STRING, "gold")),
+                listOf(split("ON", 100)));
+        FeatureFlag flag = flag(true, listOf(rule), defaultRule(split("OFF", 100)), null);
+        EvaluationPlan plan = new PlanCompiler(true).compile(flag);
+        RulePlan rulePlan = plan.getRules()[0];
+
+        List<UnlaunchUser> users = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            UnlaunchUser user = UnlaunchUser.create("user" + i);
+            user.putAttribute("country", i % 2 == 0 ? "US" : "CA");
+            user.putAttribute("plan", i % 50 == 0 ? "gold" : "silver");
+            users.add(user);
+        }
+
+        for (int i = 0; i < 200 * ConditionStatistics.SAMPLE_INTERVAL; i++) {
+            planEvaluator.evaluate(plan, users.get(i % users.size()));
+        }
+        Assert.assertEquals(1, plan.reorderConditions());
+        Assert.assertArrayEquals(new int[]{1, 0}, rulePlan.getConditionOrder());
+        Assert.assertTrue(rulePlan.hasGeneratedPredicate());
+
+        for (UnlaunchUser user : users) {
+            Assert.assertEquals(outcome(() -> evaluator.evaluate(flag, user)),
+                    outcome(() -> planEvaluator.evaluate(plan, user)));
+        }
+    }
+
+    /**
+     * Compiles a rule for each operator and type and checks that random users get the same result, or error, as
+     * from the {@link Evaluator}.
+     *
+     * @return plan of the rules
+     */
+    private EvaluationPlan assertSameOutcomesAsEvaluator(PlanCompiler compiler) {
+        long day = LocalDateTime.of(2020, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC) * 1000;
+        Object[][] conditions = {
+                {"s", Operator.EQUALS, AttributeType.STRING, "gold"},
+                {"s", Operator.NOT_EQUALS, AttributeType.STRING, "gold"},
+                {"s", Operator.STARTS_WITH, AttributeType.STRING, "go"},
+                {"s", Operator.NOT_STARTS_WITH, AttributeType.STRING, "go"},
+                {"s", Operator.ENDS_WITH, AttributeType.STRING, "er"},
+                {"s", Operator.NOT_ENDS_WITH, AttributeType.STRING, "er"},
+                {"s", Operator.CONTAINS, AttributeType.STRING, "il"},
+                {"s", Operator.NOT_CONTAINS, AttributeType.STRING, "il"},
+                {"s", Operator.IS_ONE_OF, AttributeType.STRING, "gold,silver"},
+                {"s", Operator.MATCHES, AttributeType.STRING, "(gold|silver)(er)?"},
+                {"s", Operator.NOT_MATCHES, AttributeType.STRING, "g.*"},
+                {"n", Operator.EQUALS, AttributeType.NUMBER, "5"},
+                {"n", Operator.NOT_EQUALS, AttributeType.NUMBER, "5"},
+                {"n", Operator.GREATER_THAN, AttributeType.NUMBER, "5"},
+                {"n", Operator.GREATER_THAN_OR_EQUALS, AttributeType.NUMBER, "5"},
+                {"n", Operator.LESS_THAN, AttributeType.NUMBER, "5"},
+                {"n", Operator.LESS_THAN_OR_EQUALS, AttributeType.NUMBER, "5"},
+                {"d", Operator.EQUALS, AttributeType.DATE, String.valueOf(day)},
+                {"d", Operator.GREATER_THAN, AttributeType.DATE, String.valueOf(day)},
+                {"d", Operator.LESS_THAN_OR_EQUALS, AttributeType.DATE, String.valueOf(day)},
+                {"d", Operator.GREATER_THAN, AttributeType.DATE_TIME, String.valueOf(day)},
+                {"d", Operator.GREATER_THAN_OR_EQUALS, AttributeType.DATE_TIME, String.valueOf(day)},
+                {"set", Operator.HAS_ANY_OF, AttributeType.SET, "a,b"},
+                {"set", Operator.DOES_NOT_HAVE_ANY_OF, AttributeType.SET, "a,b"},
+                {"set", Operator.HAS_ALL_OF, AttributeType.SET, "a,b"},
+                {"set", Operator.DOES_NOT_HAVE_ALL_OF, AttributeType.SET, "a,b"},
+                {"set", Operator.IS_PART_OF, AttributeType.SET, "a,b,c"},
+                {"set", Operator.IS_NOT_PART_OF, AttributeType.SET, "a,b,c"},
+                {"set", Operator.EQUALS, AttributeType.SET, "a,b"},
+                {"v", Operator.SEMVER_EQUALS, AttributeType.SEMVER, "1.2"},
+                {"v", Operator.SEMVER_GREATER_THAN, AttributeType.SEMVER, "1.2.0"},
+                {"v", Operator.SEMVER_GREATER_THAN_OR_EQUALS, AttributeType.SEMVER, "1.2.0"},
+                {"v", Operator.SEMVER_LESS_THAN, AttributeType.SEMVER, "1.2.0-rc.2"},
+                {"v", Operator.SEMVER_LESS_THAN_OR_EQUALS, AttributeType.SEMVER, "1.2.0"},
+                {"v", Operator.GREATER_THAN, AttributeType.SEMVER, "1.10"},
+                {"v", Operator.NOT_EQUALS, AttributeType.SEMVER, "1.2.0"},
+                {"b", Operator.EQUALS, AttributeType.BOOLEAN, "true"},
+                {"b", Operator.NOT_EQUALS, AttributeType.BOOLEAN, "true"},
+        };
+
+        // Each rule tests one of the conditions, only for the users whose "rule" attribute names it
+        List<Rule> rules = new ArrayList<>();
+        for (int i = 0; i < conditions.length; i++) {
+            Object[] c = conditions[i];
+            rules.add(new Rule(false, i + 1,
+                    listOf(new Condition("rule", Operator.EQUALS, AttributeType.STRING, String.valueOf(i)),
+                            new Condition((String) c[0], (Operator) c[1], (AttributeType) c[2], (String) c[3])),
+                    listOf(split(i % 2 == 0 ? "ON" : "OFF", 100))));
+        }
+        FeatureFlag flag = flag(true, rules, defaultRule(split("OFF", 50), split("ON", 50)), null);
+        EvaluationPlan plan = compiler.compile(flag);
+
+        Object[] strings = {"gold", "silver", "golder", "copper", 7, null};
+        Object[] numbers = {4, 5, 5.5, Double.NaN, "5", "six", true, null};
+        Object[] dates = {LocalDateTime.of(2019, 12, 31, 23, 0), LocalDateTime.of(2020, 1, 1, 0, 0),
+                LocalDateTime.of(2020, 1, 1, 0, 0, 0, 1), LocalDateTime.of(2020, 1, 2, 12, 0), "2020", null};
+        Object[] sets = {setOf("a"), setOf("a", "b"), setOf("a", "b", "c", "d"), setOf("c"), setOf(1, "a"), "a",
+                null};
+        Object[] booleans = {true, false, "TRUE", null};
+        Object[] versions = {"1.2.0", "1.2", "1.2.0-rc.1", "1.10.0", "v2.0.0+build", 2, "latest", null};
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            UnlaunchUser user = UnlaunchUser.create("user" + i);
+            user.putAttribute("rule", String.valueOf(random.nextInt(conditions.length + 1)));
+            putIfNotNull(user, "s", strings[random.nextInt(strings.length)]);
+            putIfNotNull(user, "n", numbers[random.nextInt(numbers.length)]);
+            putIfNotNull(user, "d", dates[random.nextInt(dates.length)]);
+            putIfNotNull(user, "set", sets[random.nextInt(sets.length)]);
+            putIfNotNull(user, "b", booleans[random.nextInt(booleans.length)]);
+            putIfNotNull(user, "v", versions[random.nextInt(versions.length)]);
+
+            Assert.assertEquals(outcome(() -> evaluator.evaluate(flag, user)),
+                    outcome(() -> planEvaluator.evaluate(plan, user)));
+        }
+        return plan;
+    }
+
+    @Test
+    public void testWhen_ConditionValueCantBeRead_Then_FlagIsKeptAndFailsSameAsEvaluator() {
+        Object[][] conditions = {
+                {"s", Operator.STARTS_WITH, AttributeType.STRING, null, "gold"},
+                {"s", Operator.MATCHES, AttributeType.STRING, "(gold", "gold"},
+                {"s", Operator.NOT_MATCHES, AttributeType.STRING, "(gold", "gold"},
+                {"s", null, AttributeType.STRING, "gold", "gold"},
+                {"n", Operator.GREATER_THAN, AttributeType.NUMBER, "five", 5},
+                {"d", Operator.LESS_THAN, AttributeType.DATE_TIME, "today", LocalDateTime.of(2020, 1, 1, 0, 0)},
+                {"d", Operator.EQUALS, AttributeType.DATE, "2020-01-01", LocalDateTime.of(2020, 1, 1, 0, 0)},
+                {"v", Operator.SEMVER_GREATER_THAN, AttributeType.SEMVER, "latest", "1.0.0"},
+        };
+
+        for (Object[] c : conditions) {
+            assertSameOutcomesAsEvaluator(compiler, c);
+            assertSameOutcomesAsEvaluator(new PlanCompiler(true), c);
+        }
+    }
+
+    /**
+     * Compiles a flag with a rule on a condition whose value can't be read and checks that it fails the same
+     * evaluations as when it is interpreted.
+     */
+    private void assertSameOutcomesAsEvaluator(PlanCompiler compiler, Object[] c) {
+        Rule rule = new Rule(false, 1,
+                listOf(new Condition((String) c[0], (Operator) c[1], (AttributeType) c[2], (String) c[3])),
+                listOf(split("ON", 100)));
+        FeatureFlag invalid = new FeatureFlag("invalid", "invalid", listOf(variation("ON"), variation("OFF")),
+                null, listOf(rule), true, variation("OFF"), defaultRule(split("OFF", 100)), null, "boolean");
+        invalid.getVariations().get(0).setAllowList("vip");
+        FeatureFlag valid = flag(true, Collections.emptyList(), defaultRule(split("ON", 100)), null);
+
+        Map<String, EvaluationPlan> plans = compiler.compile(listOf(invalid, valid));
+        Assert.assertEquals(Arrays.toString(c), setOf("invalid", flagKey), new HashSet<>(plans.keySet()));
+
+        UnlaunchUser withoutAttribute = UnlaunchUser.create("user1");
+        UnlaunchUser allowListed = UnlaunchUser.create("vip");
+        allowListed.putAttribute((String) c[0], c[4]);
+        UnlaunchUser withAttribute = UnlaunchUser.create("user1");
+        withAttribute.putAttribute((String) c[0], c[4]);
+
+        Assert.assertEquals("OFF", planEvaluator.evaluate(plans.get("invalid"), withoutAttribute).getVariation());
+        Assert.assertEquals("ON", planEvaluator.evaluate(plans.get("invalid"), allowListed).getVariation());
+        for (UnlaunchUser user : listOf(withoutAttribute, allowListed, withAttribute)) {
+            Assert.assertEquals(Arrays.toString(c), outcome(() -> evaluator.evaluate(invalid, user)),
+                    outcome(() -> planEvaluator.evaluate(plans.get("invalid"), user)));
+        }
+        Assert.assertTrue(Arrays.toString(c),
+                outcome(() -> planEvaluator.evaluate(plans.get("invalid"), withAttribute)).contains("Exception"));
+    }
+
+    @Test
+    public void testWhen_RuleIsServed_Then_SharedResultIsReturned() {
+        Rule rule = new Rule(false, 2,
+                listOf(new Condition("country", Operator.EQUALS, AttributeType.STRING, "USA")),
+                listOf(split("ON", 100)));
+        FeatureFlag flag = flag(true, listOf(rule), defaultRule(split("OFF", 100)), null);
+        EvaluationPlan plan = compiler.compile(flag);
+
+        UnlaunchUser user1 = UnlaunchUser.create("user1");
+        user1.putAttribute("country", "USA");
+        UnlaunchUser user2 = UnlaunchUser.create("user2");
+        user2.putAttribute("country", "USA");
+
+        UnlaunchFeature result = planEvaluator.evaluate(plan, user1);
+        Assert.assertSame(result, planEvaluator.evaluate(plan, user2));
+        Assert.assertEquals(EvaluationReasonCode.TARGETING_RULE, result.getEvaluationReasonCode());
+        Assert.assertEquals("Targeting Rule (priority #2) matched.", result.getEvaluationReason());
+
+        UnlaunchFeature defaultResult = planEvaluator.evaluate(plan, UnlaunchUser.create("user3"));
+        Assert.assertSame(defaultResult, planEvaluator.evaluate(plan, UnlaunchUser.create("user4")));
+        Assert.assertEquals(EvaluationReasonCode.DEFAULT_RULE, defaultResult.getEvaluationReasonCode());
+    }
+
+    @Test
+    public void testWhen_UserIsInAllowList_Then_ReasonContainsIdentity() {
+        Variation on = variation("ON");
+        on.setAllowList("user1,user2");
+        FeatureFlag flag = new FeatureFlag(flagKey, flagKey, listOf(on, variation("OFF")), null,
+                listOf(defaultRule(split("OFF", 100))), true, variation("OFF"), defaultRule(split("OFF", 100)),
+                null, "boolean");
+        EvaluationPlan plan = compiler.compile(flag);
+
+        UnlaunchFeature result1 = planEvaluator.evaluate(plan, UnlaunchUser.create("user1"));
+        UnlaunchFeature result2 = planEvaluator.evaluate(plan, UnlaunchUser.create("user2"));
+
+        Assert.assertEquals(EvaluationReasonCode.TARGET_USER, result1.getEvaluationReasonCode());
+        Assert.assertEquals("Target User rules matched for identity: user1", result1.getEvaluationReason());
+        Assert.assertEquals("Target User rules matched for identity: user2", result2.getEvaluationReason());
+        Assert.assertSame(result1, planEvaluator.evaluate(plan, UnlaunchUser.create("user1")));
+    }
+
+    @Test
+    public void testWhen_PrerequisiteFails_Then_OffVariationIsServed() {
+        FeatureFlag prerequisite = new FeatureFlag("prerequisite", "prerequisite", listOf(variation("ON")), null,
+                Collections.emptyList(), true, variation("OFF"), defaultRule(split("ON", 100)), null, "boolean");
+
+        Map<FeatureFlag, Variation> prerequisites = new HashMap<>();
+        prerequisites.put(prerequisite, variation("OFF"));
+        FeatureFlag flag = flag(true, Collections.emptyList(), defaultRule(split("ON", 100)), prerequisites);
+
+        UnlaunchFeature result = planEvaluator.evaluate(compiler.compile(flag), UnlaunchUser.create("user1"));
+
+        Assert.assertEquals("OFF", result.getVariation());
+    }
+
+    @Test
+    public void testWhen_PrerequisiteIsDownloaded_Then_ItIsLinkedByKey() {
+        // The copy embedded in the dependent flag is stale, the downloaded prerequisite serves ON
+        FeatureFlag embeddedCopy = prerequisiteFlag("prerequisite", false, null);
+        FeatureFlag prerequisite = prerequisiteFlag("prerequisite", true, null);
+        FeatureFlag flag = prerequisiteFlag("dependent", true, prerequisites(embeddedCopy, "ON"));
+
+        Map<String, EvaluationPlan> plans = compiler.compile(listOf(flag, prerequisite));
+
+        Assert.assertSame(plans.get("prerequisite"), plans.get("dependent").getPrerequisites()[0].getPlan());
+        Assert.assertEquals("ON", planEvaluator.evaluate(plans.get("dependent"), UnlaunchUser.create("user1"))
+                .getVariation());
+    }
+
+    @Test
+    public void testWhen_PrerequisitesFormACycle_Then_FlagsAreLeftOut() {
+        FeatureFlag a = prerequisiteFlag("a", true,
+                prerequisites(prerequisiteFlag("b", true, null), "ON"));
+        FeatureFlag b = prerequisiteFlag("b", true,
+                prerequisites(prerequisiteFlag("a", true, null), "ON"));
+        FeatureFlag c = prerequisiteFlag("c", true, prerequisites(a, "ON"));
+        FeatureFlag d = prerequisiteFlag("d", true, null);
+
+        Map<String, EvaluationPlan> plans = compiler.compile(listOf(a, b, c, d));
+
+        Assert.assertEquals(Collections.singleton("d"), plans.keySet());
+    }
+
+    @Test
+    public void testWhen_PrerequisiteIsShared_Then_ItIsEvaluatedOnce() {
+        FeatureFlag a = targetedFlag("a");
+        FeatureFlag b = prerequisiteFlag("b", true, prerequisites(a, "ON"));
+        FeatureFlag c = prerequisiteFlag("c", true, prerequisites(a, "ON"));
+        Map<FeatureFlag, Variation> bAndC = prerequisites(b, "ON");
+        bAndC.putAll(prerequisites(c, "ON"));
+        FeatureFlag d = prerequisiteFlag("d", true, bAndC);
+        Map<String, EvaluationPlan> plans = compiler.compile(listOf(a, b, c, d));
+
+        int[] evaluations = {0};
+        UnlaunchUser user = new UnlaunchUser("user1") {
+            @Override
+            SlotValues getSlotValues(AttributeDictionary dictionary) {
+                evaluations[0]++;
+                return super.getSlotValues(dictionary);
+            }
+        };
+
+        Assert.assertEquals("ON", planEvaluator.evaluate(plans.get("d"), user).getVariation());
+        Assert.assertEquals(4, evaluations[0]);
+    }
+
+    @Test
+    public void testWhen_AllFlagsAreEvaluated_Then_ResultsAreSameAsEvaluatingEachFlag() {
+        FeatureFlag a = prerequisiteFlag("a", true, null);
+        FeatureFlag b = prerequisiteFlag("b", true, prerequisites(a, "ON"));
+        FeatureFlag c = prerequisiteFlag("c", false, prerequisites(a, "ON"));
+        FeatureFlag d = prerequisiteFlag("d", true, prerequisites(c, "ON"));
+        FeatureFlag splits = flag(true, Collections.emptyList(),
+                defaultRule(split("ON", 50), split("OFF", 50)), null);
+        Map<String, EvaluationPlan> plans = compiler.compile(listOf(a, b, c, d, splits));
+
+        for (int i = 0; i < 100; i++) {
+            UnlaunchUser user = UnlaunchUser.create("user" + i);
+            Map<String, UnlaunchFeature> results = planEvaluator.evaluateAll(plans.values(), user);
+
+            Assert.assertEquals(plans.keySet(), results.keySet());
+            for (EvaluationPlan plan : plans.values()) {
+                Assert.assertSame(planEvaluator.evaluate(plan, user), results.get(plan.getKey()));
+            }
+        }
+    }
+
+    @Test
+    public void testWhen_AllFlagsAreEvaluated_Then_SharedPrerequisiteIsEvaluatedOnce() {
+        FeatureFlag a = targetedFlag("a");
+        FeatureFlag b = prerequisiteFlag("b", true, prerequisites(a, "ON"));
+        FeatureFlag c = prerequisiteFlag("c", true, prerequisites(a, "ON"));
+        Map<String, EvaluationPlan> plans = compiler.compile(listOf(a, b, c));
+
+        int[] evaluations = {0};
+        UnlaunchUser user = new UnlaunchUser("user1") {
+            @Override
+            SlotValues getSlotValues(AttributeDictionary dictionary) {
+                evaluations[0]++;
+                return super.getSlotValues(dictionary);
+            }
+        };
+
+        Assert.assertEquals(3, planEvaluator.evaluateAll(plans.values(), user).size());
+        Assert.assertEquals(3, evaluations[0]);
+    }
+
+    @Test
+    public void testWhen_FlagIsCompiled_Then_ItIsClassifiedByShape() {
+        Rule rule = new Rule(false, 1,
+                listOf(new Condition("country", Operator.EQUALS, AttributeType.STRING, "USA")),
+                listOf(split("ON", 100)));
+        FeatureFlag allowList = flag(true, Collections.emptyList(), defaultRule(split("ON", 50), split("OFF", 50)),
+                null);
+        allowList.getVariations().get(0).setAllowList("user1,user2");
+
+        Assert.assertEquals(FlagShape.CONSTANT, compiler.compile(
+                flag(false, listOf(rule), defaultRule(split("ON", 50), split("OFF", 50)), null)).getShape());
+        Assert.assertEquals(FlagShape.CONSTANT, compiler.compile(
+                flag(true, Collections.emptyList(), defaultRule(split("ON", 100)), null)).getShape());
+        Assert.assertEquals(FlagShape.BUCKET_ONLY, compiler.compile(
+                flag(true, Collections.emptyList(), defaultRule(split("ON", 50), split("OFF", 50)), null)).getShape());
+        Assert.assertEquals(FlagShape.ALLOW_LIST_AND_BUCKET, compiler.compile(allowList).getShape());
+        Assert.assertEquals(FlagShape.ATTRIBUTE_DEPENDENT, compiler.compile(
+                flag(true, listOf(rule), defaultRule(split("OFF", 100)), null)).getShape());
+        Assert.assertEquals(FlagShape.HAS_PREREQUISITES, compiler.compile(
+                prerequisiteFlag("dependent", true, prerequisites(prerequisiteFlag("a", true, null), "ON")))
+                .getShape());
+    }
+
+    @Test
+    public void testWhen_FlagIsConstant_Then_UserAttributesAreNotRead() {
+        FeatureFlag flag = flag(true, Collections.emptyList(), defaultRule(split("ON", 100)), null);
+        EvaluationPlan plan = compiler.compile(flag);
+
+        int[] reads = {0};
+        UnlaunchUser user = new UnlaunchUser("user1") {
+            @Override
+            SlotValues getSlotValues(AttributeDictionary dictionary) {
+                reads[0]++;
+                return super.getSlotValues(dictionary);
+            }
+        };
+
+        UnlaunchFeature result = planEvaluator.evaluate(plan, user);
+
+        Assert.assertSame(plan.getConstantResult(), result);
+        Assert.assertEquals(evaluator.evaluate(flag, user).getEvaluationReason(), result.getEvaluationReason());
+        Assert.assertEquals(0, reads[0]);
+    }
+
+    @Test
+    public void testWhen_FlagIsEvaluated_Then_OnlyItsAttributesAreRead() {
+        Rule countryRule = new Rule(false, 1,
+                listOf(new Condition("country", Operator.EQUALS, AttributeType.STRING, "USA")),
+                listOf(split("ON", 100)));
+        Rule ageRule = new Rule(false, 1,
+                listOf(new Condition("age", Operator.GREATER_THAN, AttributeType.NUMBER, "18")),
+                listOf(split("ON", 100)));
+        Map<String, EvaluationPlan> plans = compiler.compile(listOf(
+                new FeatureFlag("byCountry", "byCountry", listOf(variation("ON"), variation("OFF")), null,
+                        listOf(countryRule, defaultRule(split("OFF", 100))), true, variation("OFF"),
+                        defaultRule(split("OFF", 100)), null, "boolean"),
+                new FeatureFlag("byAge", "byAge", listOf(variation("ON"), variation("OFF")), null,
+                        listOf(ageRule, defaultRule(split("OFF", 100))), true, variation("OFF"),
+                        defaultRule(split("OFF", 100)), null, "boolean"),
+                prerequisiteFlag("constant", true, null)));
+
+        List<String> reads = new ArrayList<>();
+        UnlaunchUser user = new UnlaunchUser("user1") {
+            @Override
+            UnlaunchValue getAttributeValue(String key) {
+                reads.add(key);
+                return super.getAttributeValue(key);
+            }
+        };
+        user.putAttribute("country", "USA");
+        user.putAttribute("age", 30);
+        user.putAttribute("plan", "premium");
+
+        Assert.assertEquals("ON", planEvaluator.evaluate(plans.get("constant"), user).getVariation());
+        Assert.assertEquals(Collections.emptyList(), reads);
+
+        Assert.assertEquals("ON", planEvaluator.evaluate(plans.get("byCountry"), user).getVariation());
+        Assert.assertEquals(listOf("country"), reads);
+
+        Assert.assertEquals("ON", planEvaluator.evaluate(plans.get("byAge"), user).getVariation());
+        Assert.assertEquals(listOf("country", "age"), reads);
+    }
+
+    @Test
+    public void testWhen_UserIsNotInAllowList_Then_DefaultRuleIsServedSameAsEvaluator() {
+        FeatureFlag flag = flag(true, Collections.emptyList(), defaultRule(split("ON", 30), split("OFF", 70)), null);
+        flag.getVariations().get(1).setAllowList("user7");
+        EvaluationPlan plan = compiler.compile(flag);
+
+        for (int i = 0; i < 200; i++) {
+            UnlaunchUser user = UnlaunchUser.create("user" + i);
+            UnlaunchFeature expected = evaluator.evaluate(flag, user);
+            UnlaunchFeature actual = planEvaluator.evaluate(plan, user);
+
+            Assert.assertEquals(expected.getVariation(), actual.getVariation());
+            Assert.assertEquals(expected.getEvaluationReason(), actual.getEvaluationReason());
+        }
+    }
+
+    @Test
+    public void testWhen_RuleHasSplits_Then_BucketsAreServedSameAsEvaluator() {
+        FeatureFlag flag = flag(true, Collections.emptyList(),
+                defaultRule(split("ON", 33), split("OFF", 0), split("GENERAL", 67)), null);
+        EvaluationPlan plan = compiler.compile(flag);
+
+        for (int i = 0; i < 1000; i++) {
+            UnlaunchUser user = UnlaunchUser.create("user" + i);
+            Assert.assertEquals(evaluator.evaluate(flag, user).getVariation(),
+                    planEvaluator.evaluate(plan, user).getVariation());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWhen_SplitsDoNotAddUpTo100_Then_FlagIsRejected() {
+        compiler.compile(flag(true, Collections.emptyList(), defaultRule(split("ON", 40), split("OFF", 50)), null));
+    }
+
+    @Test
+    public void testWhen_FlagsAreCompiled_Then_InvalidFlagsAreLeftOut() {
+        FeatureFlag valid = flag(true, Collections.emptyList(), defaultRule(split("ON", 100)), null);
+        FeatureFlag invalid = new FeatureFlag("invalid", "invalid", listOf(variation("ON")), null,
+                Collections.emptyList(), true, variation("OFF"), defaultRule(split("ON", 99)), null, "boolean");
+
+        Map<String, EvaluationPlan> plans = compiler.compile(listOf(valid, invalid));
+
+        Assert.assertEquals(1, plans.size());
+        Assert.assertNotNull(plans.get(flagKey));
+    }
+
+    @Test
+    public void testWhen_FlagHasNoDefaultRule_Then_OnlyThatFlagIsLeftOut() {
+        FeatureFlag valid = flag(true, Collections.emptyList(), defaultRule(split("ON", 100)), null);
+        FeatureFlag noDefaultRule = new FeatureFlag("noDefaultRule", "noDefaultRule", listOf(variation("ON")), null,
+                Collections.emptyList(), true, variation("OFF"), null, null, "boolean");
+        FeatureFlag dependent = prerequisiteFlag("dependent", true, prerequisites(noDefaultRule, "ON"));
+
+        Map<String, EvaluationPlan> plans = compiler.compile(listOf(noDefaultRule, valid, dependent));
+
+        Assert.assertEquals(1, plans.size());
+        Assert.assertNotNull(plans.get(flagKey));
+    }
+
+    @Test
+    public void testWhen_FlagsAreDownloaded_Then_PlanAndInterpretedEvaluationsAreIdentical() throws Exception {
+        JSONObject response = (JSONObject) new JSONParser().parse(
+                UnlaunchTestHelper.flagsResponseFromServerWithOneFlag());
+        JSONArray flags = (JSONArray) ((JSONObject) response.get("data")).get("flags");
+        FeatureFlag flag = new JsonObjectConversionHelper().toUnlaunchFlags(flags).get(0);
+        EvaluationPlan plan = compiler.compile(flag);
+
+        String[] accountTypes = {"prepaid", "postpaid", "other"};
+        for (int i = 0; i < 300; i++) {
+            UnlaunchUser user = UnlaunchUser.create("user" + i);
+            user.putAttribute("account_type", accountTypes[i % accountTypes.length]);
+            user.putAttribute("max_loan", i * 3);
+            user.putAttribute("min_loan", i);
+
+            UnlaunchFeature expected = evaluator.evaluate(flag, user);
+            UnlaunchFeature actual = planEvaluator.evaluate(plan, user);
+
+            Assert.assertEquals(expected.getVariation(), actual.getVariation());
+            Assert.assertEquals(expected.getEvaluationReason(), actual.getEvaluationReason());
+            Assert.assertEquals(expected.getVariationConfigAsMap(), actual.getVariationConfigAsMap());
+        }
+    }
+
+    private FeatureFlag flag(boolean enabled, List<Rule> rules, Rule defaultRule,
+                             Map<FeatureFlag, Variation> prerequisites) {
+        List<Rule> allRules = new ArrayList<>(rules);
+        allRules.add(defaultRule);
+        return new FeatureFlag(flagKey, flagKey, listOf(variation("ON"), variation("OFF")), prerequisites,
+                allRules, enabled, variation("OFF"), defaultRule, null, "boolean");
+    }
+
+    private FeatureFlag prerequisiteFlag(String key, boolean enabled, Map<FeatureFlag, Variation> prerequisites) {
+        return new FeatureFlag(key, key, listOf(variation("ON"), variation("OFF")), prerequisites,
+                Collections.emptyList(), enabled, variation("OFF"), defaultRule(split("ON", 100)), null, "boolean");
+    }
+
+    /**
+     * Returns a flag with a targeting rule, so evaluating it reads the user's attributes.
+     */
+    private FeatureFlag targetedFlag(String key) {
+        Rule rule = new Rule(false, 1,
+                listOf(new Condition("country", Operator.EQUALS, AttributeType.STRING, "USA")),
+                listOf(split("OFF", 100)));
+        return new FeatureFlag(key, key, listOf(variation("ON"), variation("OFF")), null,
+                listOf(rule, defaultRule(split("ON", 100))), true, variation("OFF"), defaultRule(split("ON", 100)),
+                null, "boolean");
+    }
+
+    private Map<FeatureFlag, Variation> prerequisites(FeatureFlag prerequisite, String variationKey) {
+        Map<FeatureFlag, Variation> prerequisites = new HashMap<>();
+        prerequisites.put(prerequisite, variation(variationKey));
+        return prerequisites;
+    }
+
+    private Rule defaultRule(Variation... splits) {
+        return new Rule(true, 0, Collections.emptyList(), listOf(splits));
+    }
+
+    private Variation split(String key, long rolloutPercentage) {
+        Variation variation = variation(key);
+        variation.setRolloutPercentage(rolloutPercentage);
+        return variation;
+    }
+
+    private Variation variation(String key) {
+        Variation variation = new Variation();
+        variation.setKey(key);
+        variation.setName(key);
+        return variation;
+    }
+
+    private static void putIfNotNull(UnlaunchUser user, String attribute, Object value) {
+        if (value != null) {
+            user.putAttribute(attribute, value);
+        }
+    }
+
+    /**
+     * Returns the variation and reason of the evaluation, or the error it failed with.
+     */
+    private static String outcome(Supplier<UnlaunchFeature> evaluation) {
+        try {
+            UnlaunchFeature result = evaluation.get();
+            return result.getVariation() + ": " + result.getEvaluationReason();
+        } catch (RuntimeException e) {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+
+    private static Set<Object> setOf(Object... items) {
+        Set<Object> set = new HashSet<>();
+        Collections.addAll(set, items);
+        return set;
+    }
+
+    @SafeVarargs
+    private static <T> List<T> listOf(T... items) {
+        List<T> list = new ArrayList<>();
+        Collections.addAll(list, items);
+        return list;
+    }
+}
@@ -0,0 +1,44 @@
+package io.unlaunch.engine;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SemanticVersionTest {
+
+    @Test
+    public void testVersionsAreOrderedByPrecedence() {
+        // In ascending order, the example of the Semantic Versioning specification followed by later releases
+        String[] versions = {"1.0.0-alpha", "1.0.0-alpha.1", "1.0.0-alpha.beta", "1.0.0-beta", "1.0.0-beta.2",
+                "1.0.0-beta.11", "1.0.0-rc.1", "1.0.0", "1.0.1", "1.2.0", "1.10.0", "2.0.0", "10.0.0",
+                "2147483647.0.0"};
+
+        for (int i = 0; i < versions.length; i++) {
+            for (int j = 0; j < versions.length; j++) {
+                SemanticVersion a = SemanticVersion.parse(versions[i]);
+                SemanticVersion b = SemanticVersion.parse(versions[j]);
+                Assert.assertEquals(versions[i] + " vs " + versions[j], Integer.signum(Integer.compare(i, j)),
+                        Integer.signum(a.compareTo(b)));
+            }
+        }
+    }
+
+    @Test
+    public void testLenientVersionsAreParsed() {
+        Assert.assertEquals(SemanticVersion.parse("1.2.0"), SemanticVersion.parse("v1.2"));
+        Assert.assertEquals(SemanticVersion.parse("1.0.0"), SemanticVersion.parse("1"));
+        Assert.assertEquals(SemanticVersion.parse("1.2.3"), SemanticVersion.parse("01.02.03"));
+        Assert.assertEquals(SemanticVersion.parse("1.2.3-rc.1"), SemanticVersion.parse("1.2.3-rc.1+build.5"));
+        Assert.assertEquals(SemanticVersion.parse("1.2.3").hashCode(), SemanticVersion.parse("v1.2.3+7").hashCode());
+        Assert.assertEquals("1.2.3-rc.1", SemanticVersion.parse("v1.2.3-rc.1+build").toString());
+    }
+
+    @Test
+    public void testInvalidVersionsAreRejected() {
+        String[] invalid = {null, "", "v", "1.", ".1", "1..2", "1.2.3.4", "1.2.x", "1.2.3-", "1.2.3+", "1.2.3-a..b",
+                "1.2.3-a_b", "abc", "2147483648.0.0", " 1.2.3"};
+
+        for (String version : invalid) {
+            Assert.assertNull(version, SemanticVersion.parse(version));
+        }
+    }
+}
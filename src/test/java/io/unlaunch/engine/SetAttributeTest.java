@@ -8,6 +8,7 @@ import org.mockito.Mockito;
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
 public class SetAttributeTest {
@@ -452,7 +453,7 @@ public class SetAttributeTest {
 
         Map<String, UnlaunchValue> map = new HashMap();
         map.put(attribute, setValue);
-        when(user.getAllAttributes()).thenReturn(map);
+        when(user.getAttributeValue(anyString())).thenAnswer(invocation -> map.get(invocation.getArgument(0)));
 
         Condition condition = new Condition(attribute, operator, AttributeType.SET, value);
         List<Condition> conditions = new ArrayList<>();
@@ -6,7 +6,9 @@ import org.junit.Test;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class UnLaunchUserTest {
@@ -75,5 +77,62 @@ public class UnLaunchUserTest {
     public void testIllegalConstruction2() {
         UnlaunchUser user = new UnlaunchUser("");
     }
-}
 
+    @Test
+    public void testAttributeValueIsReadWithoutCopying() {
+        UnlaunchUser user = new UnlaunchUser("user-123");
+        user.putAttribute("country", "USA");
+
+        Assert.assertEquals("USA", user.getAttributeValue("country").get());
+        Assert.assertNull(user.getAttributeValue("age"));
+        Assert.assertTrue(new Condition("country", Operator.EQUALS, AttributeType.STRING, "USA").match(user));
+        Assert.assertFalse(new Condition("age", Operator.EQUALS, AttributeType.NUMBER, "30").match(user));
+    }
+
+    @Test
+    public void testSlotValuesAreLookedUpWhenRead() {
+        AttributeDictionary dictionary = new AttributeDictionary(Arrays.asList("country", "age"));
+        List<String> lookups = new ArrayList<>();
+        UnlaunchUser user = new UnlaunchUser("user-123") {
+            @Override
+            UnlaunchValue getAttributeValue(String key) {
+                lookups.add(key);
+                return super.getAttributeValue(key);
+            }
+        };
+        user.putAttribute("age", 30);
+        user.putAttribute("unused", "abc");
+
+        SlotValues values = user.getSlotValues(dictionary);
+        Assert.assertTrue(lookups.isEmpty());
+
+        Assert.assertEquals(30, values.get(dictionary.getSlot("age")).get());
+        Assert.assertEquals(30, values.get(dictionary.getSlot("age")).get());
+        Assert.assertNull(values.get(dictionary.getSlot("country")));
+        Assert.assertNull(values.get(dictionary.getSlot("country")));
+        Assert.assertEquals(Arrays.asList("age", "country"), lookups);
+        Assert.assertSame(values, user.getSlotValues(dictionary));
+    }
+
+    @Test
+    public void testSlotValuesAreInvalidatedWhenAttributesChange() {
+        AttributeDictionary dictionary = new AttributeDictionary(Arrays.asList("country"));
+        UnlaunchUser user = new UnlaunchUser("user-123");
+        user.putAttribute("country", "USA");
+        Assert.assertEquals("USA", user.getSlotValues(dictionary).get(0).get());
+
+        user.putAttribute("country", "Canada");
+        Assert.assertEquals("Canada", user.getSlotValues(dictionary).get(0).get());
+
+        user.clearAllAttributes();
+        Assert.assertNull(user.getSlotValues(dictionary).get(0));
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("country", "Mexico");
+        user.setAttributes(attributes);
+        Assert.assertEquals("Mexico", user.getSlotValues(dictionary).get(0).get());
+
+        AttributeDictionary otherDictionary = new AttributeDictionary(Arrays.asList("age", "country"));
+        Assert.assertEquals("Mexico", user.getSlotValues(otherDictionary).get(1).get());
+    }
+}
@@ -59,6 +59,27 @@ public class CountAggregatorEventHandlerTest {
         eventHandler.close();
     }
 
+    @Test
+    public void testCountsOfBulkEvaluationAreAggregated() {
+        EventHandler eventHandler = Mockito.mock(EventHandler.class);
+        EventHandler flagInvocationMetricHandler = EventHandler.createCountAggregatorEventHandler(eventHandler,
+                500, TimeUnit.MILLISECONDS);
+
+        Event counts = new Event(UnlaunchConstants.FLAG_INVOCATIONS_COUNT_EVENT_TYPE, "flag");
+        counts.addProperty("on", 5L);
+        flagInvocationMetricHandler.handle(counts);
+        flagInvocationMetricHandler.handle(new Event("ignore", "flag", "on"));
+
+        Awaitility.await().pollDelay(Durations.ONE_SECOND).until(() -> true);
+
+        ArgumentCaptor<Event> argument = ArgumentCaptor.forClass(Event.class);
+        Mockito.verify(eventHandler, Mockito.times(1)).handle(argument.capture());
+        Assert.assertEquals("flag", argument.getValue().getKey());
+        Assert.assertEquals(6, argument.getValue().getProperties().get("on"));
+
+        eventHandler.close();
+    }
+
     @Test
     public void testIfEventHandlerHasAProblemOneFirstCallButSecondSucceeds() {
         EventHandler eventHandler = Mockito.mock(EventHandler.class);
@@ -0,0 +1,61 @@
+package io.unlaunch.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class MurmurHash3Test {
+
+    @Test
+    public void testWhen_TwoPartsAreHashed_Then_HashIsSameAsConcatenatedString() {
+        String[][] keys = {
+                {"user1", "flag1"},
+                {"", ""},
+                {"", "flag"},
+                {"user", ""},
+                {"abc", "d"},
+                {"h\u00E9llo", "w\u00F6rld"},
+                {"\u20AC\u20AC", "\u00A3"},
+                {"emoji\uD83D\uDE00", "flag"},
+                {"emoji\uD83D", "\uDE00flag"},
+                {"unpaired\uD83D", ""},
+                {"\uDE00", "low"},
+        };
+
+        for (String[] key : keys) {
+            assertSameHash(key[0], key[1]);
+        }
+    }
+
+    @Test
+    public void testWhen_RandomKeysAreHashed_Then_HashIsSameAsConcatenatedString() {
+        Random random = new Random(42);
+        char[] alphabet = {'a', 'Z', '0', '-', '\u00E9', '\u20AC', '\uD83D', '\uDE00', '\uDBFF', '\uDC00'};
+
+        for (int i = 0; i < 10_000; i++) {
+            assertSameHash(randomString(random, alphabet), randomString(random, alphabet));
+        }
+    }
+
+    private static void assertSameHash(String first, String second) {
+        String key = first + second;
+        long expected = MurmurHash3.murmurhash3_x86_32(key, 0, key.length(), 0);
+
+        Assert.assertEquals(key, expected, MurmurHash3.murmurhash3_x86_32(first, second, 0));
+
+        MurmurHash3.PrefixState prefix = new MurmurHash3.PrefixState();
+        MurmurHash3.murmurhash3_x86_32_prefix(first, 0, prefix);
+        Assert.assertEquals(key, expected, MurmurHash3.murmurhash3_x86_32(prefix, second));
+        // the prefix can be reused
+        Assert.assertEquals(key, expected, MurmurHash3.murmurhash3_x86_32(prefix, second));
+    }
+
+    private static String randomString(Random random, char[] alphabet) {
+        char[] chars = new char[random.nextInt(12)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = alphabet[random.nextInt(alphabet.length)];
+        }
+        return new String(chars);
+    }
+}